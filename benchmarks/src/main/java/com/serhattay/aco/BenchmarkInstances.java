@@ -0,0 +1,133 @@
+package com.serhattay.aco;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * A class representing the inputs the benchmarks run on: the files in misc and randomly generated instances,
+ * either spread uniformly or gathered in clusters.
+ */
+final class BenchmarkInstances {
+    /** The system property naming the directory of the input files, relative to where the benchmarks are run. */
+    static final String INSTANCES_DIR_PROPERTY = "aco.instances.dir";
+    private static final String RANDOM_PREFIX = "random";
+    private static final String CLUSTERED_PREFIX = "clustered";
+    private static final long RANDOM_SEED = 20240511L;
+    // Average number of cities per cluster and spread of a cluster around its centre
+    private static final int CITIES_PER_CLUSTER = 25;
+    private static final double CLUSTER_SPREAD = 0.04;
+
+    private BenchmarkInstances() {
+    }
+
+    /**
+     * Loads an instance into Node and creates its distance matrix, replacing whatever was loaded before.
+     * Names like "input03" are read from the instances directory, names like "random1000" or "clustered1000" are
+     * generated with a fixed seed, so every fork of every benchmark sees the same cities.
+     * @param name The name of the instance.
+     * @return The problem of the instance, the same one Node now holds.
+     */
+    static Problem load(String name) {
+        return load(name, MatrixStorage.FULL);
+    }
+
+    /**
+     * Loads an instance into Node like {@link #load(String)}, keeping its matrices in a chosen storage.
+     * @param name The name of the instance.
+     * @param storage How the distance and pheromone matrices are kept in memory.
+     * @return The problem of the instance, the same one Node now holds.
+     */
+    static Problem load(String name, MatrixStorage storage) {
+        Node.clearNodes();
+        try {
+            Node.readNodesFromFile(resolve(name).toString());
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        Node.createDistanceMatrix(storage);
+        return Node.getProblem();
+    }
+
+    /**
+     * Reads or generates an instance like {@link #load(String)}, without touching Node.
+     * @param name The name of the instance.
+     * @return The problem of the instance, named after the instance.
+     */
+    static Problem read(String name) {
+        try {
+            InstanceReader reader = InstanceReader.read(resolve(name));
+            return new Problem(name, reader.getX(), reader.getY(), reader.getDistanceType(), MatrixStorage.FULL);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Finds or generates the file of an instance.
+     * @param name The name of the instance.
+     * @return The path of the file holding the instance.
+     */
+    private static Path resolve(String name) {
+        boolean clustered = name.startsWith(CLUSTERED_PREFIX);
+        if (!clustered && !name.startsWith(RANDOM_PREFIX)) {
+            return Paths.get(System.getProperty(INSTANCES_DIR_PROPERTY, "misc"), name + ".txt");
+        }
+        int cityCount = Integer.parseInt(name.substring((clustered ? CLUSTERED_PREFIX : RANDOM_PREFIX).length()));
+        try {
+            Path file = Files.createTempFile("aco-" + name + "-", ".txt");
+            file.toFile().deleteOnExit();
+            if (clustered) {
+                writeClusteredInstance(file, cityCount);
+            } else {
+                writeRandomInstance(file, cityCount);
+            }
+            return file;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Writes cities spread uniformly over the unit square in the same format as the files in misc.
+     * @param file The file to write.
+     * @param cityCount The number of cities.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void writeRandomInstance(Path file, int cityCount) throws IOException {
+        Random rand = new Random(RANDOM_SEED + cityCount);
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            for (int i = 0; i < cityCount; i++) {
+                out.printf(Locale.ROOT, "%.6f,%.6f%n", rand.nextDouble(), rand.nextDouble());
+            }
+        }
+    }
+
+    /**
+     * Writes cities gathered in clusters in the same format as the files in misc. The centres of the clusters are
+     * spread uniformly over the unit square and every city lies at a normally distributed offset from a random one.
+     * @param file The file to write.
+     * @param cityCount The number of cities.
+     * @throws IOException If the file cannot be written.
+     */
+    private static void writeClusteredInstance(Path file, int cityCount) throws IOException {
+        Random rand = new Random(RANDOM_SEED + cityCount);
+        int clusterCount = Math.max(2, cityCount / CITIES_PER_CLUSTER);
+        double[][] centres = new double[clusterCount][];
+        for (int i = 0; i < clusterCount; i++) {
+            centres[i] = new double[]{rand.nextDouble(), rand.nextDouble()};
+        }
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file))) {
+            for (int i = 0; i < cityCount; i++) {
+                double[] centre = centres[rand.nextInt(clusterCount)];
+                out.printf(Locale.ROOT, "%.6f,%.6f%n", centre[0] + rand.nextGaussian() * CLUSTER_SPREAD,
+                        centre[1] + rand.nextGaussian() * CLUSTER_SPREAD);
+            }
+        }
+    }
+}
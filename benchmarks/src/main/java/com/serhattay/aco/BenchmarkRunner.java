@@ -0,0 +1,30 @@
+package com.serhattay.aco;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * A class representing the entry point of the benchmark jar.
+ * It takes the usual JMH command-line options and always adds the GC profiler,
+ * so every result comes with its allocation rate next to its throughput.
+ */
+public class BenchmarkRunner {
+    /**
+     * Runs the benchmarks selected on the command line, or all of them.
+     * @param args The JMH command-line options.
+     * @throws CommandLineOptionException If the options cannot be parsed.
+     * @throws RunnerException If a benchmark fails.
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
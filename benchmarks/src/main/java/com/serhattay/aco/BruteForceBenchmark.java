@@ -0,0 +1,58 @@
+package com.serhattay.aco;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A class representing the benchmark of the Brute-Force Method.
+ * It only runs on the two smallest inputs, every larger one takes hours per invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class BruteForceBenchmark {
+    @Param({"input01", "input02"})
+    public String instance;
+
+    /**
+     * Loads the instance once for the whole trial.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkInstances.load(instance);
+    }
+
+    /**
+     * Forgets the shortest path of the previous invocation, so every invocation does the same work.
+     */
+    @Setup(Level.Invocation)
+    public void resetShortestPath() {
+        Node.setShortestPath(null);
+        Node.setShortestDistance(Float.MAX_VALUE);
+    }
+
+    /**
+     * Tries every order of the nodes.
+     * @return The shortest distance found.
+     */
+    @Benchmark
+    public double bruteForce() {
+        SerhatTay.bruteForce();
+        return Node.getShortestDistance();
+    }
+}
@@ -0,0 +1,68 @@
+package com.serhattay.aco;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A class representing the benchmark of a single step of an ant, taken halfway through its tour.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class DecidePathBenchmark {
+    @Param({"input01", "input02", "input03", "input04", "input05", "random100", "random1000", "random10000"})
+    public String instance;
+
+    @Param({"FULL", "PACKED", "COMPACT"})
+    public MatrixStorage storage;
+
+    private Solver solver;
+    private boolean[] visited;
+    private int[] choices;
+    private double[] cumulativeValues;
+    private Random rand;
+    private int previousNode;
+
+    /**
+     * Loads the instance, initializes the pheromones and marks every other node as visited.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        solver = new Solver(BenchmarkInstances.load(instance, storage));
+        solver.initializeColony(0.8, 1.1, 1.6, 0.01, 0.0001);
+        int numberOfNodes = solver.getProblem().getNumberOfNodes();
+        visited = new boolean[numberOfNodes];
+        for (int i = 0; i < numberOfNodes; i += 2) {
+            visited[i] = true;
+        }
+        choices = new int[numberOfNodes];
+        cumulativeValues = new double[numberOfNodes];
+        rand = new Random(0);
+        previousNode = 0;
+    }
+
+    /**
+     * Chooses the next node from the unvisited half of the nodes.
+     * @return The chosen node.
+     */
+    @Benchmark
+    public int decidePath() {
+        return solver.decidePath(previousNode, visited, choices, cumulativeValues, rand);
+    }
+}
@@ -0,0 +1,53 @@
+package com.serhattay.aco;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A class representing the benchmark of building the distance matrix from the node coordinates, with the distance
+ * kernel on the Vector API and with the scalar one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx8g", "--add-modules=jdk.incubator.vector"})
+public class DistanceMatrixBenchmark {
+    @Param({"input01", "input02", "input03", "input04", "input05", "random100", "random1000", "random10000"})
+    public String instance;
+
+    @Param({"true", "false"})
+    public boolean vector;
+
+    /**
+     * Chooses the distance kernel and loads the instance once for the whole trial.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        System.setProperty(DistanceKernel.VECTOR_PROPERTY, Boolean.toString(vector));
+        BenchmarkInstances.load(instance);
+    }
+
+    /**
+     * Builds the distance matrix of every pair of nodes.
+     * @return The distance matrix, so the work cannot be eliminated.
+     */
+    @Benchmark
+    public double[][] createDistanceMatrix() {
+        Node.createDistanceMatrix();
+        return Node.getDistanceMatrix();
+    }
+}
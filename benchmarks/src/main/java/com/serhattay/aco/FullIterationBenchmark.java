@@ -0,0 +1,67 @@
+package com.serhattay.aco;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A class representing the benchmark of a whole ant colony run without drawing.
+ * The iteration and ant counts are kept small so that the largest instances still finish an invocation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class FullIterationBenchmark {
+    @Param({"input01", "input02", "input03", "input04", "input05", "random100", "random1000", "random10000"})
+    public String instance;
+
+    @Param({"FULL", "PACKED", "COMPACT", "MATRIX_FREE"})
+    public MatrixStorage storage;
+
+    @Param({"5"})
+    public int iterationCount;
+
+    @Param({"10"})
+    public int antPerIteration;
+
+    /**
+     * Loads the instance once for the whole trial.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        BenchmarkInstances.load(instance, storage);
+    }
+
+    /**
+     * Forgets the shortest path of the previous invocation, so every invocation does the same work.
+     */
+    @Setup(Level.Invocation)
+    public void resetShortestPath() {
+        Node.setShortestPath(null);
+        Node.setShortestDistance(Float.MAX_VALUE);
+    }
+
+    /**
+     * Runs the colony with the default parameters of the program.
+     * @return The shortest distance found.
+     */
+    @Benchmark
+    public double fullIteration() {
+        Pheromone.fullIteration(iterationCount, antPerIteration, 0.8, 1.1, 1.6, 0.01, 0.0001, 0);
+        return Node.getShortestDistance();
+    }
+}
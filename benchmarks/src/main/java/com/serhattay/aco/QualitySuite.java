@@ -0,0 +1,450 @@
+package com.serhattay.aco;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+
+/**
+ * A class representing the quality-versus-time suite, which measures how fast the colony converges rather than how
+ * fast a single step is. It solves generated instances several times with fixed seeds, records the anytime curve of
+ * every run, the gap of the shortest tour to a reference length against the ants used and against the time spent,
+ * and writes everything to a JSON report meant to be diffed between builds.
+ * The reference of an instance of at most {@value #EXACT_NODES} nodes is its optimum, found with the Held-Karp
+ * method; for larger instances it is the shortest tour of all runs, so their gaps only compare the runs.
+ * The gaps against ants do not depend on the machine, so the report keeps them apart from the times, on their own
+ * lines: a change in those lines means the colony itself behaves differently.
+ */
+public class QualitySuite {
+    // The parameters of the colony, the same as the defaults of the main program
+    private static final double DEGRADATION_FACTOR = 0.8;
+    private static final double ALPHA = 1.1;
+    private static final double BETA = 1.6;
+    private static final double INITIAL_PHEROMONE_INTENSITY = 0.01;
+    private static final double Q_VALUE = 0.0001;
+    // Largest instance whose optimum is calculated, small enough for the Held-Karp table to take a moment
+    private static final int EXACT_NODES = 20;
+    // Gap, in percent, whose first crossing is reported as the time to a good tour
+    private static final double TARGET_GAP = 1.0;
+    private static final long BASE_SEED = 1L;
+    private static final String[] DEFAULT_INSTANCES = {
+            "random12", "clustered12", "random20", "clustered20",
+            "random100", "clustered100", "random500", "clustered500"
+    };
+
+    private final int runCount;
+    private final int iterationCount;
+    private final int antPerIteration;
+    private Consumer<Solver> solverSetup = solver -> { };
+
+    /**
+     * Constructs a suite.
+     * @param runCount The number of runs per instance, each with its own fixed seed.
+     * @param iterationCount The number of iterations per run.
+     * @param antPerIteration The number of ants per iteration.
+     */
+    public QualitySuite(int runCount, int iterationCount, int antPerIteration) {
+        if (runCount < 1) {
+            throw new IllegalArgumentException("Run count must be at least 1: " + runCount);
+        }
+        this.runCount = runCount;
+        this.iterationCount = iterationCount;
+        this.antPerIteration = antPerIteration;
+    }
+
+    /**
+     * Sets what is done to every new solver before it runs, such as setting its update rule or local search.
+     * The seed is set by the suite after the setup, so the runs stay repeatable.
+     * @param solverSetup The setup of every solver.
+     */
+    public void setSolverSetup(Consumer<Solver> solverSetup) {
+        this.solverSetup = solverSetup;
+    }
+
+    /**
+     * Runs the suite over instances, one after the other.
+     * @param instanceNames The names of the instances, see {@link BenchmarkInstances#load(String)}.
+     * @return The results of the instances, in the given order.
+     * @throws IllegalStateException If a run finds a tour shorter than the optimum of its instance.
+     */
+    public List<InstanceResult> run(List<String> instanceNames) {
+        List<InstanceResult> results = new ArrayList<>();
+        for (String name : instanceNames) {
+            results.add(run(name));
+        }
+        return results;
+    }
+
+    /**
+     * Calculates the reference length of an instance and solves it once per seed.
+     * @param name The name of the instance.
+     * @return The result of the instance.
+     * @throws IllegalStateException If a run finds a tour shorter than the optimum of the instance.
+     */
+    private InstanceResult run(String name) {
+        Problem problem = BenchmarkInstances.read(name);
+        boolean exact = problem.getNumberOfNodes() <= EXACT_NODES;
+        double reference = Double.MAX_VALUE;
+        if (exact) {
+            reference = new HeldKarp(problem.getDistanceMatrix()).solve();
+        }
+
+        RunResult[] runs = new RunResult[runCount];
+        for (int i = 0; i < runCount; i++) {
+            runs[i] = solve(problem, BASE_SEED + i);
+            if (exact && runs[i].getLength() < reference * (1.0 - 1e-9)) {
+                throw new IllegalStateException(String.format(Locale.ROOT,
+                        "Run with seed %d found %.6f on %s, shorter than the optimum %.6f",
+                        runs[i].getSeed(), runs[i].getLength(), name, reference));
+            }
+            if (!exact) {
+                reference = Math.min(reference, runs[i].getLength());
+            }
+        }
+        return new InstanceResult(name, problem.getNumberOfNodes(), reference, exact, runs);
+    }
+
+    /**
+     * Solves a problem once, recording the shortest tour at the end of every iteration that improved it.
+     * Only the last improvement of an iteration is kept, since which ant of an iteration finds a tour first depends
+     * on the threads, while the shortest tour at the end of the iteration does not.
+     * @param problem The problem.
+     * @param seed The seed of the run.
+     * @return The result of the run.
+     */
+    private RunResult solve(Problem problem, long seed) {
+        List<long[]> points = new ArrayList<>();
+        List<Double> lengths = new ArrayList<>();
+        Solver solver = new Solver(problem);
+        solverSetup.accept(solver);
+        solver.setSeed(seed);
+        solver.setImprovementListener((tour, iteration, elapsedNanos) -> {
+            int last = points.size() - 1;
+            if (last >= 0 && points.get(last)[0] == iteration) {
+                points.set(last, new long[]{iteration, elapsedNanos});
+                lengths.set(last, tour.getLength());
+            } else {
+                points.add(new long[]{iteration, elapsedNanos});
+                lengths.add(tour.getLength());
+            }
+        });
+        long startingTime = System.nanoTime();
+        solver.solve(iterationCount, antPerIteration, DEGRADATION_FACTOR, ALPHA, BETA,
+                INITIAL_PHEROMONE_INTENSITY, Q_VALUE);
+        long totalNanos = System.nanoTime() - startingTime;
+
+        long[] ants = new long[points.size()];
+        long[] nanos = new long[points.size()];
+        double[] curve = new double[points.size()];
+        for (int i = 0; i < ants.length; i++) {
+            // The tour is known by the end of its iteration, after all of its ants
+            ants[i] = (points.get(i)[0] + 1) * antPerIteration;
+            nanos[i] = points.get(i)[1];
+            curve[i] = lengths.get(i);
+        }
+        long totalAnts = (long) solver.getCompletedIterations() * antPerIteration;
+        return new RunResult(seed, ants, nanos, curve, totalAnts, totalNanos);
+    }
+
+    /**
+     * Writes the results as a JSON report. Every value is written in the same order and with the same precision on
+     * every machine, and the values that depend on the timing are on lines of their own.
+     * @param results The results of the instances.
+     * @param out Where the report is written.
+     */
+    public void writeReport(List<InstanceResult> results, PrintWriter out) {
+        out.println("{");
+        out.printf(Locale.ROOT, "  \"runs\": %d, \"iterations\": %d, \"antsPerIteration\": %d, \"exactNodes\": %d,"
+                + " \"targetGapPercent\": %s,%n", runCount, iterationCount, antPerIteration, EXACT_NODES,
+                formatGap(TARGET_GAP));
+        out.println("  \"instances\": [");
+        for (int i = 0; i < results.size(); i++) {
+            results.get(i).write(out);
+            out.println(i < results.size() - 1 ? "," : "");
+        }
+        out.println("  ]");
+        out.println("}");
+    }
+
+    /**
+     * Formats a gap the way the report writes it.
+     * @param gap The gap in percent.
+     * @return The gap with four decimals.
+     */
+    private static String formatGap(double gap) {
+        return String.format(Locale.ROOT, "%.4f", gap);
+    }
+
+    /**
+     * Formats a time the way the report writes it.
+     * @param nanos The time in nanoseconds.
+     * @return The time in milliseconds with three decimals.
+     */
+    private static String formatMillis(long nanos) {
+        return String.format(Locale.ROOT, "%.3f", nanos / 1e6);
+    }
+
+    /**
+     * A class representing the runs of one instance together with their reference length.
+     */
+    public static final class InstanceResult {
+        private final String name;
+        private final int numberOfNodes;
+        private final double reference;
+        private final boolean exact;
+        private final RunResult[] runs;
+
+        /**
+         * Constructs the result of an instance.
+         * @param name The name of the instance.
+         * @param numberOfNodes The number of nodes of the instance.
+         * @param reference The length the gaps are measured against.
+         * @param exact True if the reference is the optimum, false if it is the shortest tour of the runs.
+         * @param runs The runs, in the order of their seeds.
+         */
+        InstanceResult(String name, int numberOfNodes, double reference, boolean exact, RunResult[] runs) {
+            this.name = name;
+            this.numberOfNodes = numberOfNodes;
+            this.reference = reference;
+            this.exact = exact;
+            this.runs = runs;
+        }
+
+        /**
+         * Gets the name of the instance.
+         * @return The name of the instance.
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * Gets the length the gaps are measured against.
+         * @return The reference length.
+         */
+        public double getReference() {
+            return reference;
+        }
+
+        /**
+         * Tells whether the reference length is the optimum of the instance.
+         * @return True for the optimum, false for the shortest tour of the runs.
+         */
+        public boolean isExact() {
+            return exact;
+        }
+
+        /**
+         * Gets the average gap of the shortest tours at the end of the runs.
+         * @return The average final gap in percent.
+         */
+        public double getMeanFinalGap() {
+            return Arrays.stream(runs).mapToDouble(run -> run.getFinalGap(reference)).average().orElse(0.0);
+        }
+
+        /**
+         * Gets the average over the runs of the gap averaged over their ants, which is lower the faster they
+         * converge and not only the better they end.
+         * @return The average gap over the ants in percent.
+         */
+        public double getMeanGap() {
+            return Arrays.stream(runs).mapToDouble(run -> run.getMeanGap(reference)).average().orElse(0.0);
+        }
+
+        /**
+         * Gets the average running time of the runs.
+         * @return The average time in nanoseconds.
+         */
+        public long getMeanNanos() {
+            return (long) Arrays.stream(runs).mapToLong(RunResult::getTotalNanos).average().orElse(0.0);
+        }
+
+        /**
+         * Writes the instance as an element of the instances array of the report, without a line break at the end.
+         * @param out Where the report is written.
+         */
+        private void write(PrintWriter out) {
+            out.printf(Locale.ROOT, "    {\"name\": \"%s\", \"nodes\": %d, \"reference\": %.6f, \"exact\": %b,"
+                            + " \"meanFinalGapPercent\": %s, \"meanGapPercent\": %s,%n",
+                    name, numberOfNodes, reference, exact, formatGap(getMeanFinalGap()), formatGap(getMeanGap()));
+            out.printf(Locale.ROOT, "      \"meanMillis\": %s,%n", formatMillis(getMeanNanos()));
+            out.println("      \"runs\": [");
+            for (int i = 0; i < runs.length; i++) {
+                runs[i].write(out, reference);
+                out.println(i < runs.length - 1 ? "," : "");
+            }
+            out.print("      ]}");
+        }
+    }
+
+    /**
+     * A class representing one run of an instance and its anytime curve, one point per improving iteration.
+     */
+    public static final class RunResult {
+        private final long seed;
+        private final long[] ants;
+        private final long[] nanos;
+        private final double[] lengths;
+        private final long totalAnts;
+        private final long totalNanos;
+
+        /**
+         * Constructs the result of a run.
+         * @param seed The seed of the run.
+         * @param ants The number of ants used when each point of the curve was reached.
+         * @param nanos The time since the start of the run when each point of the curve was reached.
+         * @param lengths The length of the shortest tour at each point of the curve.
+         * @param totalAnts The number of ants of the whole run.
+         * @param totalNanos The time of the whole run in nanoseconds.
+         */
+        RunResult(long seed, long[] ants, long[] nanos, double[] lengths, long totalAnts, long totalNanos) {
+            this.seed = seed;
+            this.ants = ants;
+            this.nanos = nanos;
+            this.lengths = lengths;
+            this.totalAnts = totalAnts;
+            this.totalNanos = totalNanos;
+        }
+
+        /**
+         * Gets the seed of the run.
+         * @return The seed.
+         */
+        public long getSeed() {
+            return seed;
+        }
+
+        /**
+         * Gets the length of the shortest tour of the run.
+         * @return The length, or positive infinity if the run found no tour.
+         */
+        public double getLength() {
+            return lengths.length == 0 ? Double.POSITIVE_INFINITY : lengths[lengths.length - 1];
+        }
+
+        /**
+         * Gets the time of the whole run.
+         * @return The time in nanoseconds.
+         */
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        /**
+         * Gets the gap of the shortest tour of the run.
+         * @param reference The length the gap is measured against.
+         * @return The gap in percent.
+         */
+        public double getFinalGap(double reference) {
+            return gap(getLength(), reference);
+        }
+
+        /**
+         * Gets the gap averaged over the ants of the run, from the end of the first iteration on, which is the area
+         * under the curve of the gap against the ants divided by its width.
+         * @param reference The length the gaps are measured against.
+         * @return The average gap in percent.
+         */
+        public double getMeanGap(double reference) {
+            if (lengths.length == 0 || totalAnts <= ants[0]) {
+                return getFinalGap(reference);
+            }
+            double area = 0.0;
+            for (int i = 0; i < lengths.length; i++) {
+                long until = i + 1 < lengths.length ? ants[i + 1] : totalAnts;
+                area += gap(lengths[i], reference) * (until - ants[i]);
+            }
+            return area / (totalAnts - ants[0]);
+        }
+
+        /**
+         * Gets the time at which the gap first fell to the target.
+         * @param reference The length the gaps are measured against.
+         * @return The time in nanoseconds, or -1 if the run never reached the target.
+         */
+        public long getNanosToTarget(double reference) {
+            for (int i = 0; i < lengths.length; i++) {
+                if (gap(lengths[i], reference) <= TARGET_GAP) {
+                    return nanos[i];
+                }
+            }
+            return -1L;
+        }
+
+        /**
+         * Calculates the gap of a length to a reference length.
+         * @param length The length.
+         * @param reference The reference length.
+         * @return How much longer the length is, in percent of the reference, never below 0 so that an optimum
+         *         summed up in another order does not show as a negative gap.
+         */
+        private static double gap(double length, double reference) {
+            return reference > 0.0 ? Math.max(0.0, (length - reference) / reference * 100.0) : 0.0;
+        }
+
+        /**
+         * Writes the run as an element of the runs array of the report, without a line break at the end.
+         * @param out Where the report is written.
+         * @param reference The length the gaps are measured against.
+         */
+        private void write(PrintWriter out, double reference) {
+            out.printf(Locale.ROOT, "        {\"seed\": %d, \"length\": %.6f, \"ants\": %d, \"finalGapPercent\": %s,"
+                            + " \"meanGapPercent\": %s,%n", seed, getLength(), totalAnts,
+                    formatGap(getFinalGap(reference)), formatGap(getMeanGap(reference)));
+            StringBuilder byAnts = new StringBuilder();
+            StringBuilder byMillis = new StringBuilder();
+            for (int i = 0; i < lengths.length; i++) {
+                String separator = i == 0 ? "" : ", ";
+                String gap = formatGap(gap(lengths[i], reference));
+                byAnts.append(separator).append('[').append(ants[i]).append(", ").append(gap).append(']');
+                byMillis.append(separator).append('[').append(formatMillis(nanos[i])).append(", ").append(gap)
+                        .append(']');
+            }
+            out.printf("         \"gapByAnts\": [%s],%n", byAnts);
+            long nanosToTarget = getNanosToTarget(reference);
+            out.printf("         \"millis\": %s, \"millisToTarget\": %s,%n", formatMillis(totalNanos),
+                    nanosToTarget < 0 ? "null" : formatMillis(nanosToTarget));
+            out.printf("         \"gapByMillis\": [%s]}", byMillis);
+        }
+    }
+
+    /**
+     * Runs the suite, writes the report and prints one line per instance.
+     * @param args The report file, then optionally the number of runs, iterations and ants per iteration,
+     *             the local search mode and the names of the instances.
+     * @throws IOException If the report cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: QualitySuite <report> [runs] [iterations] [ants per iteration]"
+                    + " [local search 0-2] [instance...]");
+            return;
+        }
+        Path report = Paths.get(args[0]);
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int ants = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        int localSearch = args.length > 4 ? Integer.parseInt(args[4]) : 0;
+        List<String> instances = args.length > 5
+                ? Arrays.asList(args).subList(5, args.length) : Arrays.asList(DEFAULT_INSTANCES);
+
+        QualitySuite suite = new QualitySuite(runs, iterations, ants);
+        suite.setSolverSetup(solver -> solver.setLocalSearch(localSearch));
+        List<InstanceResult> results = suite.run(instances);
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(report))) {
+            suite.writeReport(results, out);
+        }
+        for (InstanceResult result : results) {
+            System.out.printf(Locale.ROOT, "%-16s %s %12.4f  final gap %8.4f%%  mean gap %8.4f%%  %10.3f ms%n",
+                    result.getName(), result.isExact() ? "optimum" : "best   ", result.getReference(),
+                    result.getMeanFinalGap(), result.getMeanGap(), result.getMeanNanos() / 1e6);
+        }
+        System.out.println("Report written to " + report);
+    }
+}
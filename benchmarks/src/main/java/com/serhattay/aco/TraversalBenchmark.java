@@ -0,0 +1,56 @@
+package com.serhattay.aco;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A class representing the benchmark of one ant building a whole tour and depositing its pheromones.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class TraversalBenchmark {
+    @Param({"input01", "input02", "input03", "input04", "input05", "random100", "random1000", "random10000"})
+    public String instance;
+
+    private Solver solver;
+    private Ant ant;
+    private int[] tour;
+    private long antSeed;
+
+    /**
+     * Loads the instance and initializes the pheromones with the default parameters of the program.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        solver = new Solver(BenchmarkInstances.load(instance));
+        solver.initializeColony(0.8, 1.1, 1.6, 0.01, 0.0001);
+        ant = new Ant(solver, false, null);
+        tour = new int[solver.getProblem().getNumberOfNodes()];
+    }
+
+    /**
+     * Lets one ant traverse every node, each invocation with the seed of the next ant.
+     * @return The last node of the tour.
+     */
+    @Benchmark
+    public int oneTraversal() {
+        solver.oneTraversal(ant, antSeed++, tour);
+        return tour[tour.length - 1];
+    }
+}
@@ -0,0 +1,87 @@
+package com.serhattay.aco;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A class representing one ant worker of the colony together with its private scratch buffers.
+ * Every worker thread owns exactly one ant, so no construction state is shared between threads.
+ */
+public class Ant {
+    private final Solver solver;
+    private final boolean[] visited;
+    private final int[] choices;
+    private final double[] cumulativeValues;
+    private final Random rand = new Random();
+    private final boolean localUpdates;
+    private final LocalSearch localSearch;
+    private final KdTree.Unvisited unvisited;
+
+    /**
+     * Constructs a new ant able to build tours over the problem of a solver.
+     * @param solver The solver the ant belongs to, whose pheromones guide it.
+     * @param localUpdates True to apply the local pheromone update of the update rule to every finished tour.
+     * @param localSearch The local search improving every finished tour, or null for none.
+     */
+    Ant(Solver solver, boolean localUpdates, LocalSearch localSearch) {
+        int numberOfNodes = solver.getProblem().getNumberOfNodes();
+        this.solver = solver;
+        this.localUpdates = localUpdates;
+        this.localSearch = localSearch;
+        visited = new boolean[numberOfNodes];
+        choices = new int[numberOfNodes];
+        cumulativeValues = new double[numberOfNodes];
+        unvisited = solver.trackUnvisited();
+    }
+
+    /**
+     * Builds one complete tour into the given buffer without allocating anything.
+     * Shared state is only touched by local pheromone updates, which only the sequential colony enables.
+     * @param antSeed The seed of this ant, which fixes its starting node and all of its choices.
+     * @param tour The buffer receiving the order of the visited nodes.
+     * @return The total length of the closed tour, after the local search if the ant has one.
+     */
+    double constructTour(long antSeed, int[] tour) {
+        int numberOfNodes = visited.length;
+        SymmetricMatrix distances = solver.getProblem().getDistances();
+        rand.setSeed(antSeed);
+
+        Arrays.fill(visited, false);
+        if (unvisited != null) {
+            unvisited.reset(visited);
+        }
+
+        int startingNode = rand.nextInt(numberOfNodes);
+        visited[startingNode] = true;
+        if (unvisited != null) {
+            unvisited.visit(startingNode);
+        }
+        tour[0] = startingNode;
+
+        int previousNode = startingNode;
+        double totalDistance = 0.0;
+        for (int step = 1; step < numberOfNodes; step++) {
+            int nextNode = solver.decidePath(previousNode, visited, choices, cumulativeValues, rand, unvisited);
+            visited[nextNode] = true;
+            if (unvisited != null) {
+                unvisited.visit(nextNode);
+            }
+            tour[step] = nextNode;
+            totalDistance += distances.get(previousNode, nextNode);
+            previousNode = nextNode;
+        }
+        totalDistance += distances.get(previousNode, startingNode);
+
+        if (localSearch != null) {
+            totalDistance = localSearch.improve(tour, totalDistance);
+        }
+        // The ant never crosses an edge twice, so updating them all at the end does not change its own choices;
+        // the edges are those of the improved tour, as in the merge of the parallel colony
+        if (localUpdates) {
+            for (int k = 0; k < numberOfNodes; k++) {
+                solver.localUpdate(tour[k], tour[(k + 1) % numberOfNodes]);
+            }
+        }
+        return totalDistance;
+    }
+}
@@ -0,0 +1,76 @@
+package com.serhattay.aco;
+
+/**
+ * A class representing the Ant Colony System update rule: ants take the best edge with a fixed probability,
+ * every step wears the pheromone of the edge down towards its starting value, and only the best-so-far tour
+ * is reinforced at the end of an iteration.
+ */
+public class AntColonySystem implements PheromoneStrategy {
+    private final double exploitationProbability;
+    private final double localEvaporation;
+    private final double globalEvaporation;
+    private final double qValue;
+    private double initialIntensity;
+
+    /**
+     * Constructs the Ant Colony System update rule.
+     * @param exploitationProbability The probability that an ant takes the best edge, usually 0.9.
+     * @param localEvaporation The share of pheromone worn down by each ant walking on an edge, usually 0.1.
+     * @param globalEvaporation The share of pheromone replaced on the best tour every iteration, usually 0.1.
+     * @param qValue The Q value for pheromone update.
+     */
+    public AntColonySystem(double exploitationProbability, double localEvaporation, double globalEvaporation,
+                           double qValue) {
+        this.exploitationProbability = exploitationProbability;
+        this.localEvaporation = localEvaporation;
+        this.globalEvaporation = globalEvaporation;
+        this.qValue = qValue;
+    }
+
+    @Override
+    public void initialize(PheromoneMatrix pheromones, Problem problem) {
+        initialIntensity = qValue
+                / (problem.getNumberOfNodes() * PheromoneStrategy.nearestNeighbourTourLength(problem));
+        pheromones.reset(initialIntensity);
+    }
+
+    @Override
+    public void reinitialize(PheromoneMatrix pheromones) {
+        pheromones.reset(initialIntensity);
+    }
+
+    @Override
+    public void nodeChanged(PheromoneMatrix pheromones, Problem problem, int node) {
+        pheromones.setNodeIntensity(node, initialIntensity);
+    }
+
+    @Override
+    public double getExploitationProbability() {
+        return exploitationProbability;
+    }
+
+    @Override
+    public boolean usesLocalUpdate() {
+        return true;
+    }
+
+    @Override
+    public void localUpdate(PheromoneMatrix pheromones, int start, int destination) {
+        double intensity = pheromones.getIntensity(start, destination);
+        pheromones.setIntensity(start, destination,
+                (1.0 - localEvaporation) * intensity + localEvaporation * initialIntensity);
+    }
+
+    @Override
+    public void iterationFinished(PheromoneMatrix pheromones, int[] iterationBestTour, double iterationBestLength,
+                                  int[] bestTour, double bestLength) {
+        double delta = qValue / bestLength;
+        for (int i = 0; i < bestTour.length; i++) {
+            int start = bestTour[i];
+            int destination = bestTour[(i + 1) % bestTour.length];
+            double intensity = pheromones.getIntensity(start, destination);
+            pheromones.setIntensity(start, destination,
+                    (1.0 - globalEvaporation) * intensity + globalEvaporation * delta);
+        }
+    }
+}
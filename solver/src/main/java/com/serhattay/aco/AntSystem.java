@@ -0,0 +1,49 @@
+package com.serhattay.aco;
+
+/**
+ * A class representing the basic Ant System update rule: every ant deposits Q / L on its tour
+ * and all edges evaporate at the end of every iteration.
+ */
+public class AntSystem implements PheromoneStrategy {
+    private final double degradationFactor;
+    private final double initialPheromoneIntensity;
+    private final double qValue;
+
+    /**
+     * Constructs the Ant System update rule.
+     * @param degradationFactor The factor every intensity is multiplied by at the end of an iteration.
+     * @param initialPheromoneIntensity The initial pheromone intensity.
+     * @param qValue The Q value for pheromone update.
+     */
+    public AntSystem(double degradationFactor, double initialPheromoneIntensity, double qValue) {
+        this.degradationFactor = degradationFactor;
+        this.initialPheromoneIntensity = initialPheromoneIntensity;
+        this.qValue = qValue;
+    }
+
+    @Override
+    public void initialize(PheromoneMatrix pheromones, Problem problem) {
+        pheromones.reset(initialPheromoneIntensity);
+    }
+
+    @Override
+    public void reinitialize(PheromoneMatrix pheromones) {
+        pheromones.reset(initialPheromoneIntensity);
+    }
+
+    @Override
+    public void nodeChanged(PheromoneMatrix pheromones, Problem problem, int node) {
+        pheromones.setNodeIntensity(node, initialPheromoneIntensity);
+    }
+
+    @Override
+    public void antFinished(PheromoneMatrix pheromones, int[] tour, double tourLength) {
+        PheromoneStrategy.depositOnTour(pheromones, tour, qValue / tourLength);
+    }
+
+    @Override
+    public void iterationFinished(PheromoneMatrix pheromones, int[] iterationBestTour, double iterationBestLength,
+                                  int[] bestTour, double bestLength) {
+        pheromones.evaporate(degradationFactor);
+    }
+}
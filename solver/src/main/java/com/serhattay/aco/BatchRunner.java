@@ -0,0 +1,226 @@
+package com.serhattay.aco;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A class representing a runner that solves every instance file of a directory with the ant colony,
+ * several at a time on a fixed number of threads, in one JVM.
+ * Each file is read by the thread that solves it, so at most one problem per thread is in memory at a time.
+ */
+public class BatchRunner {
+    // The parameters of the colony, the same as the defaults of the main program
+    private static final double DEGRADATION_FACTOR = 0.8;
+    private static final double ALPHA = 1.1;
+    private static final double BETA = 1.6;
+    private static final double INITIAL_PHEROMONE_INTENSITY = 0.01;
+    private static final double Q_VALUE = 0.0001;
+
+    private final int threadCount;
+    private final int iterationCount;
+    private final int antPerIteration;
+    private Consumer<Solver> solverSetup = solver -> { };
+
+    /**
+     * Constructs a batch runner.
+     * @param threadCount The number of instances solved at the same time.
+     * @param iterationCount The number of iterations per instance.
+     * @param antPerIteration The number of ants per iteration.
+     */
+    public BatchRunner(int threadCount, int iterationCount, int antPerIteration) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1: " + threadCount);
+        }
+        this.threadCount = threadCount;
+        this.iterationCount = iterationCount;
+        this.antPerIteration = antPerIteration;
+    }
+
+    /**
+     * Sets what is done to every new solver before it runs, such as setting its seed or update rule.
+     * The setup is called from the pool threads, once per instance, so it must create a new update rule every time.
+     * @param solverSetup The setup of every solver.
+     */
+    public void setSolverSetup(Consumer<Solver> solverSetup) {
+        this.solverSetup = solverSetup;
+    }
+
+    /**
+     * Solves every regular file of a directory, in the order of their names.
+     * A file that cannot be read or solved gives a result with its error instead of stopping the batch.
+     * @param directory The directory of instance files.
+     * @return The results, in the order of the file names.
+     * @throws IOException If the directory cannot be listed.
+     */
+    public List<Result> run(Path directory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<Result>> futures = new ArrayList<>();
+            for (Path file : files) {
+                futures.add(pool.submit(() -> solve(file)));
+            }
+            List<Result> results = new ArrayList<>();
+            for (Future<Result> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while solving the batch", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("A batch job failed", ex.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Reads and solves one instance file.
+     * @param file The instance file.
+     * @return The result of the file.
+     */
+    private Result solve(Path file) {
+        long startingTime = System.currentTimeMillis();
+        try {
+            Problem problem = Problem.read(file);
+            Solver solver = new Solver(problem);
+            solverSetup.accept(solver);
+            solver.solve(iterationCount, antPerIteration, DEGRADATION_FACTOR, ALPHA, BETA,
+                    INITIAL_PHEROMONE_INTENSITY, Q_VALUE);
+            return new Result(file, problem.getNumberOfNodes(), solver.getShortestPath(),
+                    solver.getShortestDistance(), System.currentTimeMillis() - startingTime, null);
+        } catch (IOException | RuntimeException ex) {
+            return new Result(file, 0, null, Double.NaN, System.currentTimeMillis() - startingTime, ex.getMessage());
+        }
+    }
+
+    /**
+     * Solves a directory of instance files and prints one line per file.
+     * @param args The directory, then optionally the number of threads, iterations and ants per iteration.
+     * @throws IOException If the directory cannot be listed.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.out.println("Usage: BatchRunner <directory> [threads] [iterations] [ants per iteration]");
+            return;
+        }
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        int ants = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+
+        long startingTime = System.currentTimeMillis();
+        List<Result> results = new BatchRunner(threads, iterations, ants).run(Paths.get(args[0]));
+        for (Result result : results) {
+            System.out.println(result);
+        }
+        System.out.printf("Solved %d files in %.2f seconds.%n", results.size(),
+                (System.currentTimeMillis() - startingTime) / 1000.0);
+    }
+
+    /**
+     * A class representing the outcome of one instance file of a batch.
+     */
+    public static final class Result {
+        private final Path file;
+        private final int numberOfNodes;
+        private final int[] shortestPath;
+        private final double shortestDistance;
+        private final long time;
+        private final String error;
+
+        /**
+         * Constructs a result.
+         * @param file The instance file.
+         * @param numberOfNodes The number of nodes of the instance.
+         * @param shortestPath The shortest path found, or null if the file failed.
+         * @param shortestDistance The length of the shortest path.
+         * @param time The time taken to read and solve the file in milliseconds.
+         * @param error Why the file failed, or null if it was solved.
+         */
+        Result(Path file, int numberOfNodes, int[] shortestPath, double shortestDistance, long time, String error) {
+            this.file = file;
+            this.numberOfNodes = numberOfNodes;
+            this.shortestPath = shortestPath;
+            this.shortestDistance = shortestDistance;
+            this.time = time;
+            this.error = error;
+        }
+
+        /**
+         * Gets the instance file.
+         * @return The instance file.
+         */
+        public Path getFile() {
+            return file;
+        }
+
+        /**
+         * Gets the number of nodes of the instance.
+         * @return The number of nodes, 0 if the file failed.
+         */
+        public int getNumberOfNodes() {
+            return numberOfNodes;
+        }
+
+        /**
+         * Gets the shortest path found.
+         * @return The shortest path, or null if the file failed.
+         */
+        public int[] getShortestPath() {
+            return shortestPath;
+        }
+
+        /**
+         * Gets the length of the shortest path found.
+         * @return The shortest distance, NaN if the file failed.
+         */
+        public double getShortestDistance() {
+            return shortestDistance;
+        }
+
+        /**
+         * Gets the time taken to read and solve the file.
+         * @return The time in milliseconds.
+         */
+        public long getTime() {
+            return time;
+        }
+
+        /**
+         * Gets why the file failed.
+         * @return The error message, or null if the file was solved.
+         */
+        public String getError() {
+            return error;
+        }
+
+        /**
+         * Describes the result in one line.
+         * @return The file name with either its shortest distance or its error.
+         */
+        @Override
+        public String toString() {
+            if (error != null) {
+                return String.format("%s: failed, %s", file.getFileName(), error);
+            }
+            return String.format("%s: %d nodes, shortest distance %.5f, %.2f seconds",
+                    file.getFileName(), numberOfNodes, shortestDistance, time / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package com.serhattay.aco;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+/**
+ * A class representing an exact depth-first branch-and-bound search over the tours starting at node 0.
+ * The length of the partial path is carried along instead of being recomputed at the leaves, and a branch is cut
+ * as soon as its length plus a minimum spanning tree bound on the rest of the tour reaches the best tour so far.
+ * The first levels of the search tree are split into fork-join tasks that share the best length atomically.
+ */
+public class BranchAndBound {
+    // Depth down to which branches are forked as separate tasks
+    private static final int SPLIT_DEPTH = 3;
+    // Largest instance the visited bitmask can hold
+    private static final int MAX_NODES = 63;
+
+    private final double[][] distanceMatrix;
+    private final int numberOfNodes;
+    private final int[][] nearestOrder;
+    // Bits of the best length, which order the same way as the positive doubles they stand for
+    private final AtomicLong bestLengthBits = new AtomicLong(Double.doubleToLongBits(Double.MAX_VALUE));
+    private int[] shortestPath;
+
+    /**
+     * Constructs a branch-and-bound solver for the given distances.
+     * @param distanceMatrix The distance matrix of the nodes.
+     */
+    BranchAndBound(double[][] distanceMatrix) {
+        this.distanceMatrix = distanceMatrix;
+        this.numberOfNodes = distanceMatrix.length;
+
+        // Try the closest nodes first so that good tours, and with them tight cuts, come early
+        nearestOrder = new int[numberOfNodes][];
+        for (int i = 0; i < numberOfNodes; i++) {
+            final int from = i;
+            nearestOrder[i] = IntStream.range(1, numberOfNodes).filter(j -> j != from).boxed()
+                    .sorted((a, b) -> Double.compare(distanceMatrix[from][a], distanceMatrix[from][b]))
+                    .mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * Sets a known tour as the starting upper bound, for example the result of the ant colony.
+     * Only strictly shorter tours replace it.
+     * @param tour The known tour.
+     * @param length The length of the known tour.
+     */
+    public void setUpperBound(int[] tour, double length) {
+        shortestPath = tour.clone();
+        bestLengthBits.set(Double.doubleToLongBits(length));
+    }
+
+    /**
+     * Solves the instance exactly on the common fork-join pool.
+     * @return The length of the shortest tour.
+     */
+    public double solve() {
+        if (numberOfNodes > MAX_NODES) {
+            throw new IllegalArgumentException("Branch and bound supports at most " + MAX_NODES + " nodes, got "
+                    + numberOfNodes);
+        }
+        if (numberOfNodes <= 3) {
+            int[] tour = new int[numberOfNodes];
+            for (int i = 0; i < numberOfNodes; i++) {
+                tour[i] = i;
+            }
+            offer(tour, tourLength(tour));
+            return getShortestDistance();
+        }
+
+        int[] path = new int[numberOfNodes];
+        path[0] = 0;
+        ForkJoinPool.commonPool().invoke(new SearchTask(path, 1, 1L, 0.0));
+        return getShortestDistance();
+    }
+
+    /**
+     * Gets the shortest tour found by {@link #solve()}, starting at node 0.
+     * @return The shortest tour.
+     */
+    public int[] getShortestPath() {
+        return shortestPath;
+    }
+
+    /**
+     * Gets the length of the shortest tour found by {@link #solve()}.
+     * @return The length of the shortest tour.
+     */
+    public double getShortestDistance() {
+        return Double.longBitsToDouble(bestLengthBits.get());
+    }
+
+    /**
+     * A fork-join task searching every completion of one partial path.
+     */
+    private class SearchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] path;
+        private final int depth;
+        private final long visited;
+        private final double length;
+
+        /**
+         * Constructs a task for a partial path.
+         * @param path The partial path, owned by this task.
+         * @param depth The number of nodes on the partial path.
+         * @param visited The bitmask of the nodes on the partial path.
+         * @param length The length of the partial path.
+         */
+        SearchTask(int[] path, int depth, long visited, double length) {
+            this.path = path;
+            this.depth = depth;
+            this.visited = visited;
+            this.length = length;
+        }
+
+        @Override
+        protected void compute() {
+            if (depth >= SPLIT_DEPTH) {
+                new Search(path).search(depth, visited, length);
+                return;
+            }
+            Search bound = new Search(path);
+            int last = path[depth - 1];
+            List<SearchTask> children = new ArrayList<>();
+            for (int next : nearestOrder[last]) {
+                if ((visited & (1L << next)) == 0) {
+                    double childLength = length + distanceMatrix[last][next];
+                    long childVisited = visited | (1L << next);
+                    path[depth] = next;
+                    if (!bound.isCut(depth + 1, childVisited, childLength)) {
+                        children.add(new SearchTask(path.clone(), depth + 1, childVisited, childLength));
+                    }
+                }
+            }
+            invokeAll(children);
+        }
+    }
+
+    /**
+     * A sequential depth-first search with its own scratch buffers for the spanning tree bound.
+     */
+    private class Search {
+        private final int[] path;
+        private final int[] treeNodes = new int[numberOfNodes];
+        private final double[] treeDistances = new double[numberOfNodes];
+
+        /**
+         * Constructs a search that extends the given path in place.
+         * @param path The partial path.
+         */
+        Search(int[] path) {
+            this.path = path;
+        }
+
+        /**
+         * Searches every completion of the partial path.
+         * @param depth The number of nodes on the partial path.
+         * @param visited The bitmask of the nodes on the partial path.
+         * @param length The length of the partial path.
+         */
+        void search(int depth, long visited, double length) {
+            int last = path[depth - 1];
+            if (depth == numberOfNodes) {
+                double total = length + distanceMatrix[last][0];
+                if (total < getShortestDistance()) {
+                    offer(path.clone(), total);
+                }
+                return;
+            }
+            for (int next : nearestOrder[last]) {
+                if ((visited & (1L << next)) == 0) {
+                    double childLength = length + distanceMatrix[last][next];
+                    long childVisited = visited | (1L << next);
+                    path[depth] = next;
+                    if (!isCut(depth + 1, childVisited, childLength)) {
+                        search(depth + 1, childVisited, childLength);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Decides whether a partial path can be cut. The rest of the tour is a path from the last node through
+         * every unvisited node back to node 0, so it is at least as long as a minimum spanning tree over them.
+         * Tours are also only kept in one of their two directions: the second node must be smaller than the last.
+         * @param depth The number of nodes on the partial path.
+         * @param visited The bitmask of the nodes on the partial path.
+         * @param length The length of the partial path.
+         * @return True if no completion can beat the best tour so far.
+         */
+        boolean isCut(int depth, long visited, double length) {
+            double best = getShortestDistance();
+            if (length >= best) {
+                return true;
+            }
+            long unvisited = ~visited & ((1L << numberOfNodes) - 1);
+            if (unvisited == 0) {
+                return false;
+            }
+            if (depth > 1 && 63 - Long.numberOfLeadingZeros(unvisited) < path[1]) {
+                return true;
+            }
+            return length + spanningTreeLength(path[depth - 1], unvisited) >= best;
+        }
+
+        /**
+         * Calculates the weight of the minimum spanning tree over the unvisited nodes, the last node and node 0
+         * with Prim's algorithm.
+         * @param last The last node of the partial path.
+         * @param unvisited The bitmask of the unvisited nodes.
+         * @return The weight of the spanning tree.
+         */
+        private double spanningTreeLength(int last, long unvisited) {
+            int count = 0;
+            treeNodes[count++] = 0;
+            for (long bits = unvisited; bits != 0; bits &= bits - 1) {
+                treeNodes[count++] = Long.numberOfTrailingZeros(bits);
+            }
+            for (int i = 0; i < count; i++) {
+                treeDistances[i] = distanceMatrix[last][treeNodes[i]];
+            }
+
+            double weight = 0.0;
+            while (count > 0) {
+                int nearest = 0;
+                for (int i = 1; i < count; i++) {
+                    if (treeDistances[i] < treeDistances[nearest]) {
+                        nearest = i;
+                    }
+                }
+                weight += treeDistances[nearest];
+                int node = treeNodes[nearest];
+                count--;
+                treeNodes[nearest] = treeNodes[count];
+                treeDistances[nearest] = treeDistances[count];
+                for (int i = 0; i < count; i++) {
+                    double distance = distanceMatrix[node][treeNodes[i]];
+                    if (distance < treeDistances[i]) {
+                        treeDistances[i] = distance;
+                    }
+                }
+            }
+            return weight;
+        }
+    }
+
+    /**
+     * Offers a complete tour as the new best tour, keeping it only if it is still strictly shorter.
+     * @param tour The tour.
+     * @param length The length of the tour.
+     */
+    private synchronized void offer(int[] tour, double length) {
+        if (length < getShortestDistance() || shortestPath == null) {
+            shortestPath = tour;
+            bestLengthBits.set(Double.doubleToLongBits(length));
+        }
+    }
+
+    /**
+     * Calculates the length of a closed tour.
+     * @param tour The tour.
+     * @return The length of the tour.
+     */
+    private double tourLength(int[] tour) {
+        double length = 0.0;
+        for (int i = 0; i < tour.length; i++) {
+            length += distanceMatrix[tour[i]][tour[(i + 1) % tour.length]];
+        }
+        return length;
+    }
+}
@@ -0,0 +1,161 @@
+package com.serhattay.aco;
+
+import java.util.Arrays;
+
+/**
+ * A class representing a sparse symmetric matrix that only stores the edges between a node and its candidates,
+ * for instances too large for any full matrix. Every other edge has one shared value: for the pheromone trails
+ * the trail every edge started with, which evaporates and is clamped along with the stored ones, and for the
+ * cached values NaN, telling the reader to calculate the value itself.
+ */
+final class CandidateMatrix extends StoredMatrix {
+    private final int[][] neighbours;
+    private final double[][] values;
+    private double unstoredValue;
+
+    /**
+     * Constructs a sparse matrix over the stored edges of every node.
+     * @param neighbours The nodes whose edges with every node are stored, each row sorted and symmetric with the
+     * others, as made by {@link #storedEdges}.
+     * @param unstoredValue The value of every edge that is not stored.
+     */
+    CandidateMatrix(int[][] neighbours, double unstoredValue) {
+        this.neighbours = neighbours;
+        this.unstoredValue = unstoredValue;
+        values = new double[neighbours.length][];
+        for (int i = 0; i < neighbours.length; i++) {
+            values[i] = new double[neighbours[i].length];
+        }
+    }
+
+    /**
+     * Builds the stored edges of every node from candidate lists: the candidates of a node and the nodes that have
+     * it as a candidate, so that an edge is stored for both of its nodes.
+     * @param candidateLists The candidate lists, indexed by node.
+     * @return The stored edges of every node, sorted by node.
+     */
+    static int[][] storedEdges(int[][] candidateLists) {
+        int numberOfNodes = candidateLists.length;
+        int[] degrees = new int[numberOfNodes];
+        for (int i = 0; i < numberOfNodes; i++) {
+            degrees[i] += candidateLists[i].length;
+            for (int candidate : candidateLists[i]) {
+                degrees[candidate]++;
+            }
+        }
+        int[][] edges = new int[numberOfNodes][];
+        for (int i = 0; i < numberOfNodes; i++) {
+            edges[i] = new int[degrees[i]];
+            degrees[i] = 0;
+        }
+        for (int i = 0; i < numberOfNodes; i++) {
+            for (int candidate : candidateLists[i]) {
+                edges[i][degrees[i]++] = candidate;
+                edges[candidate][degrees[candidate]++] = i;
+            }
+        }
+
+        // Sort every row and drop the edges found from both sides
+        for (int i = 0; i < numberOfNodes; i++) {
+            int[] row = edges[i];
+            Arrays.sort(row);
+            int size = 0;
+            for (int k = 0; k < row.length; k++) {
+                if (k == 0 || row[k] != row[k - 1]) {
+                    row[size++] = row[k];
+                }
+            }
+            edges[i] = size < row.length ? Arrays.copyOf(row, size) : row;
+        }
+        return edges;
+    }
+
+    @Override
+    int size() {
+        return neighbours.length;
+    }
+
+    @Override
+    double get(int start, int destination) {
+        int k = Arrays.binarySearch(neighbours[start], destination);
+        if (k >= 0) {
+            return values[start][k];
+        }
+        return start == destination ? 0.0 : unstoredValue;
+    }
+
+    /**
+     * Sets the value of both directions of an edge if it is stored, and ignores it otherwise.
+     * @param start The first node of the edge.
+     * @param destination The second node of the edge.
+     * @param value The new value.
+     */
+    @Override
+    void set(int start, int destination, double value) {
+        int k = Arrays.binarySearch(neighbours[start], destination);
+        if (k >= 0) {
+            values[start][k] = value;
+            values[destination][Arrays.binarySearch(neighbours[destination], start)] = value;
+        }
+    }
+
+    /**
+     * Sets every value to the same value, the edges that are not stored included.
+     * @param value The value.
+     */
+    @Override
+    void fill(double value) {
+        for (double[] row : values) {
+            Arrays.fill(row, value);
+        }
+        unstoredValue = value;
+    }
+
+    /**
+     * Multiplies every value by the same factor, the edges that are not stored included.
+     * @param factor The factor.
+     */
+    @Override
+    void multiply(double factor) {
+        for (double[] row : values) {
+            for (int k = 0; k < row.length; k++) {
+                row[k] *= factor;
+            }
+        }
+        unstoredValue *= factor;
+    }
+
+    @Override
+    int[] getStoredEdges(int node) {
+        return neighbours[node];
+    }
+
+    @Override
+    double getUnstoredValue() {
+        return unstoredValue;
+    }
+
+    @Override
+    void clampUnstored(double min, double max) {
+        unstoredValue = Math.max(min, Math.min(max, unstoredValue));
+    }
+
+    /**
+     * Refuses to add a node, the stored edges follow from candidate lists that would all have to be rebuilt.
+     * @throws IllegalStateException Always.
+     */
+    @Override
+    void addNode() {
+        throw new IllegalStateException("A sparse matrix cannot add nodes");
+    }
+
+    /**
+     * Refuses to remove a node, the stored edges follow from candidate lists that would all have to be rebuilt.
+     * @param node The node to remove.
+     * @throws IllegalStateException Always.
+     */
+    @Override
+    void removeNode(int node) {
+        throw new IllegalStateException("A sparse matrix cannot remove nodes");
+    }
+}
@@ -0,0 +1,528 @@
+package com.serhattay.aco;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A class representing the state of a colony saved between two iterations: the parameters and settings of the run,
+ * its seed, how far it got, the shortest path and the pheromone trails. Every ant takes its seed from the run seed
+ * and its index, so a run resumed from a checkpoint continues exactly as it would have without stopping.
+ * The node coordinates are saved too, so a checkpoint can warm start a run on a slightly changed instance.
+ *
+ * <p>The file is big-endian binary: a header, the coordinates, the shortest path and then the upper triangle of the
+ * stored trails, diagonal included, row by row. It is written to a temporary file that replaces the old checkpoint
+ * only when complete, so a crash while writing leaves the previous checkpoint intact. The trails are read through
+ * memory-mapped windows, straight into the pheromone matrix.
+ */
+public final class Checkpoint {
+    private static final int MAGIC = 0x41434F43;
+    private static final int VERSION = 1;
+    // Largest mapped window of trails, a whole number of doubles
+    private static final int MAX_WINDOW = 1 << 30;
+    // Size of the buffer the file is written through
+    private static final int WRITE_BUFFER = 1 << 20;
+
+    private final String strategyName;
+    private final DistanceType distanceType;
+    private final double[] x;
+    private final double[] y;
+    private final double degradationFactor;
+    private final double alpha;
+    private final double beta;
+    private final double initialPheromoneIntensity;
+    private final double qValue;
+    private final int antPerIteration;
+    private final int candidateListSize;
+    private final int localSearchMode;
+    private final int stagnationLimit;
+    private final int threadCount;
+    private final long seed;
+    private final int completedIterations;
+    private final int iterationsWithoutImprovement;
+    private final int iterationsSinceImprovement;
+    private final int[] shortestPath;
+    private final double shortestDistance;
+    private final double scale;
+    private final Path file;
+    private final long trailsOffset;
+
+    /**
+     * Constructs the checkpoint of a running colony, to be written with {@link #write}.
+     * @param strategyName The class name of the update rule.
+     * @param distanceType How the distances between the nodes are calculated.
+     * @param x The x-coordinates of the nodes.
+     * @param y The y-coordinates of the nodes.
+     * @param degradationFactor The rate at which pheromones degrade.
+     * @param alpha The alpha parameter for pheromone influence.
+     * @param beta The beta parameter for distance influence.
+     * @param initialPheromoneIntensity The initial pheromone intensity.
+     * @param qValue The Q value for pheromone update.
+     * @param antPerIteration The number of ants per iteration.
+     * @param candidateListSize The size of the candidate lists.
+     * @param localSearchMode Which tours are improved by the local search.
+     * @param stagnationLimit The number of iterations without improvement before a restart.
+     * @param threadCount The number of worker threads.
+     * @param seed The seed of the run.
+     * @param completedIterations The number of iterations finished.
+     * @param iterationsWithoutImprovement The iterations without improvement since the last restart.
+     * @param iterationsSinceImprovement The iterations without improvement, restarts included.
+     * @param shortestPath The shortest path, or null if there is none yet.
+     * @param shortestDistance The length of the shortest path.
+     * @param scale The global scale of the stored trails.
+     */
+    Checkpoint(String strategyName, DistanceType distanceType, double[] x, double[] y,
+               double degradationFactor, double alpha, double beta, double initialPheromoneIntensity,
+               double qValue, int antPerIteration, int candidateListSize, int localSearchMode,
+               int stagnationLimit, int threadCount, long seed, int completedIterations,
+               int iterationsWithoutImprovement, int iterationsSinceImprovement,
+               int[] shortestPath, double shortestDistance, double scale) {
+        this(strategyName, distanceType, x, y, degradationFactor, alpha, beta, initialPheromoneIntensity, qValue,
+                antPerIteration, candidateListSize, localSearchMode, stagnationLimit, threadCount, seed,
+                completedIterations, iterationsWithoutImprovement, iterationsSinceImprovement, shortestPath,
+                shortestDistance, scale, null, 0L);
+    }
+
+    /**
+     * Constructs a checkpoint read from a file.
+     * @param strategyName The class name of the update rule.
+     * @param distanceType How the distances between the nodes are calculated.
+     * @param x The x-coordinates of the nodes.
+     * @param y The y-coordinates of the nodes.
+     * @param degradationFactor The rate at which pheromones degrade.
+     * @param alpha The alpha parameter for pheromone influence.
+     * @param beta The beta parameter for distance influence.
+     * @param initialPheromoneIntensity The initial pheromone intensity.
+     * @param qValue The Q value for pheromone update.
+     * @param antPerIteration The number of ants per iteration.
+     * @param candidateListSize The size of the candidate lists.
+     * @param localSearchMode Which tours are improved by the local search.
+     * @param stagnationLimit The number of iterations without improvement before a restart.
+     * @param threadCount The number of worker threads.
+     * @param seed The seed of the run.
+     * @param completedIterations The number of iterations finished.
+     * @param iterationsWithoutImprovement The iterations without improvement since the last restart.
+     * @param iterationsSinceImprovement The iterations without improvement, restarts included.
+     * @param shortestPath The shortest path, or null if there is none yet.
+     * @param shortestDistance The length of the shortest path.
+     * @param scale The global scale of the stored trails.
+     * @param file The file the trails are read from, null if they are still in the pheromone matrix.
+     * @param trailsOffset The position of the trails in the file.
+     */
+    private Checkpoint(String strategyName, DistanceType distanceType, double[] x, double[] y,
+                       double degradationFactor, double alpha, double beta, double initialPheromoneIntensity,
+                       double qValue, int antPerIteration, int candidateListSize, int localSearchMode,
+                       int stagnationLimit, int threadCount, long seed, int completedIterations,
+                       int iterationsWithoutImprovement, int iterationsSinceImprovement,
+                       int[] shortestPath, double shortestDistance, double scale, Path file, long trailsOffset) {
+        this.strategyName = strategyName;
+        this.distanceType = distanceType;
+        this.x = x;
+        this.y = y;
+        this.degradationFactor = degradationFactor;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.initialPheromoneIntensity = initialPheromoneIntensity;
+        this.qValue = qValue;
+        this.antPerIteration = antPerIteration;
+        this.candidateListSize = candidateListSize;
+        this.localSearchMode = localSearchMode;
+        this.stagnationLimit = stagnationLimit;
+        this.threadCount = threadCount;
+        this.seed = seed;
+        this.completedIterations = completedIterations;
+        this.iterationsWithoutImprovement = iterationsWithoutImprovement;
+        this.iterationsSinceImprovement = iterationsSinceImprovement;
+        this.shortestPath = shortestPath;
+        this.shortestDistance = shortestDistance;
+        this.scale = scale;
+        this.file = file;
+        this.trailsOffset = trailsOffset;
+    }
+
+    /**
+     * Writes the checkpoint together with the trails of the pheromone matrix it was taken from,
+     * replacing the file once it is complete.
+     * @param target The checkpoint file.
+     * @param pheromones The pheromone matrix of the colony.
+     * @throws IOException If the file cannot be written.
+     */
+    void write(Path target, PheromoneMatrix pheromones) throws IOException {
+        int numberOfNodes = x.length;
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(numberOfNodes);
+            putString(buffer, strategyName);
+            putString(buffer, distanceType.name());
+            buffer.putDouble(degradationFactor).putDouble(alpha).putDouble(beta)
+                    .putDouble(initialPheromoneIntensity).putDouble(qValue);
+            buffer.putInt(antPerIteration).putInt(candidateListSize).putInt(localSearchMode)
+                    .putInt(stagnationLimit).putInt(threadCount);
+            buffer.putLong(seed);
+            buffer.putInt(completedIterations).putInt(iterationsWithoutImprovement).putInt(iterationsSinceImprovement);
+            buffer.putDouble(shortestDistance).putDouble(scale);
+            buffer.put((byte) (shortestPath != null ? 1 : 0));
+
+            putDoubles(channel, buffer, x, 0, numberOfNodes);
+            putDoubles(channel, buffer, y, 0, numberOfNodes);
+            for (int i = 0; i < numberOfNodes; i++) {
+                if (buffer.remaining() < Integer.BYTES) {
+                    drain(channel, buffer);
+                }
+                buffer.putInt(shortestPath != null ? shortestPath[i] : -1);
+            }
+            // The trails start on a whole double, so they can be mapped as doubles
+            while (buffer.position() % Double.BYTES != 0) {
+                buffer.put((byte) 0);
+            }
+            double[] row = new double[numberOfNodes];
+            for (int i = 0; i < numberOfNodes; i++) {
+                for (int j = i; j < numberOfNodes; j++) {
+                    row[j] = pheromones.getTrail(i, j);
+                }
+                putDoubles(channel, buffer, row, i, numberOfNodes);
+            }
+            drain(channel, buffer);
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads the header, the coordinates and the shortest path of a checkpoint. The trails stay in the file until
+     * the checkpoint is resumed.
+     * @param file The checkpoint file.
+     * @return The checkpoint.
+     * @throws IOException If the file cannot be read or is not a checkpoint.
+     */
+    public static Checkpoint read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, MAX_WINDOW));
+            if (header.remaining() < 3 * Integer.BYTES || header.getInt() != MAGIC) {
+                throw new IOException(file + " is not a colony checkpoint");
+            }
+            int version = header.getInt();
+            if (version != VERSION) {
+                throw new IOException(file + " is a checkpoint of version " + version + ", expected " + VERSION);
+            }
+            int numberOfNodes = header.getInt();
+            String strategyName = getString(header);
+            DistanceType distanceType = DistanceType.valueOf(getString(header));
+            double degradationFactor = header.getDouble();
+            double alpha = header.getDouble();
+            double beta = header.getDouble();
+            double initialPheromoneIntensity = header.getDouble();
+            double qValue = header.getDouble();
+            int antPerIteration = header.getInt();
+            int candidateListSize = header.getInt();
+            int localSearchMode = header.getInt();
+            int stagnationLimit = header.getInt();
+            int threadCount = header.getInt();
+            long seed = header.getLong();
+            int completedIterations = header.getInt();
+            int iterationsWithoutImprovement = header.getInt();
+            int iterationsSinceImprovement = header.getInt();
+            double shortestDistance = header.getDouble();
+            double scale = header.getDouble();
+            boolean hasShortestPath = header.get() != 0;
+
+            double[] x = new double[numberOfNodes];
+            double[] y = new double[numberOfNodes];
+            int[] path = new int[numberOfNodes];
+            header.asDoubleBuffer().get(x);
+            header.position(header.position() + numberOfNodes * Double.BYTES);
+            header.asDoubleBuffer().get(y);
+            header.position(header.position() + numberOfNodes * Double.BYTES);
+            header.asIntBuffer().get(path);
+            header.position(header.position() + numberOfNodes * Integer.BYTES);
+            long trailsOffset = (header.position() + Double.BYTES - 1) / Double.BYTES * Double.BYTES;
+
+            long expectedSize = trailsOffset + (long) numberOfNodes * (numberOfNodes + 1) / 2 * Double.BYTES;
+            if (size != expectedSize) {
+                throw new IOException(file + " is " + size + " bytes, a checkpoint of " + numberOfNodes
+                        + " nodes must be " + expectedSize);
+            }
+            return new Checkpoint(strategyName, distanceType, x, y, degradationFactor, alpha, beta,
+                    initialPheromoneIntensity, qValue, antPerIteration, candidateListSize, localSearchMode,
+                    stagnationLimit, threadCount, seed, completedIterations, iterationsWithoutImprovement,
+                    iterationsSinceImprovement, hasShortestPath ? path : null, shortestDistance, scale,
+                    file, trailsOffset);
+        } catch (BufferUnderflowException | IllegalArgumentException ex) {
+            throw new IOException(file + " is not a complete colony checkpoint", ex);
+        }
+    }
+
+    /**
+     * Reads the saved trails into a pheromone matrix over the same nodes, through memory-mapped windows.
+     * @param pheromones The pheromone matrix to restore.
+     * @throws IOException If the file cannot be read.
+     */
+    void restoreTrails(PheromoneMatrix pheromones) throws IOException {
+        if (file == null) {
+            throw new IllegalStateException("The checkpoint has not been read from a file");
+        }
+        int numberOfNodes = x.length;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = trailsOffset;
+            DoubleBuffer window = DoubleBuffer.allocate(0);
+            double[] row = new double[numberOfNodes];
+            for (int i = 0; i < numberOfNodes; i++) {
+                int column = i;
+                while (column < numberOfNodes) {
+                    if (!window.hasRemaining()) {
+                        long length = Math.min(MAX_WINDOW, channel.size() - position);
+                        window = channel.map(FileChannel.MapMode.READ_ONLY, position, length).asDoubleBuffer();
+                        position += length;
+                    }
+                    int count = Math.min(numberOfNodes - column, window.remaining());
+                    window.get(row, column, count);
+                    column += count;
+                }
+                for (int j = i; j < numberOfNodes; j++) {
+                    pheromones.setTrail(i, j, row[j]);
+                }
+            }
+        }
+        pheromones.restore(scale);
+    }
+
+    /**
+     * Writes a string as its length followed by its UTF-8 bytes.
+     * @param buffer The buffer to write into.
+     * @param value The string.
+     */
+    private static void putString(ByteBuffer buffer, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer.putShort((short) bytes.length).put(bytes);
+    }
+
+    /**
+     * Reads a string written by {@link #putString}.
+     * @param buffer The buffer to read from.
+     * @return The string.
+     */
+    private static String getString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes part of an array of doubles through the buffer, draining it into the channel whenever it is full.
+     * @param channel The channel to write to.
+     * @param buffer The write buffer.
+     * @param values The array.
+     * @param from The first index to write.
+     * @param to The index after the last one to write.
+     * @throws IOException If the channel cannot be written.
+     */
+    private static void putDoubles(FileChannel channel, ByteBuffer buffer, double[] values, int from, int to)
+            throws IOException {
+        int index = from;
+        while (index < to) {
+            if (buffer.remaining() < Double.BYTES) {
+                drain(channel, buffer);
+            }
+            int count = Math.min(to - index, buffer.remaining() / Double.BYTES);
+            buffer.asDoubleBuffer().put(values, index, count);
+            buffer.position(buffer.position() + count * Double.BYTES);
+            index += count;
+        }
+    }
+
+    /**
+     * Writes everything in the buffer into the channel and clears the buffer.
+     * @param channel The channel to write to.
+     * @param buffer The write buffer.
+     * @throws IOException If the channel cannot be written.
+     */
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Checks that this checkpoint was saved from a run on the nodes of a problem with an update rule of a class.
+     * @param problem The problem to resume on.
+     * @param strategyClass The class of the update rule to resume with.
+     * @throws IllegalArgumentException If the nodes or the update rule differ.
+     */
+    void checkCompatible(Problem problem, Class<?> strategyClass) {
+        if (!Arrays.equals(x, problem.getX()) || !Arrays.equals(y, problem.getY())
+                || distanceType != problem.getDistanceType()) {
+            throw new IllegalArgumentException("The checkpoint was saved for other nodes than those of "
+                    + problem.getName() + ", use it for a warm start instead");
+        }
+        if (!strategyName.equals(strategyClass.getName())) {
+            throw new IllegalArgumentException("The checkpoint was saved with the update rule " + strategyName
+                    + ", not " + strategyClass.getName());
+        }
+    }
+
+    /**
+     * Gets the x-coordinates of the nodes the checkpoint was saved for.
+     * @return The x-coordinates, indexed by node.
+     */
+    double[] getX() {
+        return x;
+    }
+
+    /**
+     * Gets the y-coordinates of the nodes the checkpoint was saved for.
+     * @return The y-coordinates, indexed by node.
+     */
+    double[] getY() {
+        return y;
+    }
+
+    /**
+     * Gets the number of nodes the checkpoint was saved for.
+     * @return The number of nodes.
+     */
+    public int getNumberOfNodes() {
+        return x.length;
+    }
+
+    /**
+     * Gets the number of iterations the run had finished when it was saved.
+     * @return The number of iterations finished.
+     */
+    public int getCompletedIterations() {
+        return completedIterations;
+    }
+
+    /**
+     * Gets the seed of the saved run.
+     * @return The seed.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the shortest path of the saved run.
+     * @return A copy of the shortest path, or null if no ant had finished yet.
+     */
+    public int[] getShortestPath() {
+        return shortestPath != null ? shortestPath.clone() : null;
+    }
+
+    /**
+     * Gets the length of the shortest path of the saved run.
+     * @return The shortest distance.
+     */
+    public double getShortestDistance() {
+        return shortestDistance;
+    }
+
+    /**
+     * Gets the rate at which pheromones degrade in the saved run.
+     * @return The degradation factor.
+     */
+    double getDegradationFactor() {
+        return degradationFactor;
+    }
+
+    /**
+     * Gets the alpha parameter of the saved run.
+     * @return The alpha parameter.
+     */
+    double getAlpha() {
+        return alpha;
+    }
+
+    /**
+     * Gets the beta parameter of the saved run.
+     * @return The beta parameter.
+     */
+    double getBeta() {
+        return beta;
+    }
+
+    /**
+     * Gets the initial pheromone intensity of the saved run.
+     * @return The initial pheromone intensity.
+     */
+    double getInitialPheromoneIntensity() {
+        return initialPheromoneIntensity;
+    }
+
+    /**
+     * Gets the Q value of the saved run.
+     * @return The Q value.
+     */
+    double getQValue() {
+        return qValue;
+    }
+
+    /**
+     * Gets the number of ants per iteration of the saved run.
+     * @return The number of ants per iteration.
+     */
+    public int getAntPerIteration() {
+        return antPerIteration;
+    }
+
+    /**
+     * Gets the size of the candidate lists of the saved run.
+     * @return The candidate list size.
+     */
+    int getCandidateListSize() {
+        return candidateListSize;
+    }
+
+    /**
+     * Gets which tours the local search improved in the saved run.
+     * @return The local search mode.
+     */
+    int getLocalSearchMode() {
+        return localSearchMode;
+    }
+
+    /**
+     * Gets the stagnation limit of the saved run.
+     * @return The stagnation limit.
+     */
+    int getStagnationLimit() {
+        return stagnationLimit;
+    }
+
+    /**
+     * Gets the number of worker threads of the saved run.
+     * @return The thread count.
+     */
+    int getThreadCount() {
+        return threadCount;
+    }
+
+    /**
+     * Gets the iterations without improvement since the last restart of the saved run.
+     * @return The number of iterations.
+     */
+    int getIterationsWithoutImprovement() {
+        return iterationsWithoutImprovement;
+    }
+
+    /**
+     * Gets the iterations without improvement of the saved run, restarts included.
+     * @return The number of iterations.
+     */
+    int getIterationsSinceImprovement() {
+        return iterationsSinceImprovement;
+    }
+}
@@ -0,0 +1,462 @@
+package com.serhattay.aco;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+/**
+ * A class representing a decomposition of a large problem into spatial clusters, for instances far too large for
+ * one colony. The nodes are split in halves along the wider side of their bounding box until every part has at most
+ * the cluster size, every cluster is solved by a colony of its own, several at a time, and the clusters are visited
+ * in the order of a coarse tour over their centroids. Every sub-tour is cut open where it joins the previous and the
+ * next cluster best, and the stitched tour is repaired around the seams with the 2-opt and Or-opt local search.
+ * The colonies only ever see one cluster, so the time grows with the cluster size and only linearly with the number
+ * of nodes, and the problem may keep its distances in any storage, the matrix-free one included.
+ * The clusters already run side by side, so every colony runs on one thread, and a time limit is one deadline for
+ * the whole decomposition that every colony gets the rest of when it starts.
+ */
+public class ClusterSolver {
+    // Nearest neighbours per node the repair of the seams looks at, as for the local search of a colony
+    private static final int REPAIR_NEIGHBOURS = 10;
+    // Positions on either side of a seam whose nodes the repair starts from
+    private static final int SEAM_WINDOW = 16;
+    // Steps between the seeds of the colonies, the golden ratio in 64 bits as for the islands
+    private static final long SEED_STEP = 0x9E3779B97F4A7C15L;
+
+    private final Problem problem;
+    private final int clusterSize;
+    private int threadCount = Runtime.getRuntime().availableProcessors();
+    private Consumer<Solver> solverSetup = solver -> { };
+    private boolean seeded;
+    private long seed;
+    private long timeLimitMillis = 0;
+    private long deadline;
+    private double[] warmStartX;
+    private double[] warmStartY;
+    private int[] warmStartTour;
+    private double warmStartWeight;
+    private final List<Solver> running = new ArrayList<>();
+    private volatile boolean cancelled;
+    private int clusterCount;
+    private int[] shortestPath;
+    private double shortestDistance = Double.MAX_VALUE;
+
+    /**
+     * Constructs a decomposition of a problem.
+     * @param problem The problem to solve.
+     * @param clusterSize The largest number of nodes of a cluster, at least 4.
+     */
+    public ClusterSolver(Problem problem, int clusterSize) {
+        if (clusterSize < 4) {
+            throw new IllegalArgumentException("Cluster size must be at least 4: " + clusterSize);
+        }
+        this.problem = problem;
+        this.clusterSize = clusterSize;
+    }
+
+    /**
+     * Sets the number of clusters solved at the same time.
+     * @param threadCount The number of threads, at least 1.
+     */
+    public void setThreadCount(int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1: " + threadCount);
+        }
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Sets what is done to the solver of every cluster, and of the coarse tour, before it runs, such as setting its
+     * update rule or local search. The setup is called from the pool threads, so it must create a new update rule
+     * every time. Seeds set by the setup are replaced by those of {@link #setSeed}, if it was called, and thread
+     * counts, time limits and warm starts by those of the decomposition.
+     * @param solverSetup The setup of every solver.
+     */
+    public void setSolverSetup(Consumer<Solver> solverSetup) {
+        this.solverSetup = solverSetup;
+    }
+
+    /**
+     * Sets the seeds of all colonies, a different one derived from the given seed for each.
+     * @param seed The seed of the decomposition.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+        seeded = true;
+    }
+
+    /**
+     * Sets the wall-clock budget of the whole decomposition. Every colony gets what is left of it when it starts,
+     * and still finishes its first tour, so the stitching has a tour of every cluster.
+     * @param timeLimitMillis The budget in milliseconds, 0 for no limit.
+     */
+    public void setTimeLimit(long timeLimitMillis) {
+        if (timeLimitMillis < 0) {
+            throw new IllegalArgumentException("Time limit cannot be negative: " + timeLimitMillis);
+        }
+        this.timeLimitMillis = timeLimitMillis;
+    }
+
+    /**
+     * Sets the shortest path of a checkpoint to start from, on this problem or on a slightly different one.
+     * The tour is carried over to this problem once per run, and every cluster colony starts from the order in
+     * which it visits the nodes of the cluster, see {@link Solver#setWarmStart(Problem, int[], double)}.
+     * @param previous The checkpoint, which must have a shortest path, or null for starting afresh.
+     * @param weight How much stronger the edges of the tour start out, 0 for only taking it as the path to beat.
+     */
+    public void setWarmStart(Checkpoint previous, double weight) {
+        if (previous == null) {
+            warmStartTour = null;
+            return;
+        }
+        if (previous.getShortestPath() == null) {
+            throw new IllegalArgumentException("The checkpoint has no shortest path to start from");
+        }
+        if (weight < 0.0) {
+            throw new IllegalArgumentException("Warm start weight cannot be negative: " + weight);
+        }
+        warmStartX = previous.getX().clone();
+        warmStartY = previous.getY().clone();
+        warmStartTour = previous.getShortestPath().clone();
+        warmStartWeight = weight;
+    }
+
+    /**
+     * Splits the problem into clusters, solves them and stitches their tours into one tour of every node.
+     * A cluster that fails stops the others.
+     * @param iterationCount The number of iterations every colony performs.
+     * @param antPerIteration The number of ants every colony uses per iteration.
+     * @param degradationFactor The rate at which pheromones degrade.
+     * @param alpha The alpha parameter for pheromone influence.
+     * @param beta The beta parameter for distance influence.
+     * @param initialPheromoneIntensity The initial pheromone intensity.
+     * @param qValue The Q value for pheromone update.
+     */
+    public void solve(int iterationCount, int antPerIteration, double degradationFactor,
+                      double alpha, double beta, double initialPheromoneIntensity, double qValue) {
+        cancelled = false;
+        deadline = System.nanoTime() + timeLimitMillis * 1_000_000L;
+        List<int[]> clusters = new ArrayList<>();
+        int[] nodes = new int[problem.getNumberOfNodes()];
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i] = i;
+        }
+        split(nodes, 0, nodes.length, clusters);
+        clusterCount = clusters.size();
+
+        double[] centroidX = new double[clusterCount];
+        double[] centroidY = new double[clusterCount];
+        for (int c = 0; c < clusterCount; c++) {
+            for (int node : clusters.get(c)) {
+                centroidX[c] += problem.getX()[node];
+                centroidY[c] += problem.getY()[node];
+            }
+            centroidX[c] /= clusters.get(c).length;
+            centroidY[c] /= clusters.get(c).length;
+        }
+        int[] warmStartPosition = warmStartTour != null ? tourPositions() : null;
+
+        // The coarse tour is one more colony, solved alongside the clusters
+        ExecutorService pool = Executors.newFixedThreadPool(threadCount);
+        int[] order;
+        int[][] subTours = new int[clusterCount][];
+        try {
+            Future<int[]> coarse = pool.submit(() -> solveCluster("coarse",
+                    centroidX, centroidY, null, seed, iterationCount, antPerIteration, degradationFactor, alpha, beta,
+                    initialPheromoneIntensity, qValue));
+            List<Future<int[]>> futures = new ArrayList<>();
+            for (int c = 0; c < clusterCount; c++) {
+                int[] cluster = clusters.get(c);
+                long clusterSeed = seed + (c + 1) * SEED_STEP;
+                futures.add(pool.submit(() -> {
+                    double[] x = new double[cluster.length];
+                    double[] y = new double[cluster.length];
+                    for (int k = 0; k < cluster.length; k++) {
+                        x[k] = problem.getX()[cluster[k]];
+                        y[k] = problem.getY()[cluster[k]];
+                    }
+                    int[] warmStart = warmStartPosition != null ? clusterTour(cluster, warmStartPosition) : null;
+                    int[] tour = solveCluster(problem.getName(), x, y, warmStart, clusterSeed, iterationCount,
+                            antPerIteration, degradationFactor, alpha, beta, initialPheromoneIntensity, qValue);
+                    for (int k = 0; k < tour.length; k++) {
+                        tour[k] = cluster[tour[k]];
+                    }
+                    return tour;
+                }));
+            }
+            order = coarse.get();
+            for (int c = 0; c < clusterCount; c++) {
+                subTours[c] = futures.get(c).get();
+            }
+        } catch (InterruptedException ex) {
+            cancel();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while the clusters were solved", ex);
+        } catch (ExecutionException ex) {
+            cancel();
+            throw new IllegalStateException("A cluster failed", ex.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        int[] tour = new int[problem.getNumberOfNodes()];
+        int[] seams = stitch(subTours, order, centroidX, centroidY, tour);
+        double length = 0.0;
+        for (int i = 0; i < tour.length; i++) {
+            length += problem.getDistance(tour[i], tour[(i + 1) % tour.length]);
+        }
+        if (clusterCount > 1) {
+            int[][] neighbours = new KdTree(problem.getX(), problem.getY()).nearestNeighbourLists(
+                    Math.min(REPAIR_NEIGHBOURS, tour.length - 1));
+            length = new LocalSearch(problem.getDistances(), neighbours).improve(tour, length,
+                    seamNodes(tour, seams));
+        }
+        shortestPath = tour;
+        shortestDistance = length;
+    }
+
+    /**
+     * Carries the warm start tour over to this problem and tells where on it every node is.
+     * @return The position of every node on the carried tour.
+     */
+    private int[] tourPositions() {
+        int[] tour = WarmStart.carryOver(warmStartX, warmStartY, warmStartTour, problem);
+        int[] positions = new int[tour.length];
+        for (int k = 0; k < tour.length; k++) {
+            positions[tour[k]] = k;
+        }
+        return positions;
+    }
+
+    /**
+     * Orders the nodes of a cluster as the warm start tour visits them.
+     * @param cluster The nodes of the cluster.
+     * @param positions The position of every node on the carried warm start tour.
+     * @return The tour over the indices of the cluster.
+     */
+    private static int[] clusterTour(int[] cluster, int[] positions) {
+        long[] keys = new long[cluster.length];
+        for (int k = 0; k < cluster.length; k++) {
+            keys[k] = (long) positions[cluster[k]] << 32 | k;
+        }
+        Arrays.sort(keys);
+        int[] tour = new int[cluster.length];
+        for (int k = 0; k < cluster.length; k++) {
+            tour[k] = (int) keys[k];
+        }
+        return tour;
+    }
+
+    /**
+     * Recursively splits a range of nodes in halves along the wider side of their bounding box until every part
+     * has at most the cluster size. The halves are split so that the parts end up about equally large.
+     * @param nodes The nodes, whose range is reordered.
+     * @param low The first index of the range.
+     * @param high The index after the last one of the range.
+     * @param clusters The list receiving the nodes of every cluster.
+     */
+    private void split(int[] nodes, int low, int high, List<int[]> clusters) {
+        int count = high - low;
+        if (count <= clusterSize) {
+            clusters.add(Arrays.copyOfRange(nodes, low, high));
+            return;
+        }
+        double[] x = problem.getX();
+        double[] y = problem.getY();
+        double minX = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (int i = low; i < high; i++) {
+            minX = Math.min(minX, x[nodes[i]]);
+            maxX = Math.max(maxX, x[nodes[i]]);
+            minY = Math.min(minY, y[nodes[i]]);
+            maxY = Math.max(maxY, y[nodes[i]]);
+        }
+        int parts = (count + clusterSize - 1) / clusterSize;
+        int middle = low + (int) ((long) count * (parts / 2) / parts);
+        KdTree.select(nodes, low, high - 1, middle, maxX - minX >= maxY - minY ? x : y);
+        split(nodes, low, middle, clusters);
+        split(nodes, middle, high, clusters);
+    }
+
+    /**
+     * Solves a small problem of its own with a colony. Problems of up to three nodes need no colony.
+     * The colony keeps full matrices unless the problem keeps packed ones, as a cluster is small enough for them.
+     * It runs on one thread, for what is left of the time limit.
+     * @param name The name of the problem.
+     * @param x The x-coordinates of its nodes.
+     * @param y The y-coordinates of its nodes.
+     * @param warmStart The tour to start from, over the indices of the small problem, or null for none.
+     * @param colonySeed The seed of the colony.
+     * @param iterationCount The number of iterations.
+     * @param antPerIteration The number of ants per iteration.
+     * @param degradationFactor The rate at which pheromones degrade.
+     * @param alpha The alpha parameter for pheromone influence.
+     * @param beta The beta parameter for distance influence.
+     * @param initialPheromoneIntensity The initial pheromone intensity.
+     * @param qValue The Q value for pheromone update.
+     * @return The shortest tour found, over the indices of the small problem.
+     */
+    private int[] solveCluster(String name, double[] x, double[] y, int[] warmStart, long colonySeed,
+                               int iterationCount, int antPerIteration, double degradationFactor, double alpha,
+                               double beta, double initialPheromoneIntensity, double qValue) {
+        int[] tour = new int[x.length];
+        for (int i = 0; i < tour.length; i++) {
+            tour[i] = i;
+        }
+        if (tour.length <= 3 || cancelled) {
+            return tour;
+        }
+        MatrixStorage storage = problem.getStorage() == MatrixStorage.MATRIX_FREE
+                ? MatrixStorage.FULL : problem.getStorage();
+        Problem cluster = new Problem(name, x, y, problem.getDistanceType(), storage);
+        Solver solver = new Solver(cluster);
+        solverSetup.accept(solver);
+        if (seeded) {
+            solver.setSeed(colonySeed);
+        }
+        solver.setThreadCount(1);
+        if (timeLimitMillis > 0) {
+            // A colony started after the deadline still builds its first tour
+            solver.setTimeLimit(Math.max(1L, (deadline - System.nanoTime()) / 1_000_000L));
+        }
+        if (warmStart != null) {
+            solver.setWarmStart(cluster, warmStart, warmStartWeight);
+        }
+        synchronized (running) {
+            if (cancelled) {
+                return tour;
+            }
+            running.add(solver);
+        }
+        try {
+            solver.solve(iterationCount, antPerIteration, degradationFactor, alpha, beta,
+                    initialPheromoneIntensity, qValue);
+        } finally {
+            synchronized (running) {
+                running.remove(solver);
+            }
+        }
+        // A colony without iterations or ants leaves the nodes in their order
+        return solver.getShortestPath() != null ? solver.getShortestPath() : tour;
+    }
+
+    /**
+     * Joins the tours of the clusters in the coarse order. Every tour is cut open at the edge, and walked in the
+     * direction, for which coming from the previous cluster and going on to the centroid of the next one adds the
+     * least; the last cluster goes back to the first node.
+     * @param subTours The closed tour of every cluster.
+     * @param order The order the clusters are visited in.
+     * @param centroidX The x-coordinates of the centroids of the clusters.
+     * @param centroidY The y-coordinates of the centroids of the clusters.
+     * @param tour The buffer receiving the stitched tour.
+     * @return The position in the tour where every cluster starts, in the coarse order.
+     */
+    private int[] stitch(int[][] subTours, int[] order, double[] centroidX, double[] centroidY, int[] tour) {
+        double[] x = problem.getX();
+        double[] y = problem.getY();
+        DistanceType distanceType = problem.getDistanceType();
+        int[] seams = new int[order.length];
+        int size = 0;
+        double fromX = centroidX[order[order.length - 1]];
+        double fromY = centroidY[order[order.length - 1]];
+        for (int c = 0; c < order.length; c++) {
+            int[] cycle = subTours[order[c]];
+            int length = cycle.length;
+            boolean last = c == order.length - 1;
+            double toX = last ? (size > 0 ? x[tour[0]] : fromX) : centroidX[order[c + 1]];
+            double toY = last ? (size > 0 ? y[tour[0]] : fromY) : centroidY[order[c + 1]];
+
+            int bestStart = 0;
+            int bestStep = 1;
+            double bestCost = Double.MAX_VALUE;
+            for (int p = 0; p < length; p++) {
+                int entry = cycle[p];
+                double enter = distanceType.distance(fromX, fromY, x[entry], y[entry]);
+                for (int step = -1; step <= 1; step += 2) {
+                    // Walking from the entry in this direction ends next to it, at the other end of the cut edge
+                    int exit = cycle[(p - step + length) % length];
+                    double cost = enter + distanceType.distance(x[exit], y[exit], toX, toY)
+                            - problem.getDistance(entry, exit);
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        bestStart = p;
+                        bestStep = step;
+                    }
+                }
+            }
+            seams[c] = size;
+            for (int k = 0; k < length; k++) {
+                tour[size++] = cycle[((bestStart + bestStep * k) % length + length) % length];
+            }
+            fromX = x[tour[size - 1]];
+            fromY = y[tour[size - 1]];
+        }
+        return seams;
+    }
+
+    /**
+     * Gets the nodes near the seams of the stitched tour, which the repair starts from.
+     * @param tour The stitched tour.
+     * @param seams The position where every cluster starts.
+     * @return The nodes within a few positions of a seam, every one once.
+     */
+    private static int[] seamNodes(int[] tour, int[] seams) {
+        boolean[] taken = new boolean[tour.length];
+        int[] nodes = new int[Math.min(tour.length, seams.length * 2 * SEAM_WINDOW)];
+        int count = 0;
+        for (int seam : seams) {
+            for (int offset = -SEAM_WINDOW; offset < SEAM_WINDOW; offset++) {
+                int node = tour[((seam + offset) % tour.length + tour.length) % tour.length];
+                if (!taken[node] && count < nodes.length) {
+                    taken[node] = true;
+                    nodes[count++] = node;
+                }
+            }
+        }
+        return Arrays.copyOf(nodes, count);
+    }
+
+    /**
+     * Asks every running colony to stop; the clusters not started yet keep their nodes in their order.
+     * It may be called from any thread.
+     */
+    public void cancel() {
+        synchronized (running) {
+            cancelled = true;
+            for (Solver solver : running) {
+                solver.cancel();
+            }
+        }
+    }
+
+    /**
+     * Gets the number of clusters of the last run.
+     * @return The number of clusters, 0 before the first run.
+     */
+    public int getClusterCount() {
+        return clusterCount;
+    }
+
+    /**
+     * Gets the stitched and repaired tour of every node.
+     * @return The shortest path, or null before the first run.
+     */
+    public int[] getShortestPath() {
+        return shortestPath;
+    }
+
+    /**
+     * Gets the length of the stitched and repaired tour.
+     * @return The shortest distance.
+     */
+    public double getShortestDistance() {
+        return shortestDistance;
+    }
+}
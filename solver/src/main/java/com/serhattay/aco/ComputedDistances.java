@@ -0,0 +1,159 @@
+package com.serhattay.aco;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A class representing distances that are never stored as a matrix but calculated from the coordinates whenever
+ * they are read, for instances too large for any matrix. The edges read last are remembered in a small cache per
+ * thread, two edges per set with the least recently used one replaced, since the ants and the local search keep
+ * coming back to the same short edges. The cache is per thread so that the workers of a parallel colony never
+ * share or lock it.
+ */
+final class ComputedDistances extends SymmetricMatrix {
+    // Number of sets of the cache of every thread, two edges each: 2^16 sets take 2.5 MB per thread
+    private static final int CACHE_SETS = 1 << 16;
+    // Lookups a thread counts before adding them to the shared hit and miss counters
+    private static final int COUNT_BATCH = 4096;
+
+    private double[] x;
+    private double[] y;
+    private final DistanceType distanceType;
+    private final ThreadLocal<EdgeCache> caches = ThreadLocal.withInitial(EdgeCache::new);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    // Raised whenever a coordinate changes, telling every thread to forget its cache
+    private volatile int generation;
+
+    /**
+     * Constructs the distances over coordinates.
+     * @param x The x-coordinates of the nodes.
+     * @param y The y-coordinates of the nodes.
+     * @param distanceType How the distance between two nodes is calculated.
+     */
+    ComputedDistances(double[] x, double[] y, DistanceType distanceType) {
+        this.x = x;
+        this.y = y;
+        this.distanceType = distanceType;
+    }
+
+    /**
+     * Switches to new coordinate arrays after a node was added, removed or moved, forgetting every cached edge.
+     * @param x The x-coordinates of the nodes.
+     * @param y The y-coordinates of the nodes.
+     */
+    void setCoordinates(double[] x, double[] y) {
+        this.x = x;
+        this.y = y;
+        generation++;
+    }
+
+    /**
+     * Gets the share of the reads that were answered from the caches. Every thread adds its counts in batches,
+     * so the last few thousand reads of a thread may not be counted yet.
+     * @return The hit rate between 0 and 1, or NaN before the first counted read.
+     */
+    double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total > 0 ? (double) hitCount / total : Double.NaN;
+    }
+
+    @Override
+    int size() {
+        return x.length;
+    }
+
+    @Override
+    double get(int start, int destination) {
+        if (start == destination) {
+            return 0.0;
+        }
+        return caches.get().get(Math.min(start, destination), Math.max(start, destination));
+    }
+
+    /**
+     * Calculates the distance of an edge from the coordinates.
+     * @param start The first node of the edge.
+     * @param destination The second node of the edge.
+     * @return The distance.
+     */
+    private double calculate(int start, int destination) {
+        if (distanceType == DistanceType.EUCLIDEAN) {
+            double dx = x[start] - x[destination];
+            double dy = y[start] - y[destination];
+            return Math.sqrt(dx * dx + dy * dy);
+        }
+        return distanceType.distance(x[start], y[start], x[destination], y[destination]);
+    }
+
+    /**
+     * Does nothing, the new node is picked up with the coordinates given to {@link #setCoordinates}.
+     */
+    @Override
+    void addNode() {
+    }
+
+    /**
+     * Does nothing, the removal is picked up with the coordinates given to {@link #setCoordinates}.
+     * @param node The node to remove.
+     */
+    @Override
+    void removeNode(int node) {
+    }
+
+    /**
+     * A class representing the edge cache of one thread: a two-way set-associative table where the first way of
+     * every set holds the edge used last, so a miss always replaces the least recently used edge of its set.
+     */
+    private final class EdgeCache {
+        // Edge keys of both ways of every set; 0 is the diagonal edge of node 0, which is never cached
+        private final long[] keys = new long[2 * CACHE_SETS];
+        private final double[] values = new double[2 * CACHE_SETS];
+        private int cachedGeneration = generation;
+        private int hitCount;
+        private int missCount;
+
+        /**
+         * Gets the distance of an edge from the cache, calculating and caching it on a miss.
+         * @param low The smaller node of the edge.
+         * @param high The larger node of the edge.
+         * @return The distance.
+         */
+        double get(int low, int high) {
+            if (cachedGeneration != generation) {
+                Arrays.fill(keys, 0L);
+                cachedGeneration = generation;
+            }
+            long key = (long) low << 32 | high;
+            int slot = 2 * (int) ((key * 0x9E3779B97F4A7C15L) >>> (64 - Integer.numberOfTrailingZeros(CACHE_SETS)));
+            double value;
+            if (keys[slot] == key) {
+                value = values[slot];
+                hitCount++;
+            } else if (keys[slot + 1] == key) {
+                value = values[slot + 1];
+                // Move the edge to the first way, making the other one the least recently used
+                keys[slot + 1] = keys[slot];
+                values[slot + 1] = values[slot];
+                keys[slot] = key;
+                values[slot] = value;
+                hitCount++;
+            } else {
+                value = calculate(low, high);
+                keys[slot + 1] = keys[slot];
+                values[slot + 1] = values[slot];
+                keys[slot] = key;
+                values[slot] = value;
+                missCount++;
+            }
+            if (hitCount + missCount == COUNT_BATCH) {
+                hits.add(hitCount);
+                misses.add(missCount);
+                hitCount = 0;
+                missCount = 0;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.serhattay.aco;
+
+/**
+ * A class representing the kernel that calculates the distances from one node to a range of nodes straight from
+ * the coordinate arrays, one row of the distance matrix at a time. This is the scalar kernel, which works on every
+ * JVM and for every distance type. When the JVM was started with {@code --add-modules jdk.incubator.vector},
+ * {@link #create} picks the kernel built on the Vector API instead, for the distance types it supports; both kernels
+ * calculate exactly the same distances.
+ */
+class DistanceKernel {
+    // System property that turns the Vector API kernel off when set to false
+    static final String VECTOR_PROPERTY = "aco.vector";
+    private static final String VECTOR_MODULE = "jdk.incubator.vector";
+
+    private final DistanceType distanceType;
+
+    /**
+     * Constructs a scalar kernel.
+     * @param distanceType How the distance between two nodes is calculated.
+     */
+    DistanceKernel(DistanceType distanceType) {
+        this.distanceType = distanceType;
+    }
+
+    /**
+     * Creates the fastest kernel for a distance type: the Vector API one if the module is there, the property does
+     * not turn it off, the CPU has vectors of more than one double and the type is supported, the scalar one
+     * otherwise.
+     * @param distanceType How the distance between two nodes is calculated.
+     * @return The kernel.
+     */
+    static DistanceKernel create(DistanceType distanceType) {
+        return create(distanceType, isVectorAvailable());
+    }
+
+    /**
+     * Creates a kernel for a distance type, choosing whether to use the Vector API.
+     * @param distanceType How the distance between two nodes is calculated.
+     * @param vector True for the Vector API kernel if it supports the type, false for the scalar one.
+     * @return The kernel.
+     * @throws IllegalStateException If the Vector API kernel is asked for but the module is not there.
+     */
+    static DistanceKernel create(DistanceType distanceType, boolean vector) {
+        if (!vector) {
+            return new DistanceKernel(distanceType);
+        }
+        if (ModuleLayer.boot().findModule(VECTOR_MODULE).isEmpty()) {
+            throw new IllegalStateException("The Vector API needs --add-modules " + VECTOR_MODULE);
+        }
+        // Only touched here, so the class is never loaded without the module
+        return VectorDistanceKernel.supports(distanceType)
+                ? new VectorDistanceKernel(distanceType) : new DistanceKernel(distanceType);
+    }
+
+    /**
+     * Checks whether the Vector API kernel can be used: the module is there, the property does not turn it off
+     * and the CPU has vectors of more than one double.
+     * @return True if {@link #create(DistanceType)} uses the Vector API for the types it supports.
+     */
+    static boolean isVectorAvailable() {
+        return !"false".equalsIgnoreCase(System.getProperty(VECTOR_PROPERTY))
+                && ModuleLayer.boot().findModule(VECTOR_MODULE).isPresent()
+                && VectorDistanceKernel.lanes() > 1;
+    }
+
+    /**
+     * Gets how the distance between two nodes is calculated.
+     * @return The distance type.
+     */
+    DistanceType getDistanceType() {
+        return distanceType;
+    }
+
+    /**
+     * Tells whether the kernel uses the Vector API.
+     * @return False for the scalar kernel.
+     */
+    boolean isVectorized() {
+        return false;
+    }
+
+    /**
+     * Calculates the distances from a node to the nodes 0 to count - 1. Every distance is calculated with the other
+     * node first, the way the distances below the diagonal have always been calculated.
+     * @param x The x-coordinates of the nodes.
+     * @param y The y-coordinates of the nodes.
+     * @param node The node the distances are from.
+     * @param count The number of nodes the distances are to.
+     * @param row The buffer receiving the distance to node j at index j.
+     */
+    void distances(double[] x, double[] y, int node, int count, double[] row) {
+        distances(x, y, node, 0, count, row);
+    }
+
+    /**
+     * Calculates the distances from a node to a range of nodes one by one.
+     * @param x The x-coordinates of the nodes.
+     * @param y The y-coordinates of the nodes.
+     * @param node The node the distances are from.
+     * @param from The first node the distances are to.
+     * @param to The node after the last one the distances are to.
+     * @param row The buffer receiving the distance to node j at index j.
+     */
+    final void distances(double[] x, double[] y, int node, int from, int to, double[] row) {
+        double nodeX = x[node];
+        double nodeY = y[node];
+        for (int j = from; j < to; j++) {
+            row[j] = distanceType.distance(x[j], y[j], nodeX, nodeY);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.serhattay.aco;
+
+/**
+ * A class representing the ways the distance between two nodes is calculated from their coordinates.
+ * The TSPLIB types round to whole numbers as the TSPLIB specification does, so that the published optimal
+ * tour lengths can be compared against.
+ */
+public enum DistanceType {
+    /** The exact Euclidean distance, used for the comma-separated input files. */
+    EUCLIDEAN {
+        @Override
+        public double distance(double x1, double y1, double x2, double y2) {
+            double dx = x1 - x2;
+            double dy = y1 - y2;
+            return Math.sqrt(dx * dx + dy * dy);
+        }
+    },
+    /** The TSPLIB EUC_2D distance: the Euclidean distance rounded to the nearest integer. */
+    EUC_2D {
+        @Override
+        public double distance(double x1, double y1, double x2, double y2) {
+            double dx = x1 - x2;
+            double dy = y1 - y2;
+            return (int) (Math.sqrt(dx * dx + dy * dy) + 0.5);
+        }
+    },
+    /** The TSPLIB GEO distance: coordinates are latitude and longitude in DDD.MM format, distances in kilometres. */
+    GEO {
+        @Override
+        public double distance(double x1, double y1, double x2, double y2) {
+            double latitude1 = toRadians(x1);
+            double longitude1 = toRadians(y1);
+            double latitude2 = toRadians(x2);
+            double longitude2 = toRadians(y2);
+            double q1 = Math.cos(longitude1 - longitude2);
+            double q2 = Math.cos(latitude1 - latitude2);
+            double q3 = Math.cos(latitude1 + latitude2);
+            return (int) (EARTH_RADIUS * Math.acos(0.5 * ((1.0 + q1) * q2 - (1.0 - q1) * q3)) + 1.0);
+        }
+    },
+    /** The TSPLIB ATT pseudo-Euclidean distance, rounded up. */
+    ATT {
+        @Override
+        public double distance(double x1, double y1, double x2, double y2) {
+            double dx = x1 - x2;
+            double dy = y1 - y2;
+            double r = Math.sqrt((dx * dx + dy * dy) / 10.0);
+            int t = (int) (r + 0.5);
+            return t < r ? t + 1 : t;
+        }
+    };
+
+    // The constants of the TSPLIB specification, including its truncated value of pi
+    private static final double TSPLIB_PI = 3.141592;
+    private static final double EARTH_RADIUS = 6378.388;
+
+    /**
+     * Calculates the distance between two nodes.
+     * @param x1 The x-coordinate of the first node.
+     * @param y1 The y-coordinate of the first node.
+     * @param x2 The x-coordinate of the second node.
+     * @param y2 The y-coordinate of the second node.
+     * @return The distance between the two nodes.
+     */
+    public abstract double distance(double x1, double y1, double x2, double y2);
+
+    /**
+     * Tells whether the distances are whole numbers, so that they can be stored as integers.
+     * @return True for the TSPLIB types, false for the exact Euclidean distance.
+     */
+    public boolean isRounded() {
+        return this != EUCLIDEAN;
+    }
+
+    /**
+     * Converts a TSPLIB GEO coordinate in DDD.MM format into radians.
+     * @param coordinate The coordinate, whole degrees before the point and minutes after it.
+     * @return The coordinate in radians.
+     */
+    private static double toRadians(double coordinate) {
+        int degrees = (int) coordinate;
+        double minutes = coordinate - degrees;
+        return TSPLIB_PI * (degrees + 5.0 * minutes / 3.0) / 180.0;
+    }
+}
@@ -0,0 +1,137 @@
+package com.serhattay.aco;
+
+import java.util.Arrays;
+
+/**
+ * A class representing a symmetric matrix stored in full as one double row per node.
+ * Every edge is stored twice, so a row can be read in one sweep.
+ */
+final class FullMatrix extends StoredMatrix {
+    // Side of the square blocks the lower triangle is mirrored in, two of them fit in the L2 cache
+    private static final int MIRROR_BLOCK = 64;
+
+    private double[][] rows;
+
+    /**
+     * Constructs a matrix of zeros.
+     * @param numberOfNodes The number of nodes.
+     */
+    FullMatrix(int numberOfNodes) {
+        rows = new double[numberOfNodes][numberOfNodes];
+    }
+
+    /**
+     * Constructs a matrix over rows that were already filled in.
+     * @param rows The rows, which are used as they are.
+     */
+    FullMatrix(double[][] rows) {
+        this.rows = rows;
+    }
+
+    /**
+     * Gets the rows of the matrix.
+     * @return The rows, which are replaced when a node is added or removed.
+     */
+    double[][] getRows() {
+        return rows;
+    }
+
+    @Override
+    int size() {
+        return rows.length;
+    }
+
+    @Override
+    double get(int start, int destination) {
+        return rows[start][destination];
+    }
+
+    @Override
+    void set(int start, int destination, double value) {
+        rows[start][destination] = value;
+        rows[destination][start] = value;
+    }
+
+    @Override
+    void setRow(int node, double[] row) {
+        System.arraycopy(row, 0, rows[node], 0, node);
+        for (int j = 0; j < node; j++) {
+            rows[j][node] = row[j];
+        }
+    }
+
+    /**
+     * Copies every value below the diagonal to the other direction of its edge, after the rows were filled in only
+     * below the diagonal. Writing the other direction right away would write one value into every row in turn, so the
+     * triangle is mirrored in square blocks whose rows stay in the cache.
+     */
+    void mirrorLowerTriangle() {
+        int size = rows.length;
+        for (int blockI = 0; blockI < size; blockI += MIRROR_BLOCK) {
+            int endI = Math.min(blockI + MIRROR_BLOCK, size);
+            for (int blockJ = 0; blockJ <= blockI; blockJ += MIRROR_BLOCK) {
+                for (int i = blockI; i < endI; i++) {
+                    double[] row = rows[i];
+                    int endJ = Math.min(blockJ + MIRROR_BLOCK, i);
+                    for (int j = blockJ; j < endJ; j++) {
+                        rows[j][i] = row[j];
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    void fill(double value) {
+        for (double[] row : rows) {
+            Arrays.fill(row, value);
+        }
+    }
+
+    @Override
+    void multiply(double factor) {
+        for (double[] row : rows) {
+            for (int j = 0; j < row.length; j++) {
+                row[j] *= factor;
+            }
+        }
+    }
+
+    /**
+     * Adds a node after the last one. The rows are copied into rows one longer, as a row has no spare room.
+     */
+    @Override
+    void addNode() {
+        int size = rows.length;
+        double[][] grown = new double[size + 1][];
+        for (int i = 0; i < size; i++) {
+            grown[i] = Arrays.copyOf(rows[i], size + 1);
+        }
+        grown[size] = new double[size + 1];
+        rows = grown;
+    }
+
+    /**
+     * Removes a node. The rows are copied into rows one shorter.
+     * @param node The node to remove.
+     */
+    @Override
+    void removeNode(int node) {
+        double[][] shrunk = new double[rows.length - 1][];
+        for (int i = 0, row = 0; i < rows.length; i++) {
+            if (i != node) {
+                shrunk[row++] = Problem.removeIndex(rows[i], node);
+            }
+        }
+        rows = shrunk;
+    }
+
+    @Override
+    double[][] toArray() {
+        double[][] values = new double[rows.length][];
+        for (int i = 0; i < rows.length; i++) {
+            values[i] = rows[i].clone();
+        }
+        return values;
+    }
+}
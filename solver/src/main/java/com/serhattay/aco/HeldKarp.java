@@ -0,0 +1,188 @@
+package com.serhattay.aco;
+
+import java.util.stream.IntStream;
+
+/**
+ * A class representing the Held-Karp dynamic programming solver, which finds the exact shortest tour in
+ * O(n^2 * 2^n) time instead of the (n-1)! permutations of the brute-force method.
+ * The table keeps, for every subset S of the nodes other than node 0 and every node j in S, the length of the
+ * shortest path that starts at node 0, visits exactly S and ends at j. Only the entries with j in S are stored,
+ * which halves the memory, and the subsets of one size are filled in parallel since they only read smaller ones.
+ */
+public class HeldKarp {
+    // Largest instance the table can be indexed for; the memory limit usually stops earlier
+    private static final int MAX_NODES = 27;
+
+    private final double[][] distanceMatrix;
+    private final int numberOfNodes;
+    private int[] offsets;
+    private double[] pathLengths;
+    private int[] shortestPath;
+    private double shortestDistance;
+
+    /**
+     * Constructs a Held-Karp solver for the given distances.
+     * @param distanceMatrix The distance matrix of the nodes.
+     */
+    HeldKarp(double[][] distanceMatrix) {
+        this.distanceMatrix = distanceMatrix;
+        this.numberOfNodes = distanceMatrix.length;
+    }
+
+    /**
+     * Gets the number of bytes the table of an instance needs.
+     * @param numberOfNodes The number of nodes of the instance.
+     * @return The number of bytes of the table.
+     */
+    public static long requiredMemory(int numberOfNodes) {
+        int m = Math.max(numberOfNodes - 1, 1);
+        return 8L * m * (1L << (m - 1)) + 4L * 2 * (1L << m);
+    }
+
+    /**
+     * Solves the instance exactly.
+     * @return The length of the shortest tour.
+     */
+    public double solve() {
+        if (numberOfNodes > MAX_NODES) {
+            throw new IllegalArgumentException("Held-Karp supports at most " + MAX_NODES + " nodes, got " + numberOfNodes);
+        }
+        long required = requiredMemory(numberOfNodes);
+        if (required > Runtime.getRuntime().maxMemory()) {
+            throw new IllegalStateException(String.format("Held-Karp needs about %d MB for %d nodes, raise -Xmx",
+                    required >> 20, numberOfNodes));
+        }
+        if (numberOfNodes == 1) {
+            shortestPath = new int[]{0};
+            shortestDistance = 0.0;
+            return shortestDistance;
+        }
+
+        int m = numberOfNodes - 1;
+        int fullMask = (1 << m) - 1;
+
+        // Index the entries of every subset and group the subsets by size
+        offsets = new int[1 << m];
+        int[] layerStarts = new int[m + 2];
+        int total = 0;
+        for (int mask = 0; mask <= fullMask; mask++) {
+            offsets[mask] = total;
+            total += Integer.bitCount(mask);
+            layerStarts[Integer.bitCount(mask) + 1]++;
+        }
+        for (int size = 1; size <= m + 1; size++) {
+            layerStarts[size] += layerStarts[size - 1];
+        }
+        int[] masksBySize = new int[1 << m];
+        int[] fill = layerStarts.clone();
+        for (int mask = 0; mask <= fullMask; mask++) {
+            masksBySize[fill[Integer.bitCount(mask)]++] = mask;
+        }
+        pathLengths = new double[total];
+
+        // Paths visiting a single node
+        for (int j = 0; j < m; j++) {
+            pathLengths[offsets[1 << j]] = distanceMatrix[0][j + 1];
+        }
+        // Subsets of one size only depend on the subsets one smaller
+        for (int size = 2; size <= m; size++) {
+            IntStream.range(layerStarts[size], layerStarts[size + 1]).parallel()
+                    .forEach(index -> fillSubset(masksBySize[index]));
+        }
+
+        // Close the tour back to node 0
+        shortestDistance = Double.MAX_VALUE;
+        int lastNode = 0;
+        for (int j = 0; j < m; j++) {
+            double length = pathLengths[offsets[fullMask] + j] + distanceMatrix[j + 1][0];
+            if (length < shortestDistance) {
+                shortestDistance = length;
+                lastNode = j;
+            }
+        }
+        shortestPath = reconstructPath(fullMask, lastNode);
+
+        offsets = null;
+        pathLengths = null;
+        return shortestDistance;
+    }
+
+    /**
+     * Gets the shortest tour found by {@link #solve()}, starting at node 0.
+     * @return The shortest tour.
+     */
+    public int[] getShortestPath() {
+        return shortestPath;
+    }
+
+    /**
+     * Gets the length of the shortest tour found by {@link #solve()}.
+     * @return The length of the shortest tour.
+     */
+    public double getShortestDistance() {
+        return shortestDistance;
+    }
+
+    /**
+     * Fills the entries of one subset from the entries of the subsets one smaller.
+     * @param mask The subset, bit j standing for node j + 1.
+     */
+    private void fillSubset(int mask) {
+        int rank = 0;
+        for (int bits = mask; bits != 0; bits &= bits - 1) {
+            int j = Integer.numberOfTrailingZeros(bits);
+            pathLengths[offsets[mask] + rank] = bestPredecessorLength(mask ^ (1 << j), j);
+            rank++;
+        }
+    }
+
+    /**
+     * Finds the shortest path that visits a subset and then steps to one more node.
+     * @param previousMask The subset visited before the last step.
+     * @param j The node stepped to, as a bit index.
+     * @return The length of the shortest such path.
+     */
+    private double bestPredecessorLength(int previousMask, int j) {
+        double best = Double.MAX_VALUE;
+        int base = offsets[previousMask];
+        int rank = 0;
+        for (int bits = previousMask; bits != 0; bits &= bits - 1) {
+            int i = Integer.numberOfTrailingZeros(bits);
+            double length = pathLengths[base + rank] + distanceMatrix[i + 1][j + 1];
+            if (length < best) {
+                best = length;
+            }
+            rank++;
+        }
+        return best;
+    }
+
+    /**
+     * Walks the table back from the last node to node 0, recomputing the predecessor chosen at every step.
+     * @param mask The subset visited by the whole path.
+     * @param lastNode The last node of the path, as a bit index.
+     * @return The tour starting at node 0.
+     */
+    private int[] reconstructPath(int mask, int lastNode) {
+        int[] path = new int[numberOfNodes];
+        int j = lastNode;
+        for (int position = numberOfNodes - 1; position > 0; position--) {
+            path[position] = j + 1;
+            int previousMask = mask ^ (1 << j);
+            double target = pathLengths[offsets[mask] + Integer.bitCount(mask & ((1 << j) - 1))];
+            int predecessor = -1;
+            int rank = 0;
+            for (int bits = previousMask; bits != 0 && predecessor < 0; bits &= bits - 1) {
+                int i = Integer.numberOfTrailingZeros(bits);
+                if (pathLengths[offsets[previousMask] + rank] + distanceMatrix[i + 1][j + 1] == target) {
+                    predecessor = i;
+                }
+                rank++;
+            }
+            mask = previousMask;
+            j = predecessor;
+        }
+        path[0] = 0;
+        return path;
+    }
+}
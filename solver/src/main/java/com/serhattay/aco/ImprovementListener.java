@@ -0,0 +1,14 @@
+package com.serhattay.aco;
+
+/**
+ * An interface for following a run as it goes, told about every tour shorter than all tours before it.
+ */
+public interface ImprovementListener {
+    /**
+     * Called on the thread running the colony as soon as a shorter tour is found, so it should return quickly.
+     * @param tour The new shortest tour.
+     * @param iteration The iteration in which it was found, counted from 0.
+     * @param elapsedNanos The time since the start of the run in nanoseconds.
+     */
+    void improved(Tour tour, int iteration, long elapsedNanos);
+}
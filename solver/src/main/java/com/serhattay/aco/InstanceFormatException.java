@@ -0,0 +1,30 @@
+package com.serhattay.aco;
+
+import java.io.IOException;
+
+/**
+ * A class representing a malformed line in an instance file.
+ */
+public class InstanceFormatException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    private final int lineNumber;
+
+    /**
+     * Constructs a new exception for a line of an instance file.
+     * @param lineNumber The number of the malformed line, starting from 1.
+     * @param message What is wrong with the line.
+     */
+    public InstanceFormatException(int lineNumber, String message) {
+        super("line " + lineNumber + ": " + message);
+        this.lineNumber = lineNumber;
+    }
+
+    /**
+     * Gets the number of the malformed line.
+     * @return The line number, starting from 1.
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+}
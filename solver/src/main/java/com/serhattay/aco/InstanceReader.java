@@ -0,0 +1,520 @@
+package com.serhattay.aco;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * A class representing a reader of instance files, either one "x,y" pair per line or a TSPLIB file with a
+ * NODE_COORD_SECTION and an EUC_2D, GEO or ATT edge weight type.
+ * The file is memory-mapped and the coordinates are parsed straight from its bytes into primitive arrays,
+ * so no String is created per line. Only TSPLIB header lines and numbers too long for the exact fast path
+ * go through Strings. An instance that is already in memory is parsed from its bytes the same way.
+ */
+public class InstanceReader {
+    // Files are mapped in windows of at most this size, each ending at a line break
+    private static final int MAX_WINDOW = 1 << 30;
+    // Integers up to 10^15 and powers of ten up to 10^22 are exact doubles, so one multiplication
+    // or division of the two is correctly rounded
+    private static final int MAX_FAST_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+        1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+        1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    // What the next line is expected to hold
+    private static final int DETECTING = 0;
+    private static final int PLAIN = 1;
+    private static final int TSPLIB_HEADER = 2;
+    private static final int TSPLIB_COORDINATES = 3;
+    private static final int TSPLIB_DONE = 4;
+
+    private double[] x = new double[1024];
+    private double[] y = new double[1024];
+    private int numberOfNodes;
+    private DistanceType distanceType = DistanceType.EUCLIDEAN;
+    private String name;
+    private int dimension = -1;
+    private boolean[] seenIds;
+
+    private int state = DETECTING;
+    private int lineNumber;
+    private int cursor;
+
+    /**
+     * Reads an instance file.
+     * @param path The path of the file.
+     * @return The reader holding the coordinates and the distance type of the file.
+     * @throws InstanceFormatException If a line of the file is malformed.
+     * @throws IOException If the file cannot be read.
+     */
+    public static InstanceReader read(Path path) throws IOException {
+        InstanceReader reader = new InstanceReader();
+        reader.name = path.getFileName().toString();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                int length = (int) Math.min(MAX_WINDOW, size - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                int end = length;
+                if (position + length < size) {
+                    end = lastLineBreak(buffer, length) + 1;
+                    if (end == 0) {
+                        throw new InstanceFormatException(reader.lineNumber + 1, "line is longer than " + MAX_WINDOW + " bytes");
+                    }
+                }
+                reader.parseLines(buffer, position == 0 ? skipByteOrderMark(buffer, end) : 0, end);
+                position += end;
+            }
+        }
+        reader.finish();
+        return reader;
+    }
+
+    /**
+     * Reads an instance that is already in memory, in either format, such as the body of a request.
+     * @param name The name of the instance, unless a TSPLIB NAME entry gives another one.
+     * @param content The bytes of the instance.
+     * @return The reader holding the coordinates and the distance type of the instance.
+     * @throws InstanceFormatException If a line of the instance is malformed.
+     */
+    public static InstanceReader read(String name, byte[] content) throws InstanceFormatException {
+        InstanceReader reader = new InstanceReader();
+        reader.name = name;
+        ByteBuffer buffer = ByteBuffer.wrap(content);
+        reader.parseLines(buffer, skipByteOrderMark(buffer, content.length), content.length);
+        reader.finish();
+        return reader;
+    }
+
+    /**
+     * Gets the x-coordinates of the nodes.
+     * @return The x-coordinates, indexed by node.
+     */
+    public double[] getX() {
+        return x;
+    }
+
+    /**
+     * Gets the y-coordinates of the nodes.
+     * @return The y-coordinates, indexed by node.
+     */
+    public double[] getY() {
+        return y;
+    }
+
+    /**
+     * Gets the number of nodes read.
+     * @return The number of nodes.
+     */
+    public int getNumberOfNodes() {
+        return numberOfNodes;
+    }
+
+    /**
+     * Gets how the distances between the nodes of the file are calculated.
+     * @return The distance type, EUCLIDEAN for comma-separated files.
+     */
+    public DistanceType getDistanceType() {
+        return distanceType;
+    }
+
+    /**
+     * Gets the name of the instance, the NAME entry of a TSPLIB file or the file name otherwise.
+     * @return The name of the instance.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Finds the last line break of a window.
+     * @param buffer The window.
+     * @param length The length of the window.
+     * @return The index of the last line break, or -1 if there is none.
+     */
+    private static int lastLineBreak(ByteBuffer buffer, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Skips the UTF-8 byte order mark some editors put at the start of a file.
+     * @param buffer The first window.
+     * @param end The end of the lines in the window.
+     * @return The index of the first byte after the byte order mark, 0 if there is none.
+     */
+    private static int skipByteOrderMark(ByteBuffer buffer, int end) {
+        if (end >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB && buffer.get(2) == (byte) 0xBF) {
+            return 3;
+        }
+        return 0;
+    }
+
+    /**
+     * Parses the complete lines of a window one after the other.
+     * @param buffer The window.
+     * @param start The index of the first byte of the first line.
+     * @param end The index after the last byte of the last line.
+     * @throws InstanceFormatException If a line is malformed.
+     */
+    private void parseLines(ByteBuffer buffer, int start, int end) throws InstanceFormatException {
+        int lineStart = start;
+        while (lineStart < end) {
+            int lineEnd = lineStart;
+            while (lineEnd < end && buffer.get(lineEnd) != '\n') {
+                lineEnd++;
+            }
+            int next = lineEnd + 1;
+            if (lineEnd > lineStart && buffer.get(lineEnd - 1) == '\r') {
+                lineEnd--;
+            }
+            lineNumber++;
+            parseLine(buffer, lineStart, lineEnd);
+            lineStart = next;
+        }
+    }
+
+    /**
+     * Parses one line according to the part of the file it is in.
+     * @param buffer The window.
+     * @param start The index of the first byte of the line.
+     * @param end The index after the last byte of the line.
+     * @throws InstanceFormatException If the line is malformed.
+     */
+    private void parseLine(ByteBuffer buffer, int start, int end) throws InstanceFormatException {
+        cursor = start;
+        skipWhitespace(buffer, end);
+        if (cursor == end || state == TSPLIB_DONE) {
+            return;
+        }
+        if (state == DETECTING) {
+            state = startsNumber(buffer.get(cursor)) ? PLAIN : TSPLIB_HEADER;
+        }
+
+        if (state == PLAIN) {
+            double nodeX = parseNumber(buffer, end);
+            skipWhitespace(buffer, end);
+            if (cursor == end || buffer.get(cursor) != ',') {
+                throw new InstanceFormatException(lineNumber, "expected a comma between the coordinates");
+            }
+            cursor++;
+            skipWhitespace(buffer, end);
+            double nodeY = parseNumber(buffer, end);
+            expectEndOfLine(buffer, end);
+            addNode(numberOfNodes, nodeX, nodeY);
+        } else if (state == TSPLIB_COORDINATES && startsNumber(buffer.get(cursor))) {
+            int id = parseId(buffer, end);
+            skipWhitespace(buffer, end);
+            double nodeX = parseNumber(buffer, end);
+            skipWhitespace(buffer, end);
+            double nodeY = parseNumber(buffer, end);
+            expectEndOfLine(buffer, end);
+            if (id < 1 || id > dimension) {
+                throw new InstanceFormatException(lineNumber, "node id " + id + " is outside 1.." + dimension);
+            }
+            if (seenIds[id - 1]) {
+                throw new InstanceFormatException(lineNumber, "node id " + id + " appears twice");
+            }
+            seenIds[id - 1] = true;
+            addNode(id - 1, nodeX, nodeY);
+        } else {
+            parseKeyword(new String(bytes(buffer, cursor, end), StandardCharsets.US_ASCII).trim());
+        }
+    }
+
+    /**
+     * Parses a TSPLIB header entry, a section name or the EOF marker.
+     * @param line The line without surrounding whitespace.
+     * @throws InstanceFormatException If the entry is unsupported or malformed.
+     */
+    private void parseKeyword(String line) throws InstanceFormatException {
+        if (line.equals("EOF")) {
+            state = TSPLIB_DONE;
+            return;
+        }
+        if (state == TSPLIB_COORDINATES) {
+            // Sections after the coordinates, such as DISPLAY_DATA_SECTION, are not needed
+            state = TSPLIB_DONE;
+            return;
+        }
+        if (line.equals("NODE_COORD_SECTION")) {
+            if (dimension < 0) {
+                throw new InstanceFormatException(lineNumber, "NODE_COORD_SECTION comes before DIMENSION");
+            }
+            if (distanceType == DistanceType.EUCLIDEAN) {
+                throw new InstanceFormatException(lineNumber, "NODE_COORD_SECTION comes before EDGE_WEIGHT_TYPE");
+            }
+            x = new double[dimension];
+            y = new double[dimension];
+            seenIds = new boolean[dimension];
+            state = TSPLIB_COORDINATES;
+            return;
+        }
+        if (line.endsWith("_SECTION")) {
+            throw new InstanceFormatException(lineNumber, "unsupported section " + line);
+        }
+
+        int colon = line.indexOf(':');
+        if (colon < 0) {
+            throw new InstanceFormatException(lineNumber, "expected \"KEY : VALUE\" or a section name");
+        }
+        String key = line.substring(0, colon).trim();
+        String value = line.substring(colon + 1).trim();
+        switch (key) {
+            case "NAME":
+                name = value;
+                break;
+            case "TYPE":
+                if (!value.equals("TSP")) {
+                    throw new InstanceFormatException(lineNumber, "unsupported problem type " + value);
+                }
+                break;
+            case "DIMENSION":
+                try {
+                    dimension = Integer.parseInt(value);
+                } catch (NumberFormatException ex) {
+                    throw new InstanceFormatException(lineNumber, "DIMENSION is not a whole number");
+                }
+                if (dimension < 1) {
+                    throw new InstanceFormatException(lineNumber, "DIMENSION must be positive");
+                }
+                break;
+            case "EDGE_WEIGHT_TYPE":
+                if (value.equals("EUC_2D")) {
+                    distanceType = DistanceType.EUC_2D;
+                } else if (value.equals("GEO")) {
+                    distanceType = DistanceType.GEO;
+                } else if (value.equals("ATT")) {
+                    distanceType = DistanceType.ATT;
+                } else {
+                    throw new InstanceFormatException(lineNumber, "unsupported EDGE_WEIGHT_TYPE " + value);
+                }
+                break;
+            default:
+                // COMMENT, NODE_COORD_TYPE, DISPLAY_DATA_TYPE and the like do not change the distances
+                break;
+        }
+    }
+
+    /**
+     * Checks that the whole file was read consistently and trims the coordinate arrays.
+     * @throws InstanceFormatException If the file has no nodes or fewer nodes than its DIMENSION.
+     */
+    private void finish() throws InstanceFormatException {
+        if (state == TSPLIB_HEADER) {
+            throw new InstanceFormatException(lineNumber, "no NODE_COORD_SECTION found");
+        }
+        if (state != PLAIN && state != DETECTING) {
+            for (int i = 0; i < dimension; i++) {
+                if (!seenIds[i]) {
+                    throw new InstanceFormatException(lineNumber, "DIMENSION is " + dimension
+                            + " but node " + (i + 1) + " has no coordinates");
+                }
+            }
+            numberOfNodes = dimension;
+        }
+        if (numberOfNodes == 0) {
+            throw new InstanceFormatException(Math.max(lineNumber, 1), "the file has no nodes");
+        }
+        x = Arrays.copyOf(x, numberOfNodes);
+        y = Arrays.copyOf(y, numberOfNodes);
+    }
+
+    /**
+     * Stores the coordinates of a node, growing the arrays of a comma-separated file as needed.
+     * @param index The index of the node.
+     * @param nodeX The x-coordinate of the node.
+     * @param nodeY The y-coordinate of the node.
+     */
+    private void addNode(int index, double nodeX, double nodeY) {
+        if (index >= x.length) {
+            x = Arrays.copyOf(x, x.length * 2);
+            y = Arrays.copyOf(y, y.length * 2);
+        }
+        x[index] = nodeX;
+        y[index] = nodeY;
+        if (state == PLAIN) {
+            numberOfNodes++;
+        }
+    }
+
+    /**
+     * Parses a TSPLIB node id.
+     * @param buffer The window.
+     * @param end The end of the line.
+     * @return The node id.
+     * @throws InstanceFormatException If there is no whole number at the cursor.
+     */
+    private int parseId(ByteBuffer buffer, int end) throws InstanceFormatException {
+        long id = 0;
+        int start = cursor;
+        while (cursor < end && isDigit(buffer.get(cursor))) {
+            id = Math.min(id * 10 + (buffer.get(cursor) - '0'), Integer.MAX_VALUE);
+            cursor++;
+        }
+        if (cursor == start || (cursor < end && !isWhitespace(buffer.get(cursor)))) {
+            throw new InstanceFormatException(lineNumber, "expected a node id");
+        }
+        return (int) id;
+    }
+
+    /**
+     * Parses a decimal number, with an optional sign, fraction and exponent.
+     * Up to 15 significant digits with a small exponent are converted exactly with one multiplication or
+     * division; anything longer falls back to Double.parseDouble.
+     * @param buffer The window.
+     * @param end The end of the line.
+     * @return The number.
+     * @throws InstanceFormatException If there is no number at the cursor or it is too large for a double.
+     */
+    private double parseNumber(ByteBuffer buffer, int end) throws InstanceFormatException {
+        int start = cursor;
+        boolean negative = false;
+        if (cursor < end && (buffer.get(cursor) == '-' || buffer.get(cursor) == '+')) {
+            negative = buffer.get(cursor) == '-';
+            cursor++;
+        }
+
+        long mantissa = 0;
+        int significantDigits = 0;
+        int exponent = 0;
+        boolean anyDigit = false;
+        boolean inFraction = false;
+        while (cursor < end) {
+            byte c = buffer.get(cursor);
+            if (isDigit(c)) {
+                anyDigit = true;
+                if (mantissa != 0 || c != '0') {
+                    significantDigits++;
+                }
+                if (significantDigits <= MAX_FAST_DIGITS) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (inFraction) {
+                        exponent--;
+                    }
+                } else if (!inFraction) {
+                    exponent++;
+                }
+            } else if (c == '.' && !inFraction) {
+                inFraction = true;
+            } else {
+                break;
+            }
+            cursor++;
+        }
+        if (!anyDigit) {
+            throw new InstanceFormatException(lineNumber, "expected a number");
+        }
+
+        if (cursor < end && (buffer.get(cursor) == 'e' || buffer.get(cursor) == 'E')) {
+            cursor++;
+            boolean negativeExponent = false;
+            if (cursor < end && (buffer.get(cursor) == '-' || buffer.get(cursor) == '+')) {
+                negativeExponent = buffer.get(cursor) == '-';
+                cursor++;
+            }
+            int exponentStart = cursor;
+            int written = 0;
+            while (cursor < end && isDigit(buffer.get(cursor))) {
+                written = Math.min(written * 10 + (buffer.get(cursor) - '0'), 100_000);
+                cursor++;
+            }
+            if (cursor == exponentStart) {
+                throw new InstanceFormatException(lineNumber, "expected digits after the exponent sign");
+            }
+            exponent += negativeExponent ? -written : written;
+        }
+        if (cursor < end && !isWhitespace(buffer.get(cursor)) && buffer.get(cursor) != ',') {
+            throw new InstanceFormatException(lineNumber, "unexpected character '" + (char) buffer.get(cursor)
+                    + "' in a number");
+        }
+
+        double value;
+        if (significantDigits > MAX_FAST_DIGITS || exponent < -22 || exponent > 22) {
+            value = Math.abs(Double.parseDouble(new String(bytes(buffer, start, cursor), StandardCharsets.US_ASCII)));
+            if (Double.isInfinite(value)) {
+                throw new InstanceFormatException(lineNumber, "number out of range");
+            }
+        } else if (exponent < 0) {
+            value = mantissa / POWERS_OF_TEN[-exponent];
+        } else {
+            value = mantissa * POWERS_OF_TEN[exponent];
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Checks that only whitespace is left on the line.
+     * @param buffer The window.
+     * @param end The end of the line.
+     * @throws InstanceFormatException If anything else is left.
+     */
+    private void expectEndOfLine(ByteBuffer buffer, int end) throws InstanceFormatException {
+        skipWhitespace(buffer, end);
+        if (cursor != end) {
+            throw new InstanceFormatException(lineNumber, "unexpected text after the coordinates");
+        }
+    }
+
+    /**
+     * Moves the cursor past spaces and tabs.
+     * @param buffer The window.
+     * @param end The end of the line.
+     */
+    private void skipWhitespace(ByteBuffer buffer, int end) {
+        while (cursor < end && isWhitespace(buffer.get(cursor))) {
+            cursor++;
+        }
+    }
+
+    /**
+     * Copies a range of a window, for the rare parts of a file that are parsed through a String.
+     * @param buffer The window.
+     * @param start The first index of the range.
+     * @param end The index after the last one of the range.
+     * @return The bytes of the range.
+     */
+    private static byte[] bytes(ByteBuffer buffer, int start, int end) {
+        byte[] bytes = new byte[end - start];
+        buffer.get(start, bytes);
+        return bytes;
+    }
+
+    /**
+     * Checks whether a byte can start a number.
+     * @param c The byte.
+     * @return True for a digit, a sign or a decimal point.
+     */
+    private static boolean startsNumber(byte c) {
+        return isDigit(c) || c == '-' || c == '+' || c == '.';
+    }
+
+    /**
+     * Checks whether a byte is a decimal digit.
+     * @param c The byte.
+     * @return True for '0' to '9'.
+     */
+    private static boolean isDigit(byte c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Checks whether a byte is a space or a tab.
+     * @param c The byte.
+     * @return True for a space or a tab.
+     */
+    private static boolean isWhitespace(byte c) {
+        return c == ' ' || c == '\t';
+    }
+}
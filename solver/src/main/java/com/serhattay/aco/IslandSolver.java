@@ -0,0 +1,179 @@
+package com.serhattay.aco;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * A class representing an island model: several independent colonies on one problem, each with its own pheromones
+ * and parameters and running on its own thread, that exchange their shortest paths every few iterations over
+ * migration transports. The colonies explore apart between the exchanges, so the model converges later than one
+ * colony with as many ants, and with {@link SocketTransport} the colonies may be spread over several programs
+ * and hosts. The exchanges depend on how fast the colonies run, so a run with migration is not repeatable.
+ */
+public class IslandSolver {
+    private final Solver[] islands;
+    private final MigrationTransport[] transports;
+    private final double[][] islandParameters;
+    private int migrationInterval = 10;
+
+    /**
+     * Constructs an island model whose colonies exchange their tours in a ring within this program.
+     * @param problem The problem every colony works on.
+     * @param islandCount The number of colonies.
+     */
+    public IslandSolver(Problem problem, int islandCount) {
+        this(problem, QueueTransport.ring(islandCount));
+    }
+
+    /**
+     * Constructs an island model with one colony per transport, each exchanging its tours over its own transport.
+     * The transports are not closed by the island model.
+     * @param problem The problem every colony works on.
+     * @param transports The transports of the colonies.
+     */
+    public IslandSolver(Problem problem, MigrationTransport... transports) {
+        if (transports.length < 1) {
+            throw new IllegalArgumentException("An island model needs at least one colony");
+        }
+        this.transports = transports.clone();
+        islands = new Solver[transports.length];
+        for (int i = 0; i < islands.length; i++) {
+            islands[i] = new Solver(problem);
+        }
+        islandParameters = new double[islands.length][];
+    }
+
+    /**
+     * Gets the number of colonies.
+     * @return The number of colonies.
+     */
+    public int getIslandCount() {
+        return islands.length;
+    }
+
+    /**
+     * Gets the solver of one colony, to set its update rule, candidate lists, local search and other settings
+     * before the run. Every colony needs an update rule of its own, as the update rules keep state.
+     * @param island The index of the colony.
+     * @return The solver of the colony.
+     */
+    public Solver getIsland(int island) {
+        return islands[island];
+    }
+
+    /**
+     * Sets the number of iterations between two exchanges of the shortest paths.
+     * @param migrationInterval The number of iterations, at least 1.
+     */
+    public void setMigrationInterval(int migrationInterval) {
+        if (migrationInterval < 1) {
+            throw new IllegalArgumentException("Migration interval must be at least 1: " + migrationInterval);
+        }
+        this.migrationInterval = migrationInterval;
+    }
+
+    /**
+     * Sets the seeds of all colonies, a different one derived from the given seed for each.
+     * @param seed The seed of the island model.
+     */
+    public void setSeed(long seed) {
+        for (int i = 0; i < islands.length; i++) {
+            islands[i].setSeed(seed + i * 0x9E3779B97F4A7C15L);
+        }
+    }
+
+    /**
+     * Sets the parameters of one colony, replacing those given to {@link #solve} for it.
+     * @param island The index of the colony.
+     * @param degradationFactor The rate at which pheromones degrade.
+     * @param alpha The alpha parameter for pheromone influence.
+     * @param beta The beta parameter for distance influence.
+     * @param initialPheromoneIntensity The initial pheromone intensity.
+     * @param qValue The Q value for pheromone update.
+     */
+    public void setParameters(int island, double degradationFactor, double alpha, double beta,
+                              double initialPheromoneIntensity, double qValue) {
+        islandParameters[island] = new double[] {degradationFactor, alpha, beta, initialPheromoneIntensity, qValue};
+    }
+
+    /**
+     * Runs every colony on its own thread until all of them have stopped. A colony that fails stops the others.
+     * @param iterationCount The number of iterations every colony performs.
+     * @param antPerIteration The number of ants every colony uses per iteration.
+     * @param degradationFactor The rate at which pheromones degrade, for the colonies without parameters of their own.
+     * @param alpha The alpha parameter for pheromone influence.
+     * @param beta The beta parameter for distance influence.
+     * @param initialPheromoneIntensity The initial pheromone intensity.
+     * @param qValue The Q value for pheromone update.
+     */
+    public void solve(int iterationCount, int antPerIteration, double degradationFactor,
+                      double alpha, double beta, double initialPheromoneIntensity, double qValue) {
+        ExecutorService pool = Executors.newFixedThreadPool(islands.length);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < islands.length; i++) {
+                Solver island = islands[i];
+                double[] parameters = islandParameters[i] != null ? islandParameters[i]
+                        : new double[] {degradationFactor, alpha, beta, initialPheromoneIntensity, qValue};
+                island.setMigration(transports[i], migrationInterval);
+                futures.add(pool.submit(() -> island.solve(iterationCount, antPerIteration, parameters[0],
+                        parameters[1], parameters[2], parameters[3], parameters[4])));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            cancel();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while the colonies were running", ex);
+        } catch (ExecutionException ex) {
+            cancel();
+            throw new IllegalStateException("A colony failed", ex.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Asks every colony to stop. It may be called from any thread.
+     */
+    public void cancel() {
+        for (Solver island : islands) {
+            island.cancel();
+        }
+    }
+
+    /**
+     * Gets the index of the colony with the shortest path.
+     * @return The index of the colony.
+     */
+    public int getBestIsland() {
+        int best = 0;
+        for (int i = 1; i < islands.length; i++) {
+            if (islands[i].getShortestDistance() < islands[best].getShortestDistance()) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Gets the shortest path found by any colony.
+     * @return The shortest path, or null before any colony has finished a tour.
+     */
+    public int[] getShortestPath() {
+        return islands[getBestIsland()].getShortestPath();
+    }
+
+    /**
+     * Gets the length of the shortest path found by any colony.
+     * @return The shortest distance.
+     */
+    public double getShortestDistance() {
+        return islands[getBestIsland()].getShortestDistance();
+    }
+}
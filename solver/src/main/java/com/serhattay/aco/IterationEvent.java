@@ -0,0 +1,72 @@
+package com.serhattay.aco;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A class representing the Flight Recorder event of one iteration of the colony. Its duration is the iteration,
+ * and its fields are those of {@link IterationStats}. It is only filled in while a recording has it enabled.
+ */
+@Name("com.serhattay.aco.Iteration")
+@Label("Colony Iteration")
+@Category("Ant Colony Optimization")
+@Description("One iteration of the ant colony, with its tour lengths, time split and pheromone convergence")
+@StackTrace(false)
+class IterationEvent extends Event {
+    @Label("Problem")
+    String problem;
+
+    @Label("Iteration")
+    int iteration;
+
+    @Label("Ants")
+    int antCount;
+
+    @Label("Ants per Second")
+    double antsPerSecond;
+
+    @Label("Best Length")
+    double bestLength;
+
+    @Label("Mean Length")
+    double meanLength;
+
+    @Label("Worst Length")
+    double worstLength;
+
+    @Label("Shortest Distance")
+    @Description("The shortest tour found so far in the run")
+    double shortestDistance;
+
+    @Label("Construction Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long constructionTime;
+
+    @Label("Deposit Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long depositTime;
+
+    @Label("Evaporation Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long evaporationTime;
+
+    @Label("Local Search Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long localSearchTime;
+
+    @Label("Pheromone Entropy")
+    double entropy;
+
+    @Label("Lambda-Branching Factor")
+    double branchingFactor;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocated;
+}
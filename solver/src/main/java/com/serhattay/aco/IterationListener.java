@@ -0,0 +1,12 @@
+package com.serhattay.aco;
+
+/**
+ * An interface for following the performance of a run as it goes, told about every finished iteration.
+ */
+public interface IterationListener {
+    /**
+     * Called on the thread running the colony at the end of every iteration, so it should return quickly.
+     * @param stats The telemetry of the iteration.
+     */
+    void iterationFinished(IterationStats stats);
+}
@@ -0,0 +1,198 @@
+package com.serhattay.aco;
+
+import jdk.jfr.FlightRecorder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * A class representing the telemetry counters of the iteration a solver is building.
+ * It only records while an iteration listener is set or a Flight Recorder recording has the iteration event
+ * enabled, so a run nobody watches pays for one check per iteration. The entropy and branching factor are a full
+ * pass over the pheromone matrix, which costs about as much as the bounds of the Max-Min Ant System.
+ */
+final class IterationRecorder {
+    // The lambda of the lambda-branching factor, the share of the range of a node an edge must be in to count
+    private static final double BRANCHING_LAMBDA = 0.05;
+
+    private final String problemName;
+    private boolean active;
+    private IterationEvent event;
+    private long iterationStart;
+    private long allocatedAtStart;
+    private long workerAllocatedBytes;
+    private long constructionNanos;
+    private long depositNanos;
+    private int antCount;
+    private double lengthSum;
+    private double bestLength;
+    private double worstLength;
+
+    /**
+     * Constructs a recorder for the iterations of a problem.
+     * @param problemName The name of the problem, for the Flight Recorder events.
+     */
+    IterationRecorder(String problemName) {
+        this.problemName = problemName;
+    }
+
+    /**
+     * A class holding the allocation counters of the JVM, loaded only once a recorded iteration needs them,
+     * since starting the management beans takes a noticeable part of a second.
+     */
+    private static final class Allocations {
+        private static final com.sun.management.ThreadMXBean BEAN = allocationBean();
+    }
+
+    /**
+     * Gets the allocation counters of the JVM, turning them on if they can be.
+     * @return The thread bean, or null if this JVM cannot count the bytes allocated by a thread.
+     */
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return null;
+        }
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        if (!threads.isThreadAllocatedMemorySupported()) {
+            return null;
+        }
+        if (!threads.isThreadAllocatedMemoryEnabled()) {
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+        return threads;
+    }
+
+    /**
+     * Gets the bytes allocated so far by the calling thread.
+     * @return The allocated bytes, or 0 if this JVM cannot count them.
+     */
+    static long currentThreadAllocatedBytes() {
+        return Allocations.BEAN != null ? Allocations.BEAN.getCurrentThreadAllocatedBytes() : 0L;
+    }
+
+    /**
+     * Starts recording a new iteration, if anybody is watching.
+     * @param listening True if an iteration listener is set.
+     */
+    void start(boolean listening) {
+        // Loading the first event class starts up the Flight Recorder, so only do it once a recording exists
+        event = FlightRecorder.isInitialized() ? new IterationEvent() : null;
+        active = listening || event != null && event.isEnabled();
+        if (!active) {
+            event = null;
+            return;
+        }
+        if (event != null) {
+            event.begin();
+        }
+        iterationStart = System.nanoTime();
+        allocatedAtStart = currentThreadAllocatedBytes();
+        workerAllocatedBytes = 0L;
+        constructionNanos = 0L;
+        depositNanos = 0L;
+        antCount = 0;
+        lengthSum = 0.0;
+        bestLength = Double.MAX_VALUE;
+        worstLength = 0.0;
+    }
+
+    /**
+     * Tells whether the iteration being built is recorded.
+     * @return True if the counters must be fed.
+     */
+    boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Adds time spent building tours.
+     * @param nanos The time in nanoseconds.
+     */
+    void addConstruction(long nanos) {
+        constructionNanos += nanos;
+    }
+
+    /**
+     * Adds time spent depositing pheromones.
+     * @param nanos The time in nanoseconds.
+     */
+    void addDeposit(long nanos) {
+        depositNanos += nanos;
+    }
+
+    /**
+     * Adds the bytes allocated by a worker thread while it built its tours.
+     * @param bytes The allocated bytes.
+     */
+    void addWorkerAllocation(long bytes) {
+        workerAllocatedBytes += bytes;
+    }
+
+    /**
+     * Counts the tour of one ant.
+     * @param length The length of the tour.
+     */
+    void antFinished(double length) {
+        antCount++;
+        lengthSum += length;
+        bestLength = Math.min(bestLength, length);
+        worstLength = Math.max(worstLength, length);
+    }
+
+    /**
+     * Finishes the iteration, commits its Flight Recorder event if there is one and returns its telemetry.
+     * @param iteration The iteration, counted from 0.
+     * @param runStart The time the run started, from {@link System#nanoTime}.
+     * @param evaporationNanos The time spent in the end-of-iteration update in nanoseconds.
+     * @param localSearchNanos The time spent improving the iteration-best tour in nanoseconds.
+     * @param shortestDistance The length of the shortest tour found so far.
+     * @param pheromones The pheromone matrix after the update.
+     * @return The telemetry of the iteration.
+     */
+    IterationStats finish(int iteration, long runStart, long evaporationNanos, long localSearchNanos,
+                          double shortestDistance, PheromoneMatrix pheromones) {
+        active = false;
+        double entropy = pheromones.averageEntropy();
+        double branchingFactor = pheromones.averageBranchingFactor(BRANCHING_LAMBDA);
+        long allocatedBytes = Allocations.BEAN != null
+                ? currentThreadAllocatedBytes() - allocatedAtStart + workerAllocatedBytes : -1L;
+        long now = System.nanoTime();
+        IterationStats stats = new IterationStats(iteration, antCount, now - runStart, now - iterationStart,
+                antCount > 0 ? bestLength : Double.NaN, antCount > 0 ? lengthSum / antCount : Double.NaN,
+                antCount > 0 ? worstLength : Double.NaN, shortestDistance, constructionNanos, depositNanos,
+                evaporationNanos, localSearchNanos, entropy, branchingFactor, allocatedBytes);
+
+        if (event != null) {
+            commitEvent(stats);
+        }
+        event = null;
+        return stats;
+    }
+
+    /**
+     * Fills in and commits the Flight Recorder event of the iteration if the recording wants it.
+     * @param stats The telemetry of the iteration.
+     */
+    private void commitEvent(IterationStats stats) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.problem = problemName;
+            event.iteration = stats.getIteration();
+            event.antCount = stats.getAntCount();
+            event.antsPerSecond = stats.getAntsPerSecond();
+            event.bestLength = stats.getBestLength();
+            event.meanLength = stats.getMeanLength();
+            event.worstLength = stats.getWorstLength();
+            event.shortestDistance = stats.getShortestDistance();
+            event.constructionTime = stats.getConstructionNanos();
+            event.depositTime = stats.getDepositNanos();
+            event.evaporationTime = stats.getEvaporationNanos();
+            event.localSearchTime = stats.getLocalSearchNanos();
+            event.entropy = stats.getEntropy();
+            event.branchingFactor = stats.getBranchingFactor();
+            event.allocated = stats.getAllocatedBytes();
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.serhattay.aco;
+
+/**
+ * A class representing the telemetry of one finished iteration of the colony: its speed, the lengths of the tours
+ * of its ants, where its time went and how far the pheromones have converged. It is immutable.
+ */
+public final class IterationStats {
+    private final int iteration;
+    private final int antCount;
+    private final long elapsedNanos;
+    private final long iterationNanos;
+    private final double bestLength;
+    private final double meanLength;
+    private final double worstLength;
+    private final double shortestDistance;
+    private final long constructionNanos;
+    private final long depositNanos;
+    private final long evaporationNanos;
+    private final long localSearchNanos;
+    private final double entropy;
+    private final double branchingFactor;
+    private final long allocatedBytes;
+
+    /**
+     * Constructs the telemetry of an iteration.
+     * @param iteration The iteration, counted from 0.
+     * @param antCount The number of ants that finished their tours in the iteration.
+     * @param elapsedNanos The time from the start of the run to the end of the iteration in nanoseconds.
+     * @param iterationNanos The time the iteration took in nanoseconds.
+     * @param bestLength The length of the shortest tour of the iteration.
+     * @param meanLength The mean length of the tours of the iteration.
+     * @param worstLength The length of the longest tour of the iteration.
+     * @param shortestDistance The length of the shortest tour found so far in the run.
+     * @param constructionNanos The time spent building tours in nanoseconds.
+     * @param depositNanos The time spent depositing the pheromones of each ant in nanoseconds.
+     * @param evaporationNanos The time spent in the end-of-iteration update in nanoseconds.
+     * @param localSearchNanos The time spent improving the iteration-best tour in nanoseconds.
+     * @param entropy The normalised pheromone entropy.
+     * @param branchingFactor The average lambda-branching factor.
+     * @param allocatedBytes The bytes allocated by the iteration, or -1 if the JVM cannot tell.
+     */
+    IterationStats(int iteration, int antCount, long elapsedNanos, long iterationNanos,
+                   double bestLength, double meanLength, double worstLength, double shortestDistance,
+                   long constructionNanos, long depositNanos, long evaporationNanos, long localSearchNanos,
+                   double entropy, double branchingFactor, long allocatedBytes) {
+        this.iteration = iteration;
+        this.antCount = antCount;
+        this.elapsedNanos = elapsedNanos;
+        this.iterationNanos = iterationNanos;
+        this.bestLength = bestLength;
+        this.meanLength = meanLength;
+        this.worstLength = worstLength;
+        this.shortestDistance = shortestDistance;
+        this.constructionNanos = constructionNanos;
+        this.depositNanos = depositNanos;
+        this.evaporationNanos = evaporationNanos;
+        this.localSearchNanos = localSearchNanos;
+        this.entropy = entropy;
+        this.branchingFactor = branchingFactor;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * Gets the iteration.
+     * @return The iteration, counted from 0.
+     */
+    public int getIteration() {
+        return iteration;
+    }
+
+    /**
+     * Gets the number of ants that finished their tours in the iteration.
+     * @return The number of ants.
+     */
+    public int getAntCount() {
+        return antCount;
+    }
+
+    /**
+     * Gets the time from the start of the run, including setting up the colony, to the end of the iteration.
+     * @return The elapsed time in nanoseconds.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Gets the time the whole iteration took.
+     * @return The time in nanoseconds.
+     */
+    public long getIterationNanos() {
+        return iterationNanos;
+    }
+
+    /**
+     * Gets the number of tours built per second of the iteration.
+     * @return The ants per second.
+     */
+    public double getAntsPerSecond() {
+        return iterationNanos > 0 ? antCount * 1e9 / iterationNanos : 0.0;
+    }
+
+    /**
+     * Gets the length of the shortest tour built by an ant of the iteration.
+     * @return The length, before the local search of the iteration-best tour.
+     */
+    public double getBestLength() {
+        return bestLength;
+    }
+
+    /**
+     * Gets the mean length of the tours built by the ants of the iteration.
+     * @return The mean length.
+     */
+    public double getMeanLength() {
+        return meanLength;
+    }
+
+    /**
+     * Gets the length of the longest tour built by an ant of the iteration.
+     * @return The length.
+     */
+    public double getWorstLength() {
+        return worstLength;
+    }
+
+    /**
+     * Gets the length of the shortest tour found so far in the run.
+     * @return The shortest distance.
+     */
+    public double getShortestDistance() {
+        return shortestDistance;
+    }
+
+    /**
+     * Gets the time spent building tours, including the local search of every tour and the local pheromone updates
+     * of the sequential colony. With more than one thread it is the wall-clock time until every worker was done.
+     * @return The time in nanoseconds.
+     */
+    public long getConstructionNanos() {
+        return constructionNanos;
+    }
+
+    /**
+     * Gets the time spent handing every finished tour to the update rule, which is where the Ant System deposits,
+     * and with more than one thread also the deferred local pheromone updates.
+     * @return The time in nanoseconds.
+     */
+    public long getDepositNanos() {
+        return depositNanos;
+    }
+
+    /**
+     * Gets the time spent in the end-of-iteration update of the rule: the evaporation, the best tour deposit and
+     * the bounds of the Max-Min Ant System, the global update of the Ant Colony System, and any restart.
+     * @return The time in nanoseconds.
+     */
+    public long getEvaporationNanos() {
+        return evaporationNanos;
+    }
+
+    /**
+     * Gets the time spent improving the iteration-best tour with the local search.
+     * @return The time in nanoseconds, 0 unless only the iteration-best tour is improved.
+     */
+    public long getLocalSearchNanos() {
+        return localSearchNanos;
+    }
+
+    /**
+     * Gets the entropy of the pheromone intensities of the edges of every node, averaged over the nodes and
+     * normalised so that 1 means all edges of a node are equally strong and 0 means all pheromone is on one edge.
+     * It falls as the colony converges.
+     * @return The normalised entropy.
+     */
+    public double getEntropy() {
+        return entropy;
+    }
+
+    /**
+     * Gets the lambda-branching factor: the number of edges per node whose pheromone intensity is within
+     * the top 95 percent of the range of that node, averaged over the nodes. Near 2 the colony has stagnated.
+     * @return The average branching factor.
+     */
+    public double getBranchingFactor() {
+        return branchingFactor;
+    }
+
+    /**
+     * Gets the bytes allocated on the heap during the iteration by the thread running the colony and its workers.
+     * @return The allocated bytes, or -1 if the JVM cannot measure them.
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+}
@@ -0,0 +1,354 @@
+package com.serhattay.aco;
+
+/**
+ * A class representing a two-dimensional k-d tree over the node coordinates, used to find the nearest neighbours of a node
+ * without comparing it against every other node.
+ */
+public class KdTree {
+    private final double[] x;
+    private final double[] y;
+    private final int[] order;
+
+    // Number of nodes in the subtree rooted at every index of the order array, built on the first tracker
+    private int[] subtreeSizes;
+    // Index of every node in the order array
+    private int[] positions;
+
+    // Scratch state of the current nearest neighbour query
+    private int[] heapNodes;
+    private double[] heapDistances;
+    private int heapSize;
+
+    /**
+     * Constructs a k-d tree over the given coordinates.
+     * The tree is implicit: every range of the order array is a subtree whose median element is its root.
+     * @param x The x-coordinates of the nodes.
+     * @param y The y-coordinates of the nodes.
+     */
+    KdTree(double[] x, double[] y) {
+        this.x = x;
+        this.y = y;
+        order = new int[x.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        build(0, order.length, 0);
+    }
+
+    /**
+     * Builds the list of the k nearest neighbours of every node, each list sorted by increasing distance.
+     * @param k The number of neighbours to keep per node.
+     * @return The neighbour lists, indexed by node.
+     */
+    public int[][] nearestNeighbourLists(int k) {
+        int[][] neighbourLists = new int[x.length][];
+        for (int i = 0; i < x.length; i++) {
+            neighbourLists[i] = nearestNeighbours(i, k);
+        }
+        return neighbourLists;
+    }
+
+    /**
+     * Finds the k nearest neighbours of a node.
+     * @param node The node to search around; it is never part of its own result.
+     * @param k The number of neighbours to find.
+     * @return The neighbours sorted by increasing distance.
+     */
+    public int[] nearestNeighbours(int node, int k) {
+        k = Math.min(k, x.length - 1);
+        if (heapNodes == null || heapNodes.length < k) {
+            heapNodes = new int[k];
+            heapDistances = new double[k];
+        }
+        heapSize = 0;
+        if (k > 0) {
+            search(node, k, 0, order.length, 0);
+        }
+
+        // Pop the max-heap from the back to get the neighbours in increasing distance
+        int[] neighbours = new int[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            neighbours[i] = heapNodes[0];
+            removeFarthest();
+        }
+        return neighbours;
+    }
+
+    /**
+     * Creates a tracker of the nodes a tour has not visited yet, which finds the nearest of them without looking
+     * at every node. Every tracker has its own state, so the ants of a parallel colony may each use one.
+     * @return The tracker, with every node unvisited.
+     */
+    Unvisited trackUnvisited() {
+        if (subtreeSizes == null) {
+            int[] sizes = new int[order.length];
+            int[] nodePositions = new int[order.length];
+            countSubtrees(sizes, 0, order.length);
+            for (int i = 0; i < order.length; i++) {
+                nodePositions[order[i]] = i;
+            }
+            subtreeSizes = sizes;
+            positions = nodePositions;
+        }
+        return new Unvisited();
+    }
+
+    /**
+     * Stores the size of every subtree of a range at the index of its root.
+     * @param sizes The subtree sizes, indexed like the order array.
+     * @param low The first index of the range.
+     * @param high The index after the last one of the range.
+     */
+    private static void countSubtrees(int[] sizes, int low, int high) {
+        if (low >= high) {
+            return;
+        }
+        int middle = (low + high) >>> 1;
+        sizes[middle] = high - low;
+        countSubtrees(sizes, low, middle);
+        countSubtrees(sizes, middle + 1, high);
+    }
+
+    /**
+     * A class representing the nodes a tour has not visited yet, as the number of unvisited nodes left in every
+     * subtree of the k-d tree. Subtrees with none left are skipped by the nearest node search, so the search stays
+     * close to logarithmic until the tour has visited most of the nodes.
+     */
+    final class Unvisited {
+        private final int[] remaining = new int[order.length];
+        private boolean[] visited;
+        private int nearestNode;
+        private double nearestDistance;
+
+        /**
+         * Constructs a tracker with every node unvisited.
+         */
+        private Unvisited() {
+            reset(null);
+        }
+
+        /**
+         * Marks every node unvisited again, for a new tour.
+         * @param visited The visited flags of the tour, all false, which the tour keeps setting as it goes.
+         */
+        void reset(boolean[] visited) {
+            this.visited = visited;
+            System.arraycopy(subtreeSizes, 0, remaining, 0, remaining.length);
+        }
+
+        /**
+         * Marks a node visited. Each node must be marked only once per tour.
+         * @param node The node.
+         */
+        void visit(int node) {
+            int position = positions[node];
+            int low = 0;
+            int high = order.length;
+            while (true) {
+                int middle = (low + high) >>> 1;
+                remaining[middle]--;
+                if (middle == position) {
+                    return;
+                }
+                if (position < middle) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+        }
+
+        /**
+         * Finds the unvisited node nearest to a node by coordinates.
+         * @param node The node to search around.
+         * @return The nearest unvisited node, or -1 if every node is visited.
+         */
+        int nearest(int node) {
+            nearestNode = -1;
+            nearestDistance = Double.MAX_VALUE;
+            search(node, 0, order.length, 0);
+            return nearestNode;
+        }
+
+        /**
+         * Searches one subtree for an unvisited node closer than the nearest one found so far.
+         * @param node The node to search around.
+         * @param low The first index of the subtree in the order array.
+         * @param high The index after the last one of the subtree.
+         * @param depth The depth of the subtree, deciding the splitting axis.
+         */
+        private void search(int node, int low, int high, int depth) {
+            if (low >= high) {
+                return;
+            }
+            int middle = (low + high) >>> 1;
+            if (remaining[middle] == 0) {
+                return;
+            }
+            int candidate = order[middle];
+            double dx = x[node] - x[candidate];
+            double dy = y[node] - y[candidate];
+            if (!visited[candidate] && dx * dx + dy * dy < nearestDistance) {
+                nearestNode = candidate;
+                nearestDistance = dx * dx + dy * dy;
+            }
+
+            double difference = (depth & 1) == 0 ? dx : dy;
+            if (difference < 0) {
+                search(node, low, middle, depth + 1);
+                if (difference * difference < nearestDistance) {
+                    search(node, middle + 1, high, depth + 1);
+                }
+            } else {
+                search(node, middle + 1, high, depth + 1);
+                if (difference * difference < nearestDistance) {
+                    search(node, low, middle, depth + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Searches one subtree for neighbours closer than the farthest one found so far.
+     * @param node The node to search around.
+     * @param k The number of neighbours to find.
+     * @param low The first index of the subtree in the order array.
+     * @param high The index after the last one of the subtree.
+     * @param depth The depth of the subtree, deciding the splitting axis.
+     */
+    private void search(int node, int k, int low, int high, int depth) {
+        if (low >= high) {
+            return;
+        }
+        int middle = (low + high) >>> 1;
+        int candidate = order[middle];
+        if (candidate != node) {
+            double dx = x[node] - x[candidate];
+            double dy = y[node] - y[candidate];
+            offer(candidate, dx * dx + dy * dy, k);
+        }
+
+        double difference = (depth & 1) == 0 ? x[node] - x[candidate] : y[node] - y[candidate];
+        if (difference < 0) {
+            search(node, k, low, middle, depth + 1);
+            if (heapSize < k || difference * difference < heapDistances[0]) {
+                search(node, k, middle + 1, high, depth + 1);
+            }
+        } else {
+            search(node, k, middle + 1, high, depth + 1);
+            if (heapSize < k || difference * difference < heapDistances[0]) {
+                search(node, k, low, middle, depth + 1);
+            }
+        }
+    }
+
+    /**
+     * Offers a node to the bounded max-heap of the current query.
+     * @param candidate The candidate node.
+     * @param squaredDistance The squared distance of the candidate to the query node.
+     * @param k The capacity of the heap.
+     */
+    private void offer(int candidate, double squaredDistance, int k) {
+        if (heapSize < k) {
+            int i = heapSize++;
+            while (i > 0 && heapDistances[(i - 1) / 2] < squaredDistance) {
+                heapNodes[i] = heapNodes[(i - 1) / 2];
+                heapDistances[i] = heapDistances[(i - 1) / 2];
+                i = (i - 1) / 2;
+            }
+            heapNodes[i] = candidate;
+            heapDistances[i] = squaredDistance;
+        } else if (squaredDistance < heapDistances[0]) {
+            siftDown(candidate, squaredDistance, heapSize);
+        }
+    }
+
+    /**
+     * Removes the farthest node from the max-heap of the current query.
+     */
+    private void removeFarthest() {
+        heapSize--;
+        if (heapSize > 0) {
+            siftDown(heapNodes[heapSize], heapDistances[heapSize], heapSize);
+        }
+    }
+
+    /**
+     * Places a node at the root of the max-heap and sifts it down to its position.
+     * @param candidate The node to place.
+     * @param squaredDistance The squared distance of the node.
+     * @param size The number of elements in the heap.
+     */
+    private void siftDown(int candidate, double squaredDistance, int size) {
+        int i = 0;
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heapDistances[child + 1] > heapDistances[child]) {
+                child++;
+            }
+            if (heapDistances[child] <= squaredDistance) {
+                break;
+            }
+            heapNodes[i] = heapNodes[child];
+            heapDistances[i] = heapDistances[child];
+            i = child;
+        }
+        heapNodes[i] = candidate;
+        heapDistances[i] = squaredDistance;
+    }
+
+    /**
+     * Recursively arranges a range of the order array so that its median splits it along the axis of the depth.
+     * @param low The first index of the range.
+     * @param high The index after the last one of the range.
+     * @param depth The depth of the range in the tree.
+     */
+    private void build(int low, int high, int depth) {
+        if (high - low <= 1) {
+            return;
+        }
+        int middle = (low + high) >>> 1;
+        select(order, low, high - 1, middle, (depth & 1) == 0 ? x : y);
+        build(low, middle, depth + 1);
+        build(middle + 1, high, depth + 1);
+    }
+
+    /**
+     * Partially sorts a range of an array of nodes by a coordinate so that the k-th element is in place
+     * (quickselect).
+     * @param order The nodes.
+     * @param left The first index of the range.
+     * @param right The last index of the range.
+     * @param k The index to put in place.
+     * @param coordinates The coordinates to compare.
+     */
+    static void select(int[] order, int left, int right, int k, double[] coordinates) {
+        while (left < right) {
+            double pivot = coordinates[order[(left + right) >>> 1]];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (coordinates[order[i]] < pivot) {
+                    i++;
+                }
+                while (coordinates[order[j]] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    int temp = order[i];
+                    order[i] = order[j];
+                    order[j] = temp;
+                    i++;
+                    j--;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.serhattay.aco;
+
+import javax.swing.JFrame;
+import javax.swing.JPanel;
+import javax.swing.SwingUtilities;
+import javax.swing.WindowConstants;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.GraphicsEnvironment;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A class representing a window that shows the colony while it runs.
+ * The solver hands over immutable snapshots, at most at the frame rate, through a single reference that the
+ * render thread swaps out; a snapshot the render thread has not picked up yet is simply replaced by the newer one.
+ * Publishing is one atomic write, so the solver never waits for drawing.
+ */
+public class LiveRenderer {
+    private final long frameIntervalNanos;
+    private final int topEdges;
+    private final int width;
+    private final int height;
+    private final AtomicReference<RenderSnapshot> pending = new AtomicReference<>();
+    private final Thread renderThread;
+    private volatile BufferedImage image;
+    private volatile boolean finished;
+    private JPanel panel;
+    // Only touched by the thread publishing snapshots
+    private long nextFrameTime;
+
+    /**
+     * Constructs a live renderer, without opening its window yet.
+     * @param framesPerSecond The most frames drawn per second.
+     * @param topEdges The number of strongest pheromone edges drawn per node.
+     * @param width The width of the window in pixels.
+     * @param height The height of the window in pixels.
+     */
+    public LiveRenderer(int framesPerSecond, int topEdges, int width, int height) {
+        if (framesPerSecond < 1) {
+            throw new IllegalArgumentException("The frame rate must be at least 1, got " + framesPerSecond);
+        }
+        if (topEdges < 0) {
+            throw new IllegalArgumentException("The number of edges per node cannot be negative, got " + topEdges);
+        }
+        if (GraphicsEnvironment.isHeadless()) {
+            throw new IllegalStateException("Live rendering needs a display, use the headless or PNG mode instead");
+        }
+        this.frameIntervalNanos = TimeUnit.SECONDS.toNanos(1) / framesPerSecond;
+        this.topEdges = topEdges;
+        this.width = width;
+        this.height = height;
+        renderThread = new Thread(this::renderLoop, "aco-live-renderer");
+        renderThread.setDaemon(true);
+    }
+
+    /**
+     * Opens the window and starts the render thread.
+     */
+    public void start() {
+        SwingUtilities.invokeLater(() -> {
+            panel = new JPanel() {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected void paintComponent(Graphics g) {
+                    super.paintComponent(g);
+                    BufferedImage current = image;
+                    if (current != null) {
+                        g.drawImage(current, 0, 0, null);
+                    }
+                }
+            };
+            panel.setPreferredSize(new Dimension(width, height));
+            JFrame frame = new JFrame("Ant Colony Optimization");
+            frame.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+            frame.setResizable(false);
+            frame.setContentPane(panel);
+            frame.pack();
+            frame.setVisible(true);
+        });
+        renderThread.start();
+    }
+
+    /**
+     * Checks whether the next frame is due, and if so starts the wait for the one after it.
+     * The solver calls this after every iteration and only takes a snapshot when it returns true.
+     * @return True if a snapshot should be published now.
+     */
+    boolean isFrameDue() {
+        long now = System.nanoTime();
+        if (now - nextFrameTime < 0) {
+            return false;
+        }
+        nextFrameTime = now + frameIntervalNanos;
+        return true;
+    }
+
+    /**
+     * Hands a snapshot to the render thread, replacing any snapshot it has not drawn yet.
+     * @param snapshot The snapshot to draw.
+     */
+    void publish(RenderSnapshot snapshot) {
+        pending.set(snapshot);
+    }
+
+    /**
+     * Gets the number of strongest pheromone edges drawn per node.
+     * @return The number of edges per node.
+     */
+    int getTopEdges() {
+        return topEdges;
+    }
+
+    /**
+     * Draws a last snapshot and stops the render thread once it is drawn. The window stays open until it is closed.
+     * @param snapshot The final snapshot.
+     */
+    public void finish(RenderSnapshot snapshot) {
+        pending.set(snapshot);
+        finished = true;
+        renderThread.interrupt();
+    }
+
+    /**
+     * Draws the newest snapshot, if there is one, once per frame interval until the renderer is finished.
+     */
+    private void renderLoop() {
+        while (true) {
+            boolean last = finished;
+            RenderSnapshot snapshot = pending.getAndSet(null);
+            if (snapshot != null) {
+                image = SnapshotPainter.paint(snapshot, width, height, true, true);
+                SwingUtilities.invokeLater(() -> {
+                    if (panel != null) {
+                        panel.repaint();
+                    }
+                });
+            }
+            if (last) {
+                return;
+            }
+            try {
+                TimeUnit.NANOSECONDS.sleep(frameIntervalNanos);
+            } catch (InterruptedException ex) {
+                // Woken up by finish, draw the final snapshot on the next pass
+            }
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.serhattay.aco;
+
+/**
+ * A class representing a 2-opt and Or-opt local search that improves a tour in place.
+ * Moves are only tried towards the nearest neighbours of a node, and nodes whose neighbourhood did not yield
+ * an improving move get their don't-look bit set until one of their edges changes, so a pass over the tour
+ * costs about O(n * k) evaluations instead of O(n^2).
+ */
+public class LocalSearch {
+    // Longest segment moved by Or-opt
+    private static final int MAX_SEGMENT_LENGTH = 3;
+    // Smallest gain counted as an improvement, guarding against rounding loops
+    private static final double EPSILON = 1e-10;
+
+    private final SymmetricMatrix distances;
+    private final int[][] neighbourLists;
+    private final int numberOfNodes;
+    private final int[] positions;
+    private final boolean[] dontLook;
+    private final int[] queue;
+    private final int[] segment = new int[MAX_SEGMENT_LENGTH];
+    private int[] tour;
+    private int queueHead;
+    private int queueSize;
+
+    /**
+     * Constructs a local search with its own scratch buffers, so every ant can own one.
+     * @param distances The distances between the nodes.
+     * @param neighbourLists The nearest neighbours of every node, sorted by increasing distance.
+     */
+    LocalSearch(SymmetricMatrix distances, int[][] neighbourLists) {
+        this.distances = distances;
+        this.neighbourLists = neighbourLists;
+        numberOfNodes = distances.size();
+        positions = new int[numberOfNodes];
+        dontLook = new boolean[numberOfNodes];
+        queue = new int[numberOfNodes];
+    }
+
+    /**
+     * Improves a tour with 2-opt and Or-opt moves until no improving move is left.
+     * @param tour The tour to improve, modified in place.
+     * @param tourLength The length of the tour.
+     * @return The length of the improved tour.
+     */
+    public double improve(int[] tour, double tourLength) {
+        return improve(tour, tourLength, null);
+    }
+
+    /**
+     * Improves a tour with 2-opt and Or-opt moves until no improving move is left, looking only around some nodes
+     * at first. The other nodes are only looked at once one of their edges changes, so a tour that is already good
+     * away from those nodes, such as stitched sub-tours around their seams, is repaired without a pass over it.
+     * @param tour The tour to improve, modified in place.
+     * @param tourLength The length of the tour.
+     * @param startNodes The nodes to look at first, or null for every node.
+     * @return The length of the improved tour.
+     */
+    double improve(int[] tour, double tourLength, int[] startNodes) {
+        if (numberOfNodes < 2 * MAX_SEGMENT_LENGTH) {
+            return tourLength;
+        }
+        this.tour = tour;
+        queueHead = 0;
+        queueSize = 0;
+        for (int i = 0; i < numberOfNodes; i++) {
+            positions[tour[i]] = i;
+            dontLook[tour[i]] = true;
+        }
+        for (int i = 0; i < (startNodes != null ? startNodes.length : numberOfNodes); i++) {
+            activate(startNodes != null ? startNodes[i] : tour[i]);
+        }
+
+        while (queueSize > 0) {
+            int node = queue[queueHead];
+            queueHead = (queueHead + 1) % numberOfNodes;
+            queueSize--;
+            dontLook[node] = true;
+
+            // Every applied move queues the endpoints of the changed edges again, this node included
+            double gain = tryTwoOpt(node);
+            if (gain <= 0.0) {
+                gain = tryOrOpt(node);
+            }
+            tourLength -= gain;
+        }
+        this.tour = null;
+        return tourLength;
+    }
+
+    /**
+     * Tries the 2-opt moves that connect a node to one of its nearest neighbours and applies the first improving one.
+     * @param a The node to improve around.
+     * @return The gain of the applied move, or 0 if there was none.
+     */
+    private double tryTwoOpt(int a) {
+        for (int direction = 0; direction < 2; direction++) {
+            boolean forward = direction == 0;
+            int b = forward ? next(a) : previous(a);
+            double removedAB = distances.get(a, b);
+
+            for (int c : neighbourLists[a]) {
+                double addedAC = distances.get(a, c);
+                if (addedAC >= removedAB) {
+                    break;
+                }
+                int d = forward ? next(c) : previous(c);
+                if (c == b || d == a) {
+                    continue;
+                }
+                double gain = removedAB + distances.get(c, d) - addedAC - distances.get(b, d);
+                if (gain > EPSILON) {
+                    // Replace edges (a, b) and (c, d) by (a, c) and (b, d)
+                    if (forward) {
+                        reversePath(b, c);
+                    } else {
+                        reversePath(c, b);
+                    }
+                    activate(a);
+                    activate(b);
+                    activate(c);
+                    activate(d);
+                    return gain;
+                }
+            }
+        }
+        return 0.0;
+    }
+
+    /**
+     * Tries to move a segment of up to three nodes starting or ending at a node next to one of the nearest
+     * neighbours of that node, in either orientation, and applies the first improving move.
+     * @param a The node to improve around.
+     * @return The gain of the applied move, or 0 if there was none.
+     */
+    private double tryOrOpt(int a) {
+        for (int length = 1; length <= MAX_SEGMENT_LENGTH; length++) {
+            for (int side = 0; side < 2; side++) {
+                int start = side == 0 ? positions[a] : (positions[a] - length + 1 + numberOfNodes) % numberOfNodes;
+                int first = tour[start];
+                int last = tour[(start + length - 1) % numberOfNodes];
+                int before = tour[(start - 1 + numberOfNodes) % numberOfNodes];
+                int after = tour[(start + length) % numberOfNodes];
+                double removeGain = distances.get(before, first) + distances.get(last, after)
+                        - distances.get(before, after);
+                if (removeGain <= EPSILON) {
+                    continue;
+                }
+
+                for (int c : neighbourLists[a]) {
+                    if (distances.get(a, c) >= removeGain) {
+                        break;
+                    }
+                    if (isInSegment(c, start, length)) {
+                        continue;
+                    }
+                    // Insert between c and the node after it, or between the node before it and c
+                    for (int edge = 0; edge < 2; edge++) {
+                        int u = edge == 0 ? c : previous(c);
+                        int v = edge == 0 ? next(c) : c;
+                        if (isInSegment(u, start, length) || isInSegment(v, start, length)) {
+                            continue;
+                        }
+                        double keptOrientation = distances.get(u, first) + distances.get(last, v);
+                        double reversedOrientation = distances.get(u, last) + distances.get(first, v);
+                        boolean reversed = reversedOrientation < keptOrientation;
+                        double gain = removeGain + distances.get(u, v)
+                                - Math.min(keptOrientation, reversedOrientation);
+                        if (gain > EPSILON) {
+                            moveSegment(start, length, u, reversed);
+                            activate(before);
+                            activate(after);
+                            activate(first);
+                            activate(last);
+                            activate(u);
+                            activate(v);
+                            return gain;
+                        }
+                    }
+                }
+            }
+        }
+        return 0.0;
+    }
+
+    /**
+     * Moves a segment so that it sits between a node and the node after it.
+     * The segment is carried past whichever of the two blocks between it and its new place is shorter.
+     * @param start The position of the first node of the segment.
+     * @param length The number of nodes in the segment.
+     * @param u The node the segment goes after.
+     * @param reversed True to insert the segment in reversed orientation.
+     */
+    private void moveSegment(int start, int length, int u, boolean reversed) {
+        for (int i = 0; i < length; i++) {
+            segment[i] = tour[(start + i) % numberOfNodes];
+        }
+        int forwardBlock = (positions[u] - (start + length) + 2 * numberOfNodes) % numberOfNodes + 1;
+        int backwardBlock = numberOfNodes - length - forwardBlock;
+
+        int segmentStart;
+        if (forwardBlock <= backwardBlock) {
+            // Shift the block after the segment back and put the segment behind it
+            for (int i = 0; i < forwardBlock; i++) {
+                place(tour[(start + length + i) % numberOfNodes], (start + i) % numberOfNodes);
+            }
+            segmentStart = (start + forwardBlock) % numberOfNodes;
+        } else {
+            // Shift the block before the segment forward and put the segment in front of it
+            for (int i = 1; i <= backwardBlock; i++) {
+                int from = (start - i + numberOfNodes) % numberOfNodes;
+                place(tour[from], (from + length) % numberOfNodes);
+            }
+            segmentStart = (start - backwardBlock + numberOfNodes) % numberOfNodes;
+        }
+        for (int i = 0; i < length; i++) {
+            place(segment[reversed ? length - 1 - i : i], (segmentStart + i) % numberOfNodes);
+        }
+    }
+
+    /**
+     * Reverses the path going forward from one node to another, or the rest of the tour if that is shorter,
+     * which gives the same cycle walked in the other direction.
+     * @param from The first node of the path.
+     * @param to The last node of the path.
+     */
+    private void reversePath(int from, int to) {
+        int i = positions[from];
+        int j = positions[to];
+        int length = (j - i + numberOfNodes) % numberOfNodes + 1;
+        if (2 * length > numberOfNodes) {
+            int complementStart = (j + 1) % numberOfNodes;
+            j = (i - 1 + numberOfNodes) % numberOfNodes;
+            i = complementStart;
+            length = numberOfNodes - length;
+        }
+        for (int k = 0; k < length / 2; k++) {
+            int left = tour[i];
+            int right = tour[j];
+            place(right, i);
+            place(left, j);
+            i = (i + 1) % numberOfNodes;
+            j = (j - 1 + numberOfNodes) % numberOfNodes;
+        }
+    }
+
+    /**
+     * Tells whether a node lies inside a segment of the tour.
+     * @param node The node.
+     * @param start The position of the first node of the segment.
+     * @param length The number of nodes in the segment.
+     * @return True if the node is in the segment.
+     */
+    private boolean isInSegment(int node, int start, int length) {
+        return (positions[node] - start + numberOfNodes) % numberOfNodes < length;
+    }
+
+    /**
+     * Writes a node at a position of the tour.
+     * @param node The node.
+     * @param position The position.
+     */
+    private void place(int node, int position) {
+        tour[position] = node;
+        positions[node] = position;
+    }
+
+    /**
+     * Clears the don't-look bit of a node and queues it for another look.
+     * @param node The node.
+     */
+    private void activate(int node) {
+        if (dontLook[node]) {
+            dontLook[node] = false;
+            queue[(queueHead + queueSize) % numberOfNodes] = node;
+            queueSize++;
+        }
+    }
+
+    /**
+     * Gets the node after a node in the tour.
+     * @param node The node.
+     * @return The next node.
+     */
+    private int next(int node) {
+        return tour[(positions[node] + 1) % numberOfNodes];
+    }
+
+    /**
+     * Gets the node before a node in the tour.
+     * @param node The node.
+     * @return The previous node.
+     */
+    private int previous(int node) {
+        return tour[(positions[node] - 1 + numberOfNodes) % numberOfNodes];
+    }
+}
@@ -0,0 +1,83 @@
+package com.serhattay.aco;
+
+/**
+ * A class representing the ways the distance and pheromone matrices are kept in memory.
+ * Both matrices are symmetric, so the packed layouts keep only one triangle of them in a flat array,
+ * which halves the memory and keeps the edges of a node close together.
+ */
+public enum MatrixStorage {
+    /** Full double[n][n] matrices, the fastest rows and the most memory. */
+    FULL,
+    /** One triangle of doubles for every matrix: half the memory, and the same tours as FULL. */
+    PACKED,
+    /**
+     * One triangle with float pheromone trails, whole-number distances for the TSPLIB distance types and heuristic
+     * values calculated when needed instead of cached: about a quarter of the memory of FULL. The tours differ
+     * slightly from FULL, since the trails are rounded to floats.
+     */
+    COMPACT,
+    /**
+     * No matrix at all, for instances of hundreds of thousands of nodes: distances calculated from the coordinates
+     * with a small cache of the edges read last, and pheromone trails, heuristic values and choice info stored only
+     * for the candidate edges of every node. Every other edge keeps the trail all edges started with. Needs
+     * candidate lists, 10 per node unless set; the tours differ from FULL.
+     */
+    MATRIX_FREE;
+
+    /**
+     * Creates an empty distance matrix in this storage. The matrix-free storage keeps no distance matrix and is
+     * created by {@link Problem} from the coordinates instead.
+     * @param numberOfNodes The number of nodes.
+     * @param distanceType How the distances are calculated, deciding whether they can be stored as integers.
+     * @return The distance matrix.
+     * @throws IllegalStateException For the matrix-free storage.
+     */
+    StoredMatrix createDistances(int numberOfNodes, DistanceType distanceType) {
+        if (this == MATRIX_FREE) {
+            throw new IllegalStateException("The matrix-free storage keeps no distance matrix");
+        }
+        if (this == FULL) {
+            return new FullMatrix(numberOfNodes);
+        }
+        return this == COMPACT && distanceType.isRounded()
+                ? new PackedMatrix.Integers(numberOfNodes) : new PackedMatrix.Doubles(numberOfNodes);
+    }
+
+    /**
+     * Creates an empty matrix of pheromone trails in this storage.
+     * @param numberOfNodes The number of nodes.
+     * @param storedEdges The edges the matrix-free storage stores for every node, ignored by the others.
+     * @return The trail matrix.
+     */
+    StoredMatrix createTrails(int numberOfNodes, int[][] storedEdges) {
+        if (this == MATRIX_FREE) {
+            return new CandidateMatrix(storedEdges, 0.0);
+        }
+        if (this == FULL) {
+            return new FullMatrix(numberOfNodes);
+        }
+        return this == COMPACT ? new PackedMatrix.Floats(numberOfNodes) : new PackedMatrix.Doubles(numberOfNodes);
+    }
+
+    /**
+     * Creates an empty matrix of doubles in this storage, for the cached choice info and heuristic values.
+     * The matrix-free storage leaves the edges it does not store at NaN, to be calculated when needed.
+     * @param numberOfNodes The number of nodes.
+     * @param storedEdges The edges the matrix-free storage stores for every node, ignored by the others.
+     * @return The matrix.
+     */
+    StoredMatrix createValues(int numberOfNodes, int[][] storedEdges) {
+        if (this == MATRIX_FREE) {
+            return new CandidateMatrix(storedEdges, Double.NaN);
+        }
+        return this == FULL ? new FullMatrix(numberOfNodes) : new PackedMatrix.Doubles(numberOfNodes);
+    }
+
+    /**
+     * Tells whether the heuristic values of the edges are cached or calculated from the distances when needed.
+     * @return True if the pheromone matrix keeps a matrix of heuristic values.
+     */
+    boolean cachesHeuristicValues() {
+        return this != COMPACT;
+    }
+}
@@ -0,0 +1,76 @@
+package com.serhattay.aco;
+
+/**
+ * A class representing the Max-Min Ant System update rule: only the iteration-best or the best-so-far ant deposits,
+ * and every intensity is kept between a lower and an upper bound so that no edge is ever ruled out.
+ */
+public class MaxMinAntSystem implements PheromoneStrategy {
+    // Probability of the best tour being rebuilt once the colony has converged, fixing the lower bound
+    private static final double BEST_TOUR_PROBABILITY = 0.05;
+
+    private final double degradationFactor;
+    private final double qValue;
+    private final boolean bestSoFarDeposit;
+    private int numberOfNodes;
+    private double maxIntensity;
+    private double minIntensity;
+
+    /**
+     * Constructs the Max-Min Ant System update rule.
+     * @param degradationFactor The factor every intensity is multiplied by at the end of an iteration.
+     * @param qValue The Q value for pheromone update.
+     * @param bestSoFarDeposit True to let the best-so-far ant deposit, false for the iteration-best ant.
+     */
+    public MaxMinAntSystem(double degradationFactor, double qValue, boolean bestSoFarDeposit) {
+        this.degradationFactor = degradationFactor;
+        this.qValue = qValue;
+        this.bestSoFarDeposit = bestSoFarDeposit;
+    }
+
+    @Override
+    public void initialize(PheromoneMatrix pheromones, Problem problem) {
+        numberOfNodes = problem.getNumberOfNodes();
+        updateBounds(PheromoneStrategy.nearestNeighbourTourLength(problem));
+        pheromones.reset(maxIntensity);
+    }
+
+    @Override
+    public void reinitialize(PheromoneMatrix pheromones) {
+        pheromones.reset(maxIntensity);
+    }
+
+    @Override
+    public void nodeChanged(PheromoneMatrix pheromones, Problem problem, int node) {
+        numberOfNodes = problem.getNumberOfNodes();
+        pheromones.setNodeIntensity(node, maxIntensity);
+    }
+
+    @Override
+    public void nodeRemoved(PheromoneMatrix pheromones, Problem problem) {
+        numberOfNodes = problem.getNumberOfNodes();
+    }
+
+    @Override
+    public void iterationFinished(PheromoneMatrix pheromones, int[] iterationBestTour, double iterationBestLength,
+                                  int[] bestTour, double bestLength) {
+        updateBounds(bestLength);
+        pheromones.evaporate(degradationFactor);
+        if (bestSoFarDeposit) {
+            PheromoneStrategy.depositOnTour(pheromones, bestTour, qValue / bestLength);
+        } else {
+            PheromoneStrategy.depositOnTour(pheromones, iterationBestTour, qValue / iterationBestLength);
+        }
+        pheromones.clamp(minIntensity, maxIntensity);
+    }
+
+    /**
+     * Derives the pheromone bounds from the length of the best tour known.
+     * @param bestLength The length of the best tour known.
+     */
+    private void updateBounds(double bestLength) {
+        maxIntensity = qValue / ((1.0 - degradationFactor) * bestLength);
+        double root = Math.pow(BEST_TOUR_PROBABILITY, 1.0 / numberOfNodes);
+        double averageChoices = Math.max(numberOfNodes / 2.0 - 1.0, 1.0);
+        minIntensity = Math.min(maxIntensity * (1.0 - root) / (averageChoices * root), maxIntensity);
+    }
+}
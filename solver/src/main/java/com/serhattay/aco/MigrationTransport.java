@@ -0,0 +1,25 @@
+package com.serhattay.aco;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * An interface for the way the colonies of an island model exchange their shortest paths. Every colony has its own
+ * transport, which sends its tours on to one or more other colonies and keeps the tours they sent until the colony
+ * takes them. Migration is best effort: a transport may drop tours, but must never hold up a colony for long.
+ */
+public interface MigrationTransport extends Closeable {
+    /**
+     * Sends a tour to the other colonies.
+     * @param tour The tour, which is immutable and may be handed to other threads as it is.
+     * @throws IOException If the transport has failed for good.
+     */
+    void send(Tour tour) throws IOException;
+
+    /**
+     * Takes the oldest tour that arrived from the other colonies and has not been taken yet, without waiting.
+     * @return The tour, or null if none is waiting.
+     * @throws IOException If the transport has failed for good.
+     */
+    Tour receive() throws IOException;
+}
@@ -0,0 +1,269 @@
+package com.serhattay.aco;
+
+import edu.princeton.cs.algs4.StdDraw;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * A class representing the nodes of the TSP graph, their coordinates and the distances between them.
+ * The coordinates are kept in two primitive arrays indexed by node. It keeps the static interface of the program
+ * around the one {@link Problem} it works on; code that solves several problems should use {@link Problem} directly.
+ */
+public class Node {
+    private static String instanceName = "";
+    private static double[] xCoordinates = new double[0];
+    private static double[] yCoordinates = new double[0];
+    private static DistanceType distanceType = DistanceType.EUCLIDEAN;
+    private static Problem problem;
+    private static int numberOfNodes = 0;
+    private static int[] shortestPath;
+    private static double shortestDistance = Float.MAX_VALUE;
+    private static double pointRadius = 0.02;
+
+    /**
+     * Reads the nodes from a file, replacing the nodes read before.
+     * The file either holds one "x,y" pair per line or is a TSPLIB file with EUC_2D, GEO or ATT distances.
+     * @param fileName The name of the file containing node coordinates.
+     * @throws InstanceFormatException If a line of the file is malformed; the message names the line.
+     * @throws IOException If the file cannot be read.
+     */
+    public static void readNodesFromFile(String fileName) throws IOException {
+        InstanceReader reader = InstanceReader.read(Paths.get(fileName));
+        instanceName = reader.getName();
+        xCoordinates = reader.getX();
+        yCoordinates = reader.getY();
+        numberOfNodes = reader.getNumberOfNodes();
+        distanceType = reader.getDistanceType();
+        problem = null;
+    }
+
+    /**
+     * Removes every node and forgets the shortest path, so another input can be read in the same run.
+     */
+    public static void clearNodes() {
+        instanceName = "";
+        xCoordinates = new double[0];
+        yCoordinates = new double[0];
+        distanceType = DistanceType.EUCLIDEAN;
+        numberOfNodes = 0;
+        problem = null;
+        shortestPath = null;
+        shortestDistance = Float.MAX_VALUE;
+    }
+
+    /**
+     * Creates the distance matrix based on node coordinates, together with the problem of the nodes.
+     */
+    public static void createDistanceMatrix() {
+        createDistanceMatrix(MatrixStorage.FULL);
+    }
+
+    /**
+     * Creates the distance matrix based on node coordinates in a chosen storage, together with the problem
+     * of the nodes.
+     * @param storage How the distance and pheromone matrices are kept in memory.
+     */
+    public static void createDistanceMatrix(MatrixStorage storage) {
+        problem = new Problem(instanceName, xCoordinates, yCoordinates, distanceType, storage);
+    }
+
+    /**
+     * Calculates the distance between two nodes with the distance type of the input file.
+     * @param node1 The index of the first node.
+     * @param node2 The index of the second node.
+     * @return The distance between the two nodes.
+     */
+    public static double calculateDistance(int node1, int node2) {
+        return distanceType.distance(xCoordinates[node1], yCoordinates[node1], xCoordinates[node2], yCoordinates[node2]);
+    }
+
+    /**
+     * Sets up the canvas for visualization.
+     * The unit square is always shown, and the canvas grows to the bounding box of the nodes when they lie outside it,
+     * as the coordinates of TSPLIB files do.
+     */
+    public static void canvasSetup() {
+        final int CANVAS_WIDTH = 600;
+        final int CANVAS_HEIGHT = 600;
+
+        double minX = 0.0;
+        double minY = 0.0;
+        double maxX = 1.0;
+        double maxY = 1.0;
+        for (int i = 0; i < numberOfNodes; i++) {
+            minX = Math.min(minX, xCoordinates[i]);
+            maxX = Math.max(maxX, xCoordinates[i]);
+            minY = Math.min(minY, yCoordinates[i]);
+            maxY = Math.max(maxY, yCoordinates[i]);
+        }
+        double span = Math.max(maxX - minX, maxY - minY);
+        double margin = span > 1.0 ? span * 0.05 : 0.0;
+        pointRadius = 0.02 * span;
+
+        StdDraw.setCanvasSize(CANVAS_WIDTH, CANVAS_HEIGHT);
+        StdDraw.setXscale(minX - margin, minX + span + margin);
+        StdDraw.setYscale(minY - margin, minY + span + margin);
+        StdDraw.enableDoubleBuffering();
+    }
+
+    /**
+     * Draws the pheromone trails on the canvas. With the matrix-free storage only the candidate edges that keep
+     * their own trail are drawn, as there are far too many edges to walk them all.
+     */
+    public static void drawPheromones() {
+        StdDraw.setPenColor(StdDraw.BLACK);
+        PheromoneMatrix pheromones = Pheromone.getPheromoneMatrix();
+
+        for (int i = 0; i < numberOfNodes - 1; i++) {
+            int[] storedEdges = pheromones.getStoredEdges(i);
+            if (storedEdges != null) {
+                for (int j : storedEdges) {
+                    if (j > i) {
+                        drawPheromone(pheromones, i, j);
+                    }
+                }
+                continue;
+            }
+            for (int j = i + 1; j < numberOfNodes; j++) {
+                drawPheromone(pheromones, i, j);
+            }
+        }
+    }
+
+    /**
+     * Draws the pheromone trail of one edge, as thick as it is strong.
+     * @param pheromones The pheromones of the last run.
+     * @param i The first node of the edge.
+     * @param j The second node of the edge.
+     */
+    private static void drawPheromone(PheromoneMatrix pheromones, int i, int j) {
+        StdDraw.setPenRadius(pheromones.getIntensity(i, j) * 3);
+        StdDraw.line(xCoordinates[i], yCoordinates[i], xCoordinates[j], yCoordinates[j]);
+    }
+
+    /**
+     * Draws the lines representing the shortest path on the canvas.
+     */
+    public static void drawLines() {
+        int node1;
+        int node2;
+        StdDraw.setPenColor(StdDraw.BLACK);
+        StdDraw.setPenRadius(0.01);
+
+        for (int i = 0; i < numberOfNodes; i++) {
+            if (i == numberOfNodes - 1) {
+                node1 = shortestPath[i];
+                node2 = shortestPath[0];
+            } else {
+                node1 = shortestPath[i];
+                node2 = shortestPath[i + 1];
+            }
+            StdDraw.line(xCoordinates[node1], yCoordinates[node1], xCoordinates[node2], yCoordinates[node2]);
+        }
+    }
+
+    /**
+     * Draws the points representing the nodes on the canvas.
+     */
+    public static void drawPoints() {
+        for (int i = 0; i < numberOfNodes; i++) {
+            if (i == 0) {
+                StdDraw.setPenColor(StdDraw.PRINCETON_ORANGE);
+            } else {
+                StdDraw.setPenColor(StdDraw.LIGHT_GRAY);
+            }
+            StdDraw.filledCircle(xCoordinates[i], yCoordinates[i], pointRadius);
+            StdDraw.setPenColor(StdDraw.BLACK);
+            StdDraw.text(xCoordinates[i], yCoordinates[i], String.valueOf(i + 1));
+        }
+    }
+
+    /**
+     * Gets the x-coordinates of the nodes.
+     * @return The x-coordinates, indexed by node.
+     */
+    public static double[] getXCoordinates() {
+        return xCoordinates;
+    }
+
+    /**
+     * Gets the y-coordinates of the nodes.
+     * @return The y-coordinates, indexed by node.
+     */
+    public static double[] getYCoordinates() {
+        return yCoordinates;
+    }
+
+    /**
+     * Gets how the distances between the nodes are calculated.
+     * @return The distance type of the input file.
+     */
+    public static DistanceType getDistanceType() {
+        return distanceType;
+    }
+
+    /**
+     * Gets the distance matrix.
+     * @return The distance matrix, or null if it has not been created yet.
+     */
+    public static double[][] getDistanceMatrix() {
+        return problem != null ? problem.getDistanceMatrix() : null;
+    }
+
+    /**
+     * Gets the problem of the nodes.
+     * @return The problem, or null if the distance matrix has not been created yet.
+     */
+    public static Problem getProblem() {
+        return problem;
+    }
+
+    /**
+     * Gets the number of nodes.
+     * @return The number of nodes.
+     */
+    public static int getNumberOfNodes() {
+        return numberOfNodes;
+    }
+
+    /**
+     * Sets the distance matrix.
+     * @param distanceMatrix The distance matrix to set.
+     */
+    public static void setDistanceMatrix(double[][] distanceMatrix) {
+        problem = new Problem(instanceName, xCoordinates, yCoordinates, distanceType, distanceMatrix);
+    }
+
+    /**
+     * Gets the shortest path.
+     * @return The shortest path.
+     */
+    public static int[] getShortestPath() {
+        return shortestPath;
+    }
+
+    /**
+     * Gets the shortest distance.
+     * @return The shortest distance.
+     */
+    public static double getShortestDistance() {
+        return shortestDistance;
+    }
+
+    /**
+     * Sets the shortest path.
+     * @param shortestPath The shortest path to set.
+     */
+    public static void setShortestPath(int[] shortestPath) {
+        Node.shortestPath = shortestPath;
+    }
+
+    /**
+     * Sets the shortest distance.
+     * @param shortestDistance The shortest distance to set.
+     */
+    public static void setShortestDistance(double shortestDistance) {
+        Node.shortestDistance = shortestDistance;
+    }
+}
@@ -0,0 +1,310 @@
+package com.serhattay.aco;
+
+import java.util.Arrays;
+
+/**
+ * A class representing a symmetric matrix packed as its lower triangle, row after row, in one flat array.
+ * The edge between i and j with i > j is at i * (i - 1) / 2 + j and the diagonal is not stored, so the matrix takes
+ * a little less than half the memory of a full one. A new node only appends a row, so adding nodes does not move
+ * the others; the array grows with some room to spare, which removing nodes does not give back.
+ */
+abstract class PackedMatrix extends StoredMatrix {
+    // Largest array the JVM reliably allocates
+    private static final long MAX_ENTRIES = Integer.MAX_VALUE - 8;
+
+    private int numberOfNodes;
+
+    /**
+     * Constructs a packed matrix of a number of nodes, whose array the subclass allocates.
+     * @param numberOfNodes The number of nodes.
+     */
+    PackedMatrix(int numberOfNodes) {
+        this.numberOfNodes = numberOfNodes;
+    }
+
+    /**
+     * Calculates the number of entries of the triangle of a number of nodes.
+     * @param numberOfNodes The number of nodes.
+     * @return The number of entries.
+     * @throws IllegalArgumentException If the triangle does not fit in one array.
+     */
+    static int entries(int numberOfNodes) {
+        long entries = (long) numberOfNodes * (numberOfNodes - 1) / 2;
+        if (entries > MAX_ENTRIES) {
+            throw new IllegalArgumentException("A packed matrix holds at most 65536 nodes, got " + numberOfNodes);
+        }
+        return (int) Math.max(entries, 0L);
+    }
+
+    /**
+     * Calculates where an edge is stored.
+     * @param start The first node of the edge.
+     * @param destination The second node of the edge, not the first one.
+     * @return The index of the edge in the array.
+     */
+    static int index(int start, int destination) {
+        return start > destination
+                ? (int) ((long) start * (start - 1) >>> 1) + destination
+                : (int) ((long) destination * (destination - 1) >>> 1) + start;
+    }
+
+    @Override
+    int size() {
+        return numberOfNodes;
+    }
+
+    /**
+     * Gets the number of entries the array has room for.
+     * @return The length of the array.
+     */
+    abstract int capacity();
+
+    /**
+     * Copies the array into one of another length.
+     * @param length The new length.
+     */
+    abstract void resize(int length);
+
+    /**
+     * Copies a range of entries inside the array, the ranges may overlap.
+     * @param from The first entry to copy.
+     * @param to Where the first entry is copied to.
+     * @param length The number of entries.
+     */
+    abstract void copy(int from, int to, int length);
+
+    /**
+     * Sets a range of entries to 0.
+     * @param from The first entry.
+     * @param to The entry after the last one.
+     */
+    abstract void clear(int from, int to);
+
+    @Override
+    void addNode() {
+        int used = entries(numberOfNodes);
+        int needed = entries(numberOfNodes + 1);
+        if (capacity() < needed) {
+            // Leave room for a few more nodes, so adding them one by one does not copy the triangle every time
+            long roomy = (long) needed + (long) numberOfNodes * Math.max(16, numberOfNodes / 16);
+            resize((int) Math.min(roomy, MAX_ENTRIES));
+        }
+        clear(used, needed);
+        numberOfNodes++;
+    }
+
+    @Override
+    void removeNode(int node) {
+        // Rows before the node stay where they are, every later row moves down without the entry of the node
+        for (int i = node + 1; i < numberOfNodes; i++) {
+            int oldStart = entries(i);
+            int newStart = entries(i - 1);
+            copy(oldStart, newStart, node);
+            copy(oldStart + node + 1, newStart + node, i - node - 1);
+        }
+        numberOfNodes--;
+    }
+
+    /**
+     * A class representing a packed matrix of doubles, for values that must keep their full precision.
+     */
+    static final class Doubles extends PackedMatrix {
+        private double[] values;
+
+        /**
+         * Constructs a packed matrix of zeros.
+         * @param numberOfNodes The number of nodes.
+         */
+        Doubles(int numberOfNodes) {
+            super(numberOfNodes);
+            values = new double[entries(numberOfNodes)];
+        }
+
+        @Override
+        double get(int start, int destination) {
+            return start == destination ? 0.0 : values[index(start, destination)];
+        }
+
+        @Override
+        void set(int start, int destination, double value) {
+            if (start != destination) {
+                values[index(start, destination)] = value;
+            }
+        }
+
+        /**
+         * Sets the values of the edges of a node to every node before it, which are next to each other in the array.
+         * @param node The node.
+         * @param row The values, the value of the edge to node j at index j for every j below the node.
+         */
+        @Override
+        void setRow(int node, double[] row) {
+            System.arraycopy(row, 0, values, entries(node), node);
+        }
+
+        @Override
+        void fill(double value) {
+            Arrays.fill(values, 0, entries(size()), value);
+        }
+
+        @Override
+        void multiply(double factor) {
+            int used = entries(size());
+            for (int k = 0; k < used; k++) {
+                values[k] *= factor;
+            }
+        }
+
+        @Override
+        int capacity() {
+            return values.length;
+        }
+
+        @Override
+        void resize(int length) {
+            values = Arrays.copyOf(values, length);
+        }
+
+        @Override
+        void copy(int from, int to, int length) {
+            System.arraycopy(values, from, values, to, length);
+        }
+
+        @Override
+        void clear(int from, int to) {
+            Arrays.fill(values, from, to, 0.0);
+        }
+    }
+
+    /**
+     * A class representing a packed matrix of floats, for the pheromone trails, which are only ever compared
+     * against each other and need no more than the precision of a float.
+     */
+    static final class Floats extends PackedMatrix {
+        private float[] values;
+
+        /**
+         * Constructs a packed matrix of zeros.
+         * @param numberOfNodes The number of nodes.
+         */
+        Floats(int numberOfNodes) {
+            super(numberOfNodes);
+            values = new float[entries(numberOfNodes)];
+        }
+
+        @Override
+        double get(int start, int destination) {
+            return start == destination ? 0.0 : values[index(start, destination)];
+        }
+
+        @Override
+        void set(int start, int destination, double value) {
+            if (start != destination) {
+                values[index(start, destination)] = (float) value;
+            }
+        }
+
+        @Override
+        void fill(double value) {
+            Arrays.fill(values, 0, entries(size()), (float) value);
+        }
+
+        @Override
+        void multiply(double factor) {
+            int used = entries(size());
+            for (int k = 0; k < used; k++) {
+                values[k] = (float) (values[k] * factor);
+            }
+        }
+
+        @Override
+        int capacity() {
+            return values.length;
+        }
+
+        @Override
+        void resize(int length) {
+            values = Arrays.copyOf(values, length);
+        }
+
+        @Override
+        void copy(int from, int to, int length) {
+            System.arraycopy(values, from, values, to, length);
+        }
+
+        @Override
+        void clear(int from, int to) {
+            Arrays.fill(values, from, to, 0.0f);
+        }
+    }
+
+    /**
+     * A class representing a packed matrix of integers, for the distances of the TSPLIB distance types,
+     * which are whole numbers by definition.
+     */
+    static final class Integers extends PackedMatrix {
+        private int[] values;
+
+        /**
+         * Constructs a packed matrix of zeros.
+         * @param numberOfNodes The number of nodes.
+         */
+        Integers(int numberOfNodes) {
+            super(numberOfNodes);
+            values = new int[entries(numberOfNodes)];
+        }
+
+        @Override
+        double get(int start, int destination) {
+            return start == destination ? 0.0 : values[index(start, destination)];
+        }
+
+        @Override
+        void set(int start, int destination, double value) {
+            if (start != destination) {
+                values[index(start, destination)] = (int) Math.round(value);
+            }
+        }
+
+        @Override
+        void setRow(int node, double[] row) {
+            int start = entries(node);
+            for (int j = 0; j < node; j++) {
+                values[start + j] = (int) Math.round(row[j]);
+            }
+        }
+
+        @Override
+        void fill(double value) {
+            Arrays.fill(values, 0, entries(size()), (int) Math.round(value));
+        }
+
+        @Override
+        void multiply(double factor) {
+            int used = entries(size());
+            for (int k = 0; k < used; k++) {
+                values[k] = (int) Math.round(values[k] * factor);
+            }
+        }
+
+        @Override
+        int capacity() {
+            return values.length;
+        }
+
+        @Override
+        void resize(int length) {
+            values = Arrays.copyOf(values, length);
+        }
+
+        @Override
+        void copy(int from, int to, int length) {
+            System.arraycopy(values, from, values, to, length);
+        }
+
+        @Override
+        void clear(int from, int to) {
+            Arrays.fill(values, from, to, 0);
+        }
+    }
+}
@@ -0,0 +1,295 @@
+package com.serhattay.aco;
+
+import edu.princeton.cs.algs4.StdDraw;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * A class representing the pheromone trail for Ant Colony Optimization (ACO) in solving the Traveling Salesman Problem (TSP).
+ * It keeps the static interface of the program and runs a {@link Solver} on the problem held by {@link Node};
+ * code that solves several problems, or one problem several times at once, should use {@link Solver} directly.
+ */
+public class Pheromone {
+    private static Solver solver;
+    private static Consumer<Solver> solverSetup = created -> { };
+    private static long seed = new Random().nextLong();
+    private static long timeLimitMillis = 0;
+    private static Checkpoint warmStart;
+    private static double warmStartWeight;
+    private static MigrationTransport[] islandTransports;
+    private static int migrationInterval;
+    private static int clusterSize = 0;
+    private static int clusterCount = 0;
+
+    /**
+     * Gets the initial pheromone intensity of the last run.
+     * @return The initial pheromone intensity.
+     */
+    public static double getInitialPheromoneIntensity() {
+        return solver.getInitialPheromoneIntensity();
+    }
+
+    /**
+     * Sets what is done to every solver this class creates before it runs, such as setting its thread count,
+     * candidate lists, update rule, local search, stopping rules, listeners and checkpoint; the setters of
+     * {@link Solver} check the settings. The setup is called once for every colony, so it must create a new update
+     * rule every time. Seeds, time limits and warm starts are replaced by those of this class, the colonies of an
+     * island model after the first get no checkpoint, live renderer or iteration listener, and the colonies of
+     * clusters are set up as {@link ClusterSolver#setSolverSetup} describes and get no improvement listener either.
+     * @param solverSetup The setup of every solver.
+     */
+    public static void setSolverSetup(Consumer<Solver> solverSetup) {
+        Pheromone.solverSetup = solverSetup;
+    }
+
+    /**
+     * Runs an island model instead of a single colony: one colony per transport, each on its own thread, that
+     * exchange their shortest paths every few iterations. The improvement listener hears about every colony, from
+     * its thread.
+     * @param transports The transports of the colonies, such as {@link QueueTransport#ring}, or null for a
+     * single colony.
+     * @param migrationInterval The number of iterations between two exchanges of the shortest paths.
+     */
+    public static void setIslands(MigrationTransport[] transports, int migrationInterval) {
+        Pheromone.islandTransports = transports;
+        Pheromone.migrationInterval = migrationInterval;
+    }
+
+    /**
+     * Splits the nodes into clusters of at most a number of nodes instead of running one colony over all of them,
+     * for very large instances. Every cluster is solved by a colony of its own, several at a time, and the tours of
+     * the clusters are stitched into one, see {@link ClusterSolver}. The colonies keep no pheromones of the whole
+     * problem, so there are none to draw.
+     * @param clusterSize The largest number of nodes of a cluster, 0 for a single colony.
+     */
+    public static void setClusterSize(int clusterSize) {
+        Pheromone.clusterSize = clusterSize;
+    }
+
+    /**
+     * Sets the seed of the run, which the colonies of an island model or of clusters each derive their own from.
+     * @param seed The seed to use.
+     */
+    public static void setSeed(long seed) {
+        Pheromone.seed = seed;
+    }
+
+    /**
+     * Sets the wall-clock budget of the whole run, which the colonies of clusters share.
+     * @param timeLimitMillis The budget in milliseconds, 0 for no limit.
+     */
+    public static void setTimeLimit(long timeLimitMillis) {
+        Pheromone.timeLimitMillis = timeLimitMillis;
+    }
+
+    /**
+     * Sets the checkpoint of an earlier run, on this problem or on a slightly different one, whose shortest path
+     * the run starts from. The tour is carried over to the problem once per run, also when it is split into clusters.
+     * @param warmStart The checkpoint, or null for starting afresh.
+     * @param warmStartWeight How much stronger the edges of its shortest path start out than all other edges.
+     */
+    public static void setWarmStart(Checkpoint warmStart, double warmStartWeight) {
+        Pheromone.warmStart = warmStart;
+        Pheromone.warmStartWeight = warmStartWeight;
+    }
+
+    /**
+     * Runs a full iteration of the Ant Colony Optimization algorithm to find the shortest path.
+     * The shortest path of Node is replaced if the colony finds a shorter one.
+     * @param iterationCount The number of iterations to perform.
+     * @param antPerIteration The number of ants to use per iteration.
+     * @param degradationFactor The rate at which pheromones degrade.
+     * @param alpha The alpha parameter for pheromone influence.
+     * @param beta The beta parameter for distance influence.
+     * @param initialPheromoneIntensity The initial pheromone intensity.
+     * @param qValue The Q value for pheromone update.
+     * @param whichPrint To decide whether to print the shortest path or pheromones, 0 for not drawing at all.
+     */
+    public static void fullIteration(int iterationCount, int antPerIteration, double degradationFactor,
+                                     double alpha, double beta, double initialPheromoneIntensity, double qValue,
+                                     int whichPrint) {
+        clusterCount = 0;
+        if (clusterSize > 0) {
+            ClusterSolver clusters = new ClusterSolver(Node.getProblem(), clusterSize);
+            clusters.setSolverSetup(created -> {
+                configure(created);
+                leaveUnobserved(created);
+                // The tours of single clusters are no shortest paths of the problem
+                created.setImprovementListener(null);
+            });
+            clusters.setSeed(seed);
+            clusters.setTimeLimit(timeLimitMillis);
+            clusters.setWarmStart(warmStart, warmStartWeight);
+            clusters.solve(iterationCount, antPerIteration, degradationFactor, alpha, beta,
+                    initialPheromoneIntensity, qValue);
+            solver = null;
+            clusterCount = clusters.getClusterCount();
+            finishRun(clusters.getShortestPath(), clusters.getShortestDistance(), whichPrint);
+            return;
+        }
+        if (islandTransports != null) {
+            IslandSolver islands = new IslandSolver(Node.getProblem(), islandTransports);
+            islands.setMigrationInterval(migrationInterval);
+            for (int i = 0; i < islands.getIslandCount(); i++) {
+                configure(islands.getIsland(i));
+                if (i > 0) {
+                    leaveUnobserved(islands.getIsland(i));
+                }
+                applyWarmStart(islands.getIsland(i));
+            }
+            islands.setSeed(seed);
+            islands.solve(iterationCount, antPerIteration, degradationFactor, alpha, beta,
+                    initialPheromoneIntensity, qValue);
+            solver = islands.getIsland(islands.getBestIsland());
+        } else {
+            solver = createSolver();
+            solver.solve(iterationCount, antPerIteration, degradationFactor, alpha, beta,
+                    initialPheromoneIntensity, qValue);
+        }
+        finishRun(solver.getShortestPath(), solver.getShortestDistance(), whichPrint);
+    }
+
+    /**
+     * Continues the run saved in a checkpoint on the problem held by Node, with the parameters of the saved run.
+     * The shortest path of Node is replaced if the colony finds a shorter one.
+     * @param checkpoint The checkpoint, saved for the nodes of Node.
+     * @param iterationCount The number of iterations of the whole run, those before the checkpoint included.
+     * @param whichPrint To decide whether to print the shortest path or pheromones, 0 for not drawing at all.
+     * @throws IOException If the pheromone trails cannot be read from the checkpoint file.
+     */
+    public static void resume(Checkpoint checkpoint, int iterationCount, int whichPrint) throws IOException {
+        solver = createSolver();
+        solver.resume(checkpoint, iterationCount);
+        clusterCount = 0;
+        finishRun(solver.getShortestPath(), solver.getShortestDistance(), whichPrint);
+    }
+
+    /**
+     * Copies the result of the run to Node if it is shorter and draws it.
+     * @param shortestPath The shortest path of the run.
+     * @param shortestDistance The length of the shortest path of the run.
+     * @param whichPrint To decide whether to print the shortest path or pheromones, 0 for not drawing at all.
+     *                   The pheromones of a decomposition into clusters are not kept, so its path is drawn instead.
+     */
+    private static void finishRun(int[] shortestPath, double shortestDistance, int whichPrint) {
+        if (shortestDistance < Node.getShortestDistance()) {
+            Node.setShortestDistance(shortestDistance);
+            Node.setShortestPath(shortestPath);
+        }
+
+        // Visualize results
+        if (whichPrint == 0) {
+            return;
+        }
+        Node.canvasSetup();
+        if (whichPrint == 2 && solver != null) {
+            Node.drawPheromones();
+            Node.drawPoints();
+        } else if (whichPrint == 1 || whichPrint == 2) {
+            // A run without iterations or ants has no path to draw
+            if (Node.getShortestPath() != null) {
+                Node.drawLines();
+            }
+            Node.drawPoints();
+        }
+
+        StdDraw.show();
+    }
+
+    /**
+     * Creates a solver for the problem of Node with the settings made through this class.
+     * @return The solver.
+     */
+    static Solver createSolver() {
+        Solver created = new Solver(Node.getProblem());
+        configure(created);
+        applyWarmStart(created);
+        return created;
+    }
+
+    /**
+     * Applies the solver setup, the seed and the time limit to a solver, but not the warm start, which the
+     * decomposition into clusters carries over to the whole problem only once.
+     * @param created The solver.
+     */
+    private static void configure(Solver created) {
+        solverSetup.accept(created);
+        created.setSeed(seed);
+        created.setTimeLimit(timeLimitMillis);
+    }
+
+    /**
+     * Takes the checkpoint, live renderer and iteration listener off a colony that only runs part of the problem
+     * or is not the first of an island model, so that they follow one colony only.
+     * @param created The solver.
+     */
+    private static void leaveUnobserved(Solver created) {
+        created.setCheckpoint(null, 0);
+        created.setLiveRenderer(null);
+        created.setIterationListener(null);
+    }
+
+    /**
+     * Lets a solver start from the shortest path of the warm start checkpoint, if one was set.
+     * @param created The solver.
+     */
+    private static void applyWarmStart(Solver created) {
+        if (warmStart != null) {
+            created.setWarmStart(warmStart, warmStartWeight);
+        }
+    }
+
+    /**
+     * Gets the pheromone intensities of all edges, copied into a new matrix.
+     * @return The pheromone intensities.
+     * @throws IllegalStateException If the problem uses the matrix-free storage, whose n * n edges do not fit.
+     */
+    public static double[][] getPheromoneIntensities() {
+        return solver.getPheromoneIntensities();
+    }
+
+    /**
+     * Gets the pheromone matrix of the last run.
+     * @return The pheromone matrix, or null if the colony has not run yet.
+     */
+    static PheromoneMatrix getPheromoneMatrix() {
+        return solver != null ? solver.getPheromoneMatrix() : null;
+    }
+
+    /**
+     * Gets the number of iterations finished in the last run.
+     * @return The number of iterations finished.
+     */
+    public static int getCompletedIterations() {
+        return solver != null ? solver.getCompletedIterations() : 0;
+    }
+
+    /**
+     * Gets the number of clusters the last run was split into.
+     * @return The number of clusters, 0 if it ran one colony over all nodes.
+     */
+    public static int getClusterCount() {
+        return clusterCount;
+    }
+
+    /**
+     * Gets why the last run stopped.
+     * @return The reason, or null if the colony has not run yet.
+     */
+    public static StopReason getStopReason() {
+        return solver != null ? solver.getStopReason() : null;
+    }
+
+    /**
+     * Gets the pheromone intensity of one edge.
+     * @param start The first node of the edge.
+     * @param destination The second node of the edge.
+     * @return The pheromone intensity.
+     */
+    public static double getPheromoneIntensity(int start, int destination) {
+        return solver.getPheromoneIntensity(start, destination);
+    }
+}
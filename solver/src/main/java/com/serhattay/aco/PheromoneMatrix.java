@@ -0,0 +1,476 @@
+package com.serhattay.aco;
+
+/**
+ * A class representing the pheromone intensities of all edges together with the cached choice info of the colony.
+ * Evaporation is lazy: the stored trails are multiplied by one global scale, so evaporating every edge only
+ * multiplies that scale. The trails are rescaled in one pass only when the scale is about to underflow.
+ * The matrices are kept in the storage of the problem; with compact storage the heuristic values are not cached
+ * but calculated from the distances whenever the choice info of an edge is refreshed. The matrix-free storage only
+ * stores the candidate edges of every node; all other edges share one trail and their choice info is calculated
+ * whenever it is read.
+ */
+public class PheromoneMatrix {
+    // Smallest global scale before the stored trails are rescaled, far from underflow even for large alpha
+    private static final double MIN_SCALE = 1e-30;
+
+    private int numberOfNodes;
+    private final double alpha;
+    private final double beta;
+    private final SymmetricMatrix distances;
+    private final StoredMatrix trails;
+    private final StoredMatrix heuristicValues;
+    private final StoredMatrix choiceInfo;
+    private double scale = 1.0;
+
+    /**
+     * Constructs a pheromone matrix with every edge at the initial intensity, in the storage of the problem.
+     * @param problem The problem whose edges the pheromones are on.
+     * @param alpha The alpha parameter for pheromone influence.
+     * @param beta The beta parameter for distance influence.
+     * @param initialPheromoneIntensity The initial pheromone intensity.
+     */
+    PheromoneMatrix(Problem problem, double alpha, double beta, double initialPheromoneIntensity) {
+        this(problem, alpha, beta, initialPheromoneIntensity, null);
+    }
+
+    /**
+     * Constructs a pheromone matrix with every edge at the initial intensity, in the storage of the problem.
+     * @param problem The problem whose edges the pheromones are on.
+     * @param alpha The alpha parameter for pheromone influence.
+     * @param beta The beta parameter for distance influence.
+     * @param initialPheromoneIntensity The initial pheromone intensity.
+     * @param candidateLists The candidate lists of the nodes, whose edges the matrix-free storage stores.
+     * @throws IllegalArgumentException If the storage is matrix-free and there are no candidate lists.
+     */
+    PheromoneMatrix(Problem problem, double alpha, double beta, double initialPheromoneIntensity,
+                    int[][] candidateLists) {
+        MatrixStorage storage = problem.getStorage();
+        this.numberOfNodes = problem.getNumberOfNodes();
+        this.alpha = alpha;
+        this.beta = beta;
+        distances = problem.getDistances();
+        int[][] storedEdges = null;
+        if (storage == MatrixStorage.MATRIX_FREE) {
+            if (candidateLists == null) {
+                throw new IllegalArgumentException("The matrix-free storage needs candidate lists");
+            }
+            storedEdges = CandidateMatrix.storedEdges(candidateLists);
+        }
+        trails = storage.createTrails(numberOfNodes, storedEdges);
+        choiceInfo = storage.createValues(numberOfNodes, storedEdges);
+        heuristicValues = storage.cachesHeuristicValues() ? storage.createValues(numberOfNodes, storedEdges) : null;
+
+        // Cache the heuristic values 1 / d^beta once
+        if (heuristicValues != null) {
+            for (int i = 0; i < numberOfNodes; i++) {
+                int[] edges = trails.getStoredEdges(i);
+                int count = edges != null ? edges.length : numberOfNodes;
+                for (int k = edges != null ? 0 : i + 1; k < count; k++) {
+                    int j = edges != null ? edges[k] : k;
+                    if (j > i) {
+                        heuristicValues.set(i, j, heuristicValue(distances.get(i, j)));
+                    }
+                }
+            }
+        }
+        reset(initialPheromoneIntensity);
+    }
+
+    /**
+     * Calculates the heuristic value 1 / d^beta of an edge.
+     * @param distance The length of the edge.
+     * @return The heuristic value.
+     */
+    private double heuristicValue(double distance) {
+        return 1.0 / Math.pow(distance, beta);
+    }
+
+    /**
+     * Gets the heuristic value of an edge, from the cache if there is one and it holds the edge.
+     * @param start The first node of the edge.
+     * @param destination The second node of the edge.
+     * @return The heuristic value.
+     */
+    private double heuristicValue(int start, int destination) {
+        if (heuristicValues != null) {
+            double value = heuristicValues.get(start, destination);
+            // NaN marks an edge the matrix-free storage does not store
+            if (value == value) {
+                return value;
+            }
+        }
+        return heuristicValue(distances.get(start, destination));
+    }
+
+    /**
+     * Gets the number of nodes.
+     * @return The number of nodes.
+     */
+    public int getNumberOfNodes() {
+        return numberOfNodes;
+    }
+
+    /**
+     * Sets every edge back to the same pheromone intensity.
+     * @param intensity The intensity of every edge.
+     */
+    public void reset(double intensity) {
+        scale = 1.0;
+        trails.fill(intensity);
+        // Read the intensity back, as the storage may have rounded it
+        double choiceFactor = Math.pow(numberOfNodes > 1 ? trails.get(1, 0) : intensity, alpha);
+        for (int i = 0; i < numberOfNodes; i++) {
+            int[] edges = trails.getStoredEdges(i);
+            int count = edges != null ? edges.length : numberOfNodes;
+            for (int k = edges != null ? 0 : i + 1; k < count; k++) {
+                int j = edges != null ? edges[k] : k;
+                if (j > i) {
+                    choiceInfo.set(i, j, choiceFactor * heuristicValue(i, j));
+                }
+            }
+        }
+    }
+
+    /**
+     * Multiplies the pheromone intensity of every edge by the degradation factor in constant time.
+     * @param degradationFactor The factor every intensity is multiplied by.
+     */
+    public void evaporate(double degradationFactor) {
+        scale *= degradationFactor;
+        if (scale < MIN_SCALE) {
+            rescale();
+        }
+    }
+
+    /**
+     * Adds pheromone to both directions of an edge and refreshes its choice info.
+     * @param start The first node of the edge.
+     * @param destination The second node of the edge.
+     * @param amount The amount of pheromone to add.
+     */
+    public void deposit(int start, int destination, double amount) {
+        trails.set(start, destination, trails.get(start, destination) + amount / scale);
+        refreshChoiceInfo(start, destination);
+    }
+
+    /**
+     * Sets the pheromone intensity of both directions of an edge and refreshes its choice info.
+     * @param start The first node of the edge.
+     * @param destination The second node of the edge.
+     * @param intensity The new pheromone intensity.
+     */
+    public void setIntensity(int start, int destination, double intensity) {
+        trails.set(start, destination, intensity / scale);
+        refreshChoiceInfo(start, destination);
+    }
+
+    /**
+     * Sets the pheromone intensity of every edge of one node, for a node that was added or moved.
+     * @param node The node.
+     * @param intensity The new pheromone intensity of its edges.
+     */
+    public void setNodeIntensity(int node, double intensity) {
+        for (int i = 0; i < numberOfNodes; i++) {
+            if (i != node) {
+                setIntensity(node, i, intensity);
+            }
+        }
+    }
+
+    /**
+     * Adds a node after the last one, after it was added to the distances of the problem. Only its own heuristic
+     * values are calculated. Its edges have no pheromone until they are set.
+     */
+    void addNode() {
+        int node = numberOfNodes;
+        numberOfNodes++;
+        trails.addNode();
+        choiceInfo.addNode();
+        if (heuristicValues != null) {
+            heuristicValues.addNode();
+            for (int i = 0; i < node; i++) {
+                heuristicValues.set(i, node, heuristicValue(distances.get(i, node)));
+            }
+        }
+    }
+
+    /**
+     * Removes a node, keeping the trails of all other edges. The nodes after it move down by one index.
+     * @param node The node to remove.
+     */
+    void removeNode(int node) {
+        trails.removeNode(node);
+        choiceInfo.removeNode(node);
+        if (heuristicValues != null) {
+            heuristicValues.removeNode(node);
+        }
+        numberOfNodes--;
+    }
+
+    /**
+     * Recalculates the heuristic values of the edges of a node after it moved. The trails of its edges are kept
+     * until they are set.
+     * @param node The node that moved.
+     */
+    void moveNode(int node) {
+        for (int i = 0; i < numberOfNodes; i++) {
+            if (i != node) {
+                if (heuristicValues != null) {
+                    heuristicValues.set(i, node, heuristicValue(distances.get(i, node)));
+                }
+                refreshChoiceInfo(node, i);
+            }
+        }
+    }
+
+    /**
+     * Keeps the pheromone intensity of every edge between two bounds.
+     * This is a full pass over the stored edges, but only the edges that leave the bounds get their choice info
+     * refreshed.
+     * @param minIntensity The lower bound.
+     * @param maxIntensity The upper bound.
+     */
+    public void clamp(double minIntensity, double maxIntensity) {
+        double minTrail = minIntensity / scale;
+        double maxTrail = maxIntensity / scale;
+        trails.clampUnstored(minTrail, maxTrail);
+        for (int i = 0; i < numberOfNodes; i++) {
+            int[] edges = trails.getStoredEdges(i);
+            int count = edges != null ? edges.length : numberOfNodes;
+            for (int k = edges != null ? 0 : i + 1; k < count; k++) {
+                int j = edges != null ? edges[k] : k;
+                if (j <= i) {
+                    continue;
+                }
+                double trail = trails.get(i, j);
+                if (trail < minTrail || trail > maxTrail) {
+                    trails.set(i, j, trail < minTrail ? minTrail : maxTrail);
+                    refreshChoiceInfo(i, j);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the pheromone intensity of an edge.
+     * @param start The first node of the edge.
+     * @param destination The second node of the edge.
+     * @return The pheromone intensity.
+     */
+    public double getIntensity(int start, int destination) {
+        return trails.get(start, destination) * scale;
+    }
+
+    /**
+     * Gets the value tau^alpha / d^beta of an edge.
+     * @param start The node the ant is coming from.
+     * @param destination The node the ant is going to.
+     * @return The edge value.
+     */
+    public double getEdgeValue(int start, int destination) {
+        return getChoiceInfo(start, destination) * Math.pow(scale, alpha);
+    }
+
+    /**
+     * Gets the cached choice info of an edge. The values are all off from the edge values by the same
+     * factor scale^alpha, which cancels out whenever they are compared or normalised against each other.
+     * @param start The node the ant is coming from.
+     * @param destination The node the ant is going to.
+     * @return The choice info.
+     */
+    double getChoiceInfo(int start, int destination) {
+        double value = choiceInfo.get(start, destination);
+        // NaN marks an edge the matrix-free storage does not store
+        return value == value
+                ? value : Math.pow(trails.get(start, destination), alpha) * heuristicValue(start, destination);
+    }
+
+    /**
+     * Gets the nodes whose edges with a node keep their own trail, for the matrix-free storage.
+     * @param node The node.
+     * @return The nodes, sorted, or null if every edge keeps its own trail.
+     */
+    int[] getStoredEdges(int node) {
+        return trails.getStoredEdges(node);
+    }
+
+    /**
+     * Copies the pheromone intensities of all edges into a new matrix, n * n of them for every storage.
+     * @return The pheromone intensities.
+     */
+    public double[][] toArray() {
+        double[][] intensities = trails.toArray();
+        for (double[] row : intensities) {
+            for (int j = 0; j < row.length; j++) {
+                row[j] *= scale;
+            }
+        }
+        return intensities;
+    }
+
+    /**
+     * Calculates the entropy of the pheromone intensities of the edges of every node, averaged over the nodes.
+     * It is normalised by the entropy of equally strong edges, so 1 means no edge is preferred and 0 means all
+     * pheromone of every node is on one edge. The global scale cancels out, so the stored trails are used as they are.
+     * @return The normalised entropy, 0 for fewer than three nodes.
+     */
+    public double averageEntropy() {
+        if (numberOfNodes < 3) {
+            return 0.0;
+        }
+        double total = 0.0;
+        double[] row = new double[numberOfNodes];
+        double unstoredTrail = trails.getUnstoredValue();
+        for (int i = 0; i < numberOfNodes; i++) {
+            // The edges that are not stored all share one trail and are counted together
+            int[] edges = trails.getStoredEdges(i);
+            int count = edges != null ? edges.length : numberOfNodes;
+            int unstored = edges != null ? numberOfNodes - 1 - count : 0;
+            double sum = unstored * unstoredTrail;
+            for (int k = 0; k < count; k++) {
+                int j = edges != null ? edges[k] : k;
+                row[k] = trails.get(i, j);
+                if (j != i) {
+                    sum += row[k];
+                }
+            }
+            if (sum <= 0.0) {
+                continue;
+            }
+            double entropy = 0.0;
+            for (int k = 0; k < count; k++) {
+                int j = edges != null ? edges[k] : k;
+                if (j != i && row[k] > 0.0) {
+                    double share = row[k] / sum;
+                    entropy -= share * Math.log(share);
+                }
+            }
+            if (unstored > 0 && unstoredTrail > 0.0) {
+                double share = unstoredTrail / sum;
+                entropy -= unstored * share * Math.log(share);
+            }
+            total += entropy;
+        }
+        return total / (numberOfNodes * Math.log(numberOfNodes - 1));
+    }
+
+    /**
+     * Calculates the lambda-branching factor: for every node the number of its edges whose pheromone intensity is
+     * at least its weakest edge plus lambda times the range between its weakest and strongest edge, averaged over
+     * the nodes. It is the number of nodes less one while nothing is learned and falls towards 2 as the colony
+     * settles on one tour.
+     * @param lambda The share of the range, usually 0.05.
+     * @return The average branching factor.
+     */
+    public double averageBranchingFactor(double lambda) {
+        if (numberOfNodes < 2) {
+            return 0.0;
+        }
+        long total = 0;
+        double[] row = new double[numberOfNodes];
+        double unstoredTrail = trails.getUnstoredValue();
+        for (int i = 0; i < numberOfNodes; i++) {
+            // The edges that are not stored all share one trail and are counted together
+            int[] edges = trails.getStoredEdges(i);
+            int count = edges != null ? edges.length : numberOfNodes;
+            int unstored = edges != null ? numberOfNodes - 1 - count : 0;
+            double min = unstored > 0 ? unstoredTrail : Double.MAX_VALUE;
+            double max = unstored > 0 ? unstoredTrail : -Double.MAX_VALUE;
+            for (int k = 0; k < count; k++) {
+                int j = edges != null ? edges[k] : k;
+                row[k] = trails.get(i, j);
+                if (j != i) {
+                    min = Math.min(min, row[k]);
+                    max = Math.max(max, row[k]);
+                }
+            }
+            double threshold = min + lambda * (max - min);
+            for (int k = 0; k < count; k++) {
+                int j = edges != null ? edges[k] : k;
+                if (j != i && row[k] >= threshold) {
+                    total++;
+                }
+            }
+            if (unstored > 0 && unstoredTrail >= threshold) {
+                total += unstored;
+            }
+        }
+        return (double) total / numberOfNodes;
+    }
+
+    /**
+     * Gets the global scale the stored trails are multiplied by.
+     * @return The global scale.
+     */
+    double getScale() {
+        return scale;
+    }
+
+    /**
+     * Gets the stored trail of an edge, which is off from the intensity by the global scale.
+     * @param start The first node of the edge.
+     * @param destination The second node of the edge.
+     * @return The stored trail.
+     */
+    double getTrail(int start, int destination) {
+        return trails.get(start, destination);
+    }
+
+    /**
+     * Sets the stored trail of both directions of an edge while restoring the trails, before calling
+     * {@link #restore}. The choice info is left as it is until then.
+     * @param start The first node of the edge.
+     * @param destination The second node of the edge.
+     * @param trail The stored trail.
+     */
+    void setTrail(int start, int destination, double trail) {
+        trails.set(start, destination, trail);
+    }
+
+    /**
+     * Finishes restoring the trails after every edge has been set: sets the global scale and refreshes
+     * every choice info.
+     * @param scale The global scale the restored trails are multiplied by.
+     */
+    void restore(double scale) {
+        this.scale = scale;
+        refreshAllChoiceInfo();
+    }
+
+    /**
+     * Folds the global scale into the stored trails before it underflows.
+     * The choice info is recalculated from the trails rather than scaled along with them, so that it always
+     * follows from the trails alone and a restored matrix chooses exactly like the one it was saved from.
+     */
+    private void rescale() {
+        trails.multiply(scale);
+        scale = 1.0;
+        refreshAllChoiceInfo();
+    }
+
+    /**
+     * Recalculates the choice info of every edge from its stored trail.
+     */
+    private void refreshAllChoiceInfo() {
+        for (int i = 0; i < numberOfNodes; i++) {
+            int[] edges = trails.getStoredEdges(i);
+            int count = edges != null ? edges.length : numberOfNodes;
+            for (int k = edges != null ? 0 : i + 1; k < count; k++) {
+                int j = edges != null ? edges[k] : k;
+                if (j > i) {
+                    choiceInfo.set(i, j, Math.pow(trails.get(i, j), alpha) * heuristicValue(i, j));
+                }
+            }
+        }
+    }
+
+    /**
+     * Refreshes the choice info of an edge after its pheromone intensity has changed.
+     * @param start The first node of the edge.
+     * @param destination The second node of the edge.
+     */
+    private void refreshChoiceInfo(int start, int destination) {
+        choiceInfo.set(start, destination,
+                Math.pow(trails.get(start, destination), alpha) * heuristicValue(start, destination));
+    }
+}
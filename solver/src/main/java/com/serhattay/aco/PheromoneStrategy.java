@@ -0,0 +1,132 @@
+package com.serhattay.aco;
+
+/**
+ * An interface for the pheromone update rule of the colony, deciding how the ants lay and evaporate pheromones.
+ */
+public interface PheromoneStrategy {
+    /**
+     * Sets the pheromone intensities at the start of a run.
+     * @param pheromones The pheromone matrix of the colony.
+     * @param problem The problem the colony works on.
+     */
+    void initialize(PheromoneMatrix pheromones, Problem problem);
+
+    /**
+     * Sets the pheromone intensities back to their starting values after the colony has stagnated.
+     * @param pheromones The pheromone matrix of the colony.
+     */
+    void reinitialize(PheromoneMatrix pheromones);
+
+    /**
+     * Sets the pheromone intensities of the edges of a node that was added to the problem or moved,
+     * leaving all other edges as they are.
+     * @param pheromones The pheromone matrix of the colony.
+     * @param problem The problem the colony works on, with the change.
+     * @param node The node that was added or moved.
+     */
+    void nodeChanged(PheromoneMatrix pheromones, Problem problem, int node);
+
+    /**
+     * Updates the state of the update rule after a node was removed from the problem.
+     * @param pheromones The pheromone matrix of the colony, without the node.
+     * @param problem The problem the colony works on, without the node.
+     */
+    default void nodeRemoved(PheromoneMatrix pheromones, Problem problem) {
+    }
+
+    /**
+     * Gets the probability that an ant takes the best edge instead of spinning the roulette wheel.
+     * @return The exploitation probability, 0 for a purely random proportional choice.
+     */
+    default double getExploitationProbability() {
+        return 0.0;
+    }
+
+    /**
+     * Tells whether the ants update the pheromones of the edges they walk on, before the next ant builds its tour.
+     * @return True if {@link #localUpdate} must be called for every edge of every finished tour.
+     */
+    default boolean usesLocalUpdate() {
+        return false;
+    }
+
+    /**
+     * Updates the pheromone of an edge an ant has walked on, once its tour is finished and improved.
+     * @param pheromones The pheromone matrix of the colony.
+     * @param start The node the ant came from.
+     * @param destination The node the ant went to.
+     */
+    default void localUpdate(PheromoneMatrix pheromones, int start, int destination) {
+    }
+
+    /**
+     * Updates the pheromones once an ant has finished its tour.
+     * @param pheromones The pheromone matrix of the colony.
+     * @param tour The tour of the ant.
+     * @param tourLength The length of the tour.
+     */
+    default void antFinished(PheromoneMatrix pheromones, int[] tour, double tourLength) {
+    }
+
+    /**
+     * Updates the pheromones once every ant of an iteration has finished its tour.
+     * @param pheromones The pheromone matrix of the colony.
+     * @param iterationBestTour The shortest tour of the iteration.
+     * @param iterationBestLength The length of the shortest tour of the iteration.
+     * @param bestTour The shortest tour found so far.
+     * @param bestLength The length of the shortest tour found so far.
+     */
+    void iterationFinished(PheromoneMatrix pheromones, int[] iterationBestTour, double iterationBestLength,
+                           int[] bestTour, double bestLength);
+
+    /**
+     * Deposits the same amount of pheromone on every edge of a closed tour.
+     * @param pheromones The pheromone matrix of the colony.
+     * @param tour The tour.
+     * @param amount The amount of pheromone per edge.
+     */
+    static void depositOnTour(PheromoneMatrix pheromones, int[] tour, double amount) {
+        for (int i = 0; i < tour.length; i++) {
+            pheromones.deposit(tour[i], tour[(i + 1) % tour.length], amount);
+        }
+    }
+
+    /**
+     * Calculates the length of the greedy nearest neighbour tour starting from the first node,
+     * the usual estimate of the tour length for the starting pheromones. The matrix-free storage finds the nearest
+     * node with a k-d tree over the coordinates instead of reading every distance.
+     * @param problem The problem.
+     * @return The length of the nearest neighbour tour.
+     */
+    static double nearestNeighbourTourLength(Problem problem) {
+        SymmetricMatrix distances = problem.getDistances();
+        int numberOfNodes = distances.size();
+        boolean[] visited = new boolean[numberOfNodes];
+        KdTree.Unvisited unvisited = null;
+        if (problem.getStorage() == MatrixStorage.MATRIX_FREE) {
+            unvisited = new KdTree(problem.getX(), problem.getY()).trackUnvisited();
+            unvisited.reset(visited);
+            unvisited.visit(0);
+        }
+        visited[0] = true;
+        int current = 0;
+        double totalDistance = 0.0;
+        for (int step = 1; step < numberOfNodes; step++) {
+            int nearest = -1;
+            if (unvisited != null) {
+                nearest = unvisited.nearest(current);
+                unvisited.visit(nearest);
+            } else {
+                for (int i = 0; i < numberOfNodes; i++) {
+                    if (!visited[i] && (nearest < 0 || distances.get(current, i) < distances.get(current, nearest))) {
+                        nearest = i;
+                    }
+                }
+            }
+            visited[nearest] = true;
+            totalDistance += distances.get(current, nearest);
+            current = nearest;
+        }
+        return totalDistance + distances.get(current, 0);
+    }
+}
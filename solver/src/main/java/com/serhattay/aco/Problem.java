@@ -0,0 +1,312 @@
+package com.serhattay.aco;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * A class representing one TSP instance: the coordinates of its nodes and the distances between them.
+ * A problem holds no solver state, so any number of solvers may work on it, and on other problems, at the same time.
+ * Its nodes only change through the dynamic updates of a solver, which then must be the only one working on it.
+ */
+public class Problem {
+    private final String name;
+    private double[] x;
+    private double[] y;
+    private final DistanceType distanceType;
+    private final MatrixStorage storage;
+    private final SymmetricMatrix distances;
+
+    /**
+     * Constructs a problem and creates its distance matrix.
+     * @param name The name of the problem.
+     * @param x The x-coordinates of the nodes.
+     * @param y The y-coordinates of the nodes.
+     * @param distanceType How the distance between two nodes is calculated.
+     */
+    public Problem(String name, double[] x, double[] y, DistanceType distanceType) {
+        this(name, x, y, distanceType, MatrixStorage.FULL);
+    }
+
+    /**
+     * Constructs a problem and creates its distance matrix in a chosen storage. The pheromone matrix of every
+     * solver working on the problem is kept in the same storage.
+     * @param name The name of the problem.
+     * @param x The x-coordinates of the nodes.
+     * @param y The y-coordinates of the nodes.
+     * @param distanceType How the distance between two nodes is calculated.
+     * @param storage How the distance and pheromone matrices are kept in memory.
+     */
+    public Problem(String name, double[] x, double[] y, DistanceType distanceType, MatrixStorage storage) {
+        this(name, x, y, distanceType, storage, createDistances(x, y, distanceType, storage));
+    }
+
+    /**
+     * Constructs a problem with a distance matrix that was already created.
+     * @param name The name of the problem.
+     * @param x The x-coordinates of the nodes.
+     * @param y The y-coordinates of the nodes.
+     * @param distanceType How the distance between two nodes is calculated.
+     * @param distanceMatrix The distance matrix of the nodes.
+     */
+    Problem(String name, double[] x, double[] y, DistanceType distanceType, double[][] distanceMatrix) {
+        this(name, x, y, distanceType, MatrixStorage.FULL, new FullMatrix(distanceMatrix));
+    }
+
+    /**
+     * Constructs a problem with distances that were already created.
+     * @param name The name of the problem.
+     * @param x The x-coordinates of the nodes.
+     * @param y The y-coordinates of the nodes.
+     * @param distanceType How the distance between two nodes is calculated.
+     * @param storage How the distance and pheromone matrices are kept in memory.
+     * @param distances The distances between the nodes.
+     */
+    private Problem(String name, double[] x, double[] y, DistanceType distanceType, MatrixStorage storage,
+                    SymmetricMatrix distances) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("Got " + x.length + " x-coordinates but " + y.length + " y-coordinates");
+        }
+        this.name = name;
+        this.x = x;
+        this.y = y;
+        this.distanceType = distanceType;
+        this.storage = storage;
+        this.distances = distances;
+    }
+
+    /**
+     * Reads a problem from a file of "x,y" lines or a TSPLIB file and creates its distance matrix.
+     * @param path The path of the file.
+     * @return The problem, named after the TSPLIB NAME entry or the file name.
+     * @throws InstanceFormatException If a line of the file is malformed.
+     * @throws IOException If the file cannot be read.
+     */
+    public static Problem read(Path path) throws IOException {
+        return read(path, MatrixStorage.FULL);
+    }
+
+    /**
+     * Reads a problem from a file of "x,y" lines or a TSPLIB file and creates its distance matrix
+     * in a chosen storage.
+     * @param path The path of the file.
+     * @param storage How the distance and pheromone matrices are kept in memory.
+     * @return The problem, named after the TSPLIB NAME entry or the file name.
+     * @throws InstanceFormatException If a line of the file is malformed.
+     * @throws IOException If the file cannot be read.
+     */
+    public static Problem read(Path path, MatrixStorage storage) throws IOException {
+        InstanceReader reader = InstanceReader.read(path);
+        return new Problem(reader.getName(), reader.getX(), reader.getY(), reader.getDistanceType(), storage);
+    }
+
+    /**
+     * Creates the distance matrix based on node coordinates.
+     * The distances are symmetric, so every pair is calculated once and set for both directions, one row below the
+     * diagonal at a time by the fastest {@link DistanceKernel}.
+     * The matrix-free storage calculates nothing here, only when a distance is read.
+     * @param x The x-coordinates of the nodes.
+     * @param y The y-coordinates of the nodes.
+     * @param distanceType How the distance between two nodes is calculated.
+     * @param storage How the distance matrix is kept in memory.
+     * @return The distance matrix.
+     */
+    static SymmetricMatrix createDistances(double[] x, double[] y, DistanceType distanceType,
+                                           MatrixStorage storage) {
+        return createDistances(x, y, storage, DistanceKernel.create(distanceType));
+    }
+
+    /**
+     * Creates the distance matrix based on node coordinates with a chosen kernel.
+     * @param x The x-coordinates of the nodes.
+     * @param y The y-coordinates of the nodes.
+     * @param storage How the distance matrix is kept in memory.
+     * @param kernel The kernel calculating the distances, which also tells the distance type.
+     * @return The distance matrix.
+     */
+    static SymmetricMatrix createDistances(double[] x, double[] y, MatrixStorage storage, DistanceKernel kernel) {
+        DistanceType distanceType = kernel.getDistanceType();
+        if (storage == MatrixStorage.MATRIX_FREE) {
+            return new ComputedDistances(x, y, distanceType);
+        }
+        int numberOfNodes = x.length;
+        StoredMatrix distances = storage.createDistances(numberOfNodes, distanceType);
+
+        if (distances instanceof FullMatrix) {
+            // Fill in the rows below the diagonal in place and mirror them at the end
+            double[][] rows = ((FullMatrix) distances).getRows();
+            for (int i = 1; i < numberOfNodes; i++) {
+                kernel.distances(x, y, i, i, rows[i]);
+            }
+            ((FullMatrix) distances).mirrorLowerTriangle();
+            return distances;
+        }
+        double[] row = new double[numberOfNodes];
+        for (int i = 1; i < numberOfNodes; i++) {
+            kernel.distances(x, y, i, i, row);
+            distances.setRow(i, row);
+        }
+        return distances;
+    }
+
+    /**
+     * Adds a node after the last one. Only its own distances are calculated. The coordinate arrays are replaced,
+     * not grown in place.
+     * @param nodeX The x-coordinate of the new node.
+     * @param nodeY The y-coordinate of the new node.
+     * @return The index of the new node, the old number of nodes.
+     */
+    int addNode(double nodeX, double nodeY) {
+        int node = x.length;
+        x = Arrays.copyOf(x, node + 1);
+        y = Arrays.copyOf(y, node + 1);
+        x[node] = nodeX;
+        y[node] = nodeY;
+
+        distances.addNode();
+        if (distances instanceof ComputedDistances) {
+            ((ComputedDistances) distances).setCoordinates(x, y);
+            return node;
+        }
+        double[] row = new double[node];
+        DistanceKernel.create(distanceType).distances(x, y, node, node, row);
+        ((StoredMatrix) distances).setRow(node, row);
+        return node;
+    }
+
+    /**
+     * Removes a node. The nodes after it move down by one index. No distance is calculated. The coordinate arrays
+     * are replaced, not shrunk in place.
+     * @param node The node to remove.
+     */
+    void removeNode(int node) {
+        x = removeIndex(x, node);
+        y = removeIndex(y, node);
+        distances.removeNode(node);
+        if (distances instanceof ComputedDistances) {
+            ((ComputedDistances) distances).setCoordinates(x, y);
+        }
+    }
+
+    /**
+     * Moves a node, recalculating only its distances, in place.
+     * @param node The node to move.
+     * @param nodeX The new x-coordinate of the node.
+     * @param nodeY The new y-coordinate of the node.
+     */
+    void moveNode(int node, double nodeX, double nodeY) {
+        x[node] = nodeX;
+        y[node] = nodeY;
+        if (distances instanceof ComputedDistances) {
+            ((ComputedDistances) distances).setCoordinates(x, y);
+            return;
+        }
+        double[] row = new double[x.length];
+        DistanceKernel.create(distanceType).distances(x, y, node, x.length, row);
+        for (int i = 0; i < x.length; i++) {
+            if (i != node) {
+                ((StoredMatrix) distances).set(i, node, row[i]);
+            }
+        }
+    }
+
+    /**
+     * Copies an array without one of its elements.
+     * @param values The array.
+     * @param index The index of the element to leave out.
+     * @return The shorter copy.
+     */
+    static double[] removeIndex(double[] values, int index) {
+        double[] shorter = new double[values.length - 1];
+        System.arraycopy(values, 0, shorter, 0, index);
+        System.arraycopy(values, index + 1, shorter, index, values.length - index - 1);
+        return shorter;
+    }
+
+    /**
+     * Gets the name of the problem.
+     * @return The name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Gets the number of nodes.
+     * @return The number of nodes.
+     */
+    public int getNumberOfNodes() {
+        return x.length;
+    }
+
+    /**
+     * Gets the x-coordinates of the nodes. The array is shared, not copied, and is replaced when a node is added
+     * or removed.
+     * @return The x-coordinates, indexed by node.
+     */
+    public double[] getX() {
+        return x;
+    }
+
+    /**
+     * Gets the y-coordinates of the nodes. The array is shared, not copied, and is replaced when a node is added
+     * or removed.
+     * @return The y-coordinates, indexed by node.
+     */
+    public double[] getY() {
+        return y;
+    }
+
+    /**
+     * Gets how the distances between the nodes are calculated.
+     * @return The distance type.
+     */
+    public DistanceType getDistanceType() {
+        return distanceType;
+    }
+
+    /**
+     * Gets how the distance and pheromone matrices are kept in memory.
+     * @return The matrix storage.
+     */
+    public MatrixStorage getStorage() {
+        return storage;
+    }
+
+    /**
+     * Gets the distance between two nodes.
+     * @param start The first node.
+     * @param destination The second node.
+     * @return The distance.
+     */
+    public double getDistance(int start, int destination) {
+        return distances.get(start, destination);
+    }
+
+    /**
+     * Gets the share of the distance reads answered from the edge caches of the matrix-free storage.
+     * @return The hit rate between 0 and 1, or NaN for the other storages and before the first read.
+     */
+    public double getDistanceCacheHitRate() {
+        return distances instanceof ComputedDistances ? ((ComputedDistances) distances).getHitRate() : Double.NaN;
+    }
+
+    /**
+     * Gets the distances between the nodes, in the storage of the problem.
+     * @return The distances, which change in place when a node is added, removed or moved.
+     */
+    SymmetricMatrix getDistances() {
+        return distances;
+    }
+
+    /**
+     * Gets the distance matrix as a full matrix, for the exact solvers of small instances. With full storage the
+     * matrix is shared, not copied, and is replaced when a node is added or removed; a packed matrix is unpacked
+     * into a new full one, which takes the memory the packed storage was chosen to save, and the matrix-free
+     * storage calculates every distance into a new full one.
+     * @return The distance matrix.
+     */
+    public double[][] getDistanceMatrix() {
+        return distances instanceof FullMatrix ? ((FullMatrix) distances).getRows() : distances.toArray();
+    }
+}
@@ -0,0 +1,66 @@
+package com.serhattay.aco;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A class representing the in-process migration transport of the colonies of one program: every colony hands its
+ * tours to the queue of the next colony of a ring. The queues are bounded and drop their oldest tour when full,
+ * so a slow colony never holds up a fast one.
+ */
+public final class QueueTransport implements MigrationTransport {
+    // Tours kept for a colony that has not taken them yet
+    private static final int CAPACITY = 4;
+
+    private final BlockingQueue<Tour> inbox = new ArrayBlockingQueue<>(CAPACITY);
+    private QueueTransport next;
+
+    /**
+     * Constructs a transport that is not linked to a ring yet.
+     */
+    private QueueTransport() {
+    }
+
+    /**
+     * Creates the transports of a ring of colonies, each sending to the next one and the last one to the first.
+     * @param islandCount The number of colonies.
+     * @return The transports, one per colony.
+     */
+    public static QueueTransport[] ring(int islandCount) {
+        if (islandCount < 1) {
+            throw new IllegalArgumentException("Island count must be at least 1: " + islandCount);
+        }
+        QueueTransport[] transports = new QueueTransport[islandCount];
+        for (int i = 0; i < islandCount; i++) {
+            transports[i] = new QueueTransport();
+        }
+        for (int i = 0; i < islandCount; i++) {
+            transports[i].next = transports[(i + 1) % islandCount];
+        }
+        return transports;
+    }
+
+    /**
+     * Hands a tour to the next colony of the ring, dropping the oldest tour it has not taken if its queue is full.
+     * A ring of one colony sends its tours to itself, where they are never shorter than its own.
+     * @param tour The tour.
+     */
+    @Override
+    public void send(Tour tour) {
+        while (!next.inbox.offer(tour)) {
+            next.inbox.poll();
+        }
+    }
+
+    @Override
+    public Tour receive() {
+        return inbox.poll();
+    }
+
+    /**
+     * Does nothing, the queues need no cleaning up.
+     */
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,266 @@
+package com.serhattay.aco;
+
+/**
+ * A class representing an immutable picture of the colony at one moment: the nodes, the shortest path found
+ * so far and the strongest pheromone trails. Renderers only ever see snapshots, never the live state of the
+ * solver, so they can draw on their own thread at their own pace.
+ */
+public final class RenderSnapshot {
+    private final double[] x;
+    private final double[] y;
+    private final int[] tour;
+    private final double length;
+    private final int iteration;
+    private final int[] edgeStarts;
+    private final int[] edgeEnds;
+    private final double[] edgeWeights;
+
+    /**
+     * Constructs a snapshot from arrays the snapshot takes ownership of.
+     * @param x The x-coordinates of the nodes.
+     * @param y The y-coordinates of the nodes.
+     * @param tour The shortest path found so far, empty if there is none yet.
+     * @param length The length of the shortest path.
+     * @param iteration The number of iterations finished when the snapshot was taken.
+     * @param edgeStarts The first node of every pheromone edge to draw.
+     * @param edgeEnds The second node of every pheromone edge to draw.
+     * @param edgeWeights The pheromone of every edge to draw, between the weakest and the strongest one.
+     */
+    private RenderSnapshot(double[] x, double[] y, int[] tour, double length, int iteration,
+                           int[] edgeStarts, int[] edgeEnds, double[] edgeWeights) {
+        this.x = x;
+        this.y = y;
+        this.tour = tour;
+        this.length = length;
+        this.iteration = iteration;
+        this.edgeStarts = edgeStarts;
+        this.edgeEnds = edgeEnds;
+        this.edgeWeights = edgeWeights;
+    }
+
+    /**
+     * Takes a snapshot of a problem, a shortest path and the pheromones.
+     * Only the strongest edges of every node are kept, which takes one pass over the pheromone matrix
+     * but keeps the number of lines to draw linear in the number of nodes.
+     * @param problem The problem.
+     * @param shortestPath The shortest path found so far, or null if there is none.
+     * @param shortestDistance The length of the shortest path.
+     * @param pheromones The pheromone matrix, or null for drawing no pheromones.
+     * @param iteration The number of iterations finished.
+     * @param topEdges The number of strongest pheromone edges to keep per node, 0 for none.
+     * @return The snapshot.
+     */
+    static RenderSnapshot capture(Problem problem, int[] shortestPath, double shortestDistance,
+                                  PheromoneMatrix pheromones, int iteration, int topEdges) {
+        int numberOfNodes = problem.getNumberOfNodes();
+        int[] tour = shortestPath != null && shortestPath.length == numberOfNodes ? shortestPath.clone() : new int[0];
+
+        int edgesPerNode = pheromones != null ? Math.min(topEdges, numberOfNodes - 1) : 0;
+        // The matrix-free storage only has the stored edges of every node to choose from
+        for (int i = 0; edgesPerNode > 0 && i < numberOfNodes && pheromones.getStoredEdges(i) != null; i++) {
+            edgesPerNode = Math.min(edgesPerNode, pheromones.getStoredEdges(i).length);
+        }
+        int[] edgeStarts = new int[numberOfNodes * edgesPerNode];
+        int[] edgeEnds = new int[edgeStarts.length];
+        double[] edgeWeights = new double[edgeStarts.length];
+        if (edgesPerNode > 0) {
+            collectStrongestEdges(pheromones, numberOfNodes, edgesPerNode, edgeStarts, edgeEnds, edgeWeights);
+        }
+
+        return new RenderSnapshot(problem.getX().clone(), problem.getY().clone(), tour,
+                shortestDistance, iteration, edgeStarts, edgeEnds, edgeWeights);
+    }
+
+    /**
+     * Finds the strongest edges of every node with a small min-heap per row, then scales the weights
+     * so that the weakest kept edge has weight 0 and the strongest one weight 1.
+     * @param pheromones The pheromone matrix.
+     * @param numberOfNodes The number of nodes.
+     * @param edgesPerNode The number of edges to keep per node.
+     * @param edgeStarts Filled with the first node of every kept edge.
+     * @param edgeEnds Filled with the second node of every kept edge.
+     * @param edgeWeights Filled with the relative pheromone of every kept edge.
+     */
+    private static void collectStrongestEdges(PheromoneMatrix pheromones, int numberOfNodes, int edgesPerNode,
+                                              int[] edgeStarts, int[] edgeEnds, double[] edgeWeights) {
+        int[] heapNodes = new int[edgesPerNode];
+        double[] heapValues = new double[edgesPerNode];
+        double strongest = 0.0;
+        double weakest = Double.MAX_VALUE;
+        for (int i = 0; i < numberOfNodes; i++) {
+            int heapSize = 0;
+            // Only the stored edges of the matrix-free storage, all others keep the weakest trail
+            int[] edges = pheromones.getStoredEdges(i);
+            int count = edges != null ? edges.length : numberOfNodes;
+            for (int k = 0; k < count; k++) {
+                int j = edges != null ? edges[k] : k;
+                if (j == i) {
+                    continue;
+                }
+                double value = pheromones.getIntensity(i, j);
+                if (heapSize < edgesPerNode) {
+                    siftUp(heapNodes, heapValues, heapSize++, j, value);
+                } else if (value > heapValues[0]) {
+                    siftDown(heapNodes, heapValues, heapSize, j, value);
+                }
+            }
+            int offset = i * edgesPerNode;
+            for (int e = 0; e < edgesPerNode; e++) {
+                edgeStarts[offset + e] = i;
+                edgeEnds[offset + e] = heapNodes[e];
+                edgeWeights[offset + e] = heapValues[e];
+                strongest = Math.max(strongest, heapValues[e]);
+                weakest = Math.min(weakest, heapValues[e]);
+            }
+        }
+        double range = strongest - weakest;
+        for (int e = 0; e < edgeWeights.length; e++) {
+            edgeWeights[e] = range > 0.0 ? (edgeWeights[e] - weakest) / range : 1.0;
+        }
+    }
+
+    /**
+     * Adds an edge to the bottom of the min-heap and moves it up to its place.
+     * @param heapNodes The nodes of the heap.
+     * @param heapValues The pheromones of the heap, the weakest at the root.
+     * @param index The index of the new entry.
+     * @param node The end node of the edge.
+     * @param value The pheromone of the edge.
+     */
+    private static void siftUp(int[] heapNodes, double[] heapValues, int index, int node, double value) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (heapValues[parent] <= value) {
+                break;
+            }
+            heapNodes[index] = heapNodes[parent];
+            heapValues[index] = heapValues[parent];
+            index = parent;
+        }
+        heapNodes[index] = node;
+        heapValues[index] = value;
+    }
+
+    /**
+     * Replaces the weakest edge at the root of the full min-heap and moves the new edge down to its place.
+     * @param heapNodes The nodes of the heap.
+     * @param heapValues The pheromones of the heap, the weakest at the root.
+     * @param heapSize The number of entries of the heap.
+     * @param node The end node of the edge.
+     * @param value The pheromone of the edge.
+     */
+    private static void siftDown(int[] heapNodes, double[] heapValues, int heapSize, int node, double value) {
+        int index = 0;
+        while (true) {
+            int child = 2 * index + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heapValues[child + 1] < heapValues[child]) {
+                child++;
+            }
+            if (heapValues[child] >= value) {
+                break;
+            }
+            heapNodes[index] = heapNodes[child];
+            heapValues[index] = heapValues[child];
+            index = child;
+        }
+        heapNodes[index] = node;
+        heapValues[index] = value;
+    }
+
+    /**
+     * Gets the number of nodes.
+     * @return The number of nodes.
+     */
+    public int getNumberOfNodes() {
+        return x.length;
+    }
+
+    /**
+     * Gets the x-coordinate of a node.
+     * @param node The index of the node.
+     * @return The x-coordinate.
+     */
+    public double getX(int node) {
+        return x[node];
+    }
+
+    /**
+     * Gets the y-coordinate of a node.
+     * @param node The index of the node.
+     * @return The y-coordinate.
+     */
+    public double getY(int node) {
+        return y[node];
+    }
+
+    /**
+     * Gets the number of nodes on the shortest path.
+     * @return The number of nodes on the shortest path, 0 if there is none yet.
+     */
+    public int getTourSize() {
+        return tour.length;
+    }
+
+    /**
+     * Gets a node of the shortest path.
+     * @param position The position on the path.
+     * @return The node at that position.
+     */
+    public int getTourNode(int position) {
+        return tour[position];
+    }
+
+    /**
+     * Gets the length of the shortest path.
+     * @return The length of the shortest path.
+     */
+    public double getLength() {
+        return length;
+    }
+
+    /**
+     * Gets the number of iterations finished when the snapshot was taken.
+     * @return The number of iterations.
+     */
+    public int getIteration() {
+        return iteration;
+    }
+
+    /**
+     * Gets the number of pheromone edges to draw.
+     * @return The number of edges.
+     */
+    public int getEdgeCount() {
+        return edgeStarts.length;
+    }
+
+    /**
+     * Gets the first node of a pheromone edge.
+     * @param edge The index of the edge.
+     * @return The first node.
+     */
+    public int getEdgeStart(int edge) {
+        return edgeStarts[edge];
+    }
+
+    /**
+     * Gets the second node of a pheromone edge.
+     * @param edge The index of the edge.
+     * @return The second node.
+     */
+    public int getEdgeEnd(int edge) {
+        return edgeEnds[edge];
+    }
+
+    /**
+     * Gets the pheromone of an edge relative to the weakest and the strongest edge of the snapshot.
+     * @param edge The index of the edge.
+     * @return The weight, between 0 and 1.
+     */
+    public double getEdgeWeight(int edge) {
+        return edgeWeights[edge];
+    }
+}
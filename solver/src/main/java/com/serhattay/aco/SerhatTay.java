@@ -0,0 +1,405 @@
+package com.serhattay.aco;
+
+import edu.princeton.cs.algs4.StdDraw;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.nio.file.Paths;
+import java.util.Arrays;
+
+/**
+ * A class representing the main program for solving the Traveling Salesman Problem (TSP)
+ * using either the Brute-Force Method or the Ant Colony Optimization Method.
+ *
+ * @author Serhat Tay
+ * @since 11.05.2024
+ *1
+ */
+public class SerhatTay {
+    // Width and height in pixels of the images drawn in the PNG and live modes
+    private static final int CANVAS_SIZE = 600;
+
+    /**
+     * The main method of the program.
+     * @param args The command-line arguments (not used in this program).
+     */
+    public static void main(String[] args) {
+
+        // Constants for controlling the algorithm parameters and input file
+        // 1 for brute-force, 2 for ant-colony-optimization, 3 for held-karp dynamic programming,
+        // 4 for branch-and-bound
+        int chosenMethod = 2;
+        // 1 for printing shortest path, 2 for printing pheromones
+        int whichPrint = 1;
+        // 0 for no drawing at all, 1 for drawing on screen after the run, 2 for writing a PNG file after the run,
+        // 3 for showing the run live while it goes
+        final int RENDER_MODE = 1;
+        final String PNG_FILE = "shortest-path.png";
+        final int LIVE_FRAME_RATE = 10;
+        // Number of strongest pheromone edges drawn per node in the PNG and live modes
+        final int TOP_EDGES = 5;
+
+        final int ITERATION_COUNT = 100;
+        final int ANT_PER_ITERATION = 50;
+        final double DEGRADATION_FACTOR = 0.8;
+        final double ALPHA = 1.1;
+        final double BETA = 1.6;
+        final double INITIAL_PHEROMONE_INTENSITY = 0.01;
+        final double Q_VALUE = 0.0001;
+        // 1 for the sequential colony, more to build the ants of each iteration in parallel
+        final int THREAD_COUNT = 1;
+        // Number of nearest neighbours an ant chooses from, 0 for scanning every node
+        final int CANDIDATE_LIST_SIZE = 0;
+        // 1 for Ant System, 2 for Max-Min Ant System, 3 for Ant Colony System
+        final int PHEROMONE_STRATEGY = 1;
+        // Iterations without a shorter path before the pheromones are reset, 0 for never
+        final int STAGNATION_LIMIT = 0;
+        // 0 for no local search, 1 for improving every tour, 2 for improving the iteration-best tour
+        final int LOCAL_SEARCH = 0;
+        // The colony stops early at whichever of these comes first, 0 for each one that is not used:
+        // a wall-clock budget in milliseconds, a good enough tour length and a number of iterations without improvement
+        final long TIME_LIMIT = 0;
+        final double TARGET_LENGTH = 0.0;
+        final int CONVERGENCE_LIMIT = 0;
+        // Whether every new shortest path is printed as soon as the colony finds it
+        final boolean PRINT_IMPROVEMENTS = false;
+        // 0 for no telemetry file, 1 for one CSV line per iteration, 2 for one JSON object per iteration.
+        // The same telemetry is recorded as Flight Recorder events whenever a recording is running.
+        final int TELEMETRY = 0;
+        final String TELEMETRY_FILE = "telemetry.csv";
+        // Iterations between two saves of the colony to CHECKPOINT_FILE, 0 for never saving it
+        final int CHECKPOINT_INTERVAL = 0;
+        final String CHECKPOINT_FILE = "colony.checkpoint";
+        // 0 to start afresh, 1 to resume the run saved in CHECKPOINT_FILE up to ITERATION_COUNT,
+        // 2 to warm start from its shortest path, for an instance that has changed a little since
+        final int RESUME_MODE = 0;
+        // How much stronger the edges of the warm start path are than all other edges at the start
+        final double WARM_START_WEIGHT = 1.0;
+
+        // 0 for full distance and pheromone matrices, 1 for packed triangles of doubles with the same results,
+        // 2 for compact triangles with float pheromones and integer TSPLIB distances, 3 for no matrix at all:
+        // distances calculated from the coordinates and pheromones kept for candidate edges only, for huge instances
+        final int MATRIX_STORAGE = 0;
+
+        // Number of independent colonies, each with its own pheromones and thread, 1 for a single colony
+        final int ISLAND_COUNT = 1;
+        // Iterations between two exchanges of the shortest paths of the colonies
+        final int MIGRATION_INTERVAL = 10;
+        // 0 to keep the colonies within this program, otherwise the port this program listens on for the tours of
+        // other copies of it, as one colony of a ring of programs that sends its tours to the next one
+        final int MIGRATION_PORT = 0;
+        // Address this program listens on: the loopback address for programs on one host, or the address of this
+        // host on the network of the others, which must not be reachable by anyone else
+        final String MIGRATION_BIND_ADDRESS = "localhost";
+        final String MIGRATION_PEER_HOST = "localhost";
+        final int MIGRATION_PEER_PORT = 5002;
+
+        // 0 for one colony over all nodes, otherwise the most nodes of a cluster: the nodes are split into spatial
+        // clusters that are solved by colonies of their own, several at a time, and stitched into one tour
+        final int CLUSTER_SIZE = 0;
+
+        // Whether branch-and-bound starts from the ant colony result as its upper bound
+        final boolean SEED_WITH_ACO = true;
+
+        final String FILE_NAME = "misc/input05.txt";
+
+        // Record the starting time of the algorithm
+        long startingTime = System.currentTimeMillis();
+
+        // Read nodes from the input file and create the distance matrix
+        try {
+            Node.readNodesFromFile(FILE_NAME);
+        } catch (IOException ex) {
+            System.out.println("Could not read " + FILE_NAME + ": " + ex.getMessage());
+            return;
+        }
+        Node.createDistanceMatrix(MatrixStorage.values()[MATRIX_STORAGE]);
+
+        final LiveRenderer liveRenderer = RENDER_MODE == 3
+                ? new LiveRenderer(LIVE_FRAME_RATE, TOP_EDGES, CANVAS_SIZE, CANVAS_SIZE) : null;
+        if (liveRenderer != null) {
+            liveRenderer.start();
+        }
+        Pheromone.setSolverSetup(solver -> solver.setLiveRenderer(liveRenderer));
+
+        // Choose the method for solving the TSP and execute it
+        if (chosenMethod == 1) {
+            bruteForce();
+        } else if (chosenMethod == 2) {
+            Pheromone.setTimeLimit(TIME_LIMIT);
+            MigrationTransport[] transports = null;
+            if (MIGRATION_PORT != 0) {
+                try {
+                    transports = new MigrationTransport[] {
+                        new SocketTransport(InetAddress.getByName(MIGRATION_BIND_ADDRESS), MIGRATION_PORT,
+                                MIGRATION_PEER_HOST, MIGRATION_PEER_PORT)};
+                } catch (IOException ex) {
+                    System.out.println("Could not listen on port " + MIGRATION_PORT + ": " + ex.getMessage());
+                    return;
+                }
+            } else if (ISLAND_COUNT > 1) {
+                transports = QueueTransport.ring(ISLAND_COUNT);
+            }
+            Pheromone.setIslands(transports, MIGRATION_INTERVAL);
+            Pheromone.setClusterSize(CLUSTER_SIZE);
+            Checkpoint previous = null;
+            if (RESUME_MODE != 0) {
+                try {
+                    previous = Checkpoint.read(Paths.get(CHECKPOINT_FILE));
+                } catch (IOException ex) {
+                    System.out.println("Could not read " + CHECKPOINT_FILE + ": " + ex.getMessage());
+                    return;
+                }
+            }
+            TelemetryWriter telemetry = null;
+            if (TELEMETRY != 0) {
+                try {
+                    telemetry = TelemetryWriter.open(Paths.get(TELEMETRY_FILE),
+                            TELEMETRY == 1 ? TelemetryWriter.Format.CSV : TelemetryWriter.Format.JSON_LINES);
+                } catch (IOException ex) {
+                    System.out.println("Could not open " + TELEMETRY_FILE + ": " + ex.getMessage());
+                    return;
+                }
+            }
+            final IterationListener iterationListener = telemetry;
+            Pheromone.setSolverSetup(solver -> {
+                solver.setLiveRenderer(liveRenderer);
+                solver.setIterationListener(iterationListener);
+                solver.setThreadCount(THREAD_COUNT);
+                solver.setCandidateListSize(CANDIDATE_LIST_SIZE);
+                solver.setStagnationLimit(STAGNATION_LIMIT);
+                solver.setLocalSearch(LOCAL_SEARCH);
+                solver.setTargetLength(TARGET_LENGTH);
+                solver.setConvergenceLimit(CONVERGENCE_LIMIT);
+                if (PRINT_IMPROVEMENTS) {
+                    solver.setImprovementListener((tour, iteration, elapsedNanos) ->
+                            System.out.printf("Iteration %d, %.2f seconds: %.5f%n", iteration + 1,
+                                    elapsedNanos / 1e9, tour.getLength()));
+                }
+                // Every colony of an island model or of clusters needs an update rule of its own
+                if (PHEROMONE_STRATEGY == 2) {
+                    solver.setStrategy(new MaxMinAntSystem(DEGRADATION_FACTOR, Q_VALUE, false));
+                } else if (PHEROMONE_STRATEGY == 3) {
+                    solver.setStrategy(new AntColonySystem(0.9, 0.1, 1.0 - DEGRADATION_FACTOR, Q_VALUE));
+                }
+                solver.setCheckpoint(Paths.get(CHECKPOINT_FILE), CHECKPOINT_INTERVAL);
+            });
+            if (RESUME_MODE == 2) {
+                Pheromone.setWarmStart(previous, WARM_START_WEIGHT);
+            }
+            if (RESUME_MODE == 1) {
+                try {
+                    Pheromone.resume(previous, ITERATION_COUNT, RENDER_MODE == 1 ? whichPrint : 0);
+                } catch (IOException ex) {
+                    System.out.println("Could not resume from " + CHECKPOINT_FILE + ": " + ex.getMessage());
+                    return;
+                }
+            } else {
+                Pheromone.fullIteration(ITERATION_COUNT, ANT_PER_ITERATION, DEGRADATION_FACTOR,
+                ALPHA, BETA, INITIAL_PHEROMONE_INTENSITY, Q_VALUE, RENDER_MODE == 1 ? whichPrint : 0);
+            }
+            if (telemetry != null) {
+                try {
+                    telemetry.close();
+                } catch (IOException ex) {
+                    System.out.println("Could not write " + TELEMETRY_FILE + ": " + ex.getMessage());
+                }
+            }
+            for (int i = 0; transports != null && i < transports.length; i++) {
+                try {
+                    transports[i].close();
+                } catch (IOException ex) {
+                    System.out.println("Could not close the migration transport: " + ex.getMessage());
+                }
+            }
+        } else if (chosenMethod == 3) {
+            heldKarp();
+        } else if (chosenMethod == 4) {
+            if (SEED_WITH_ACO) {
+                Pheromone.fullIteration(ITERATION_COUNT, ANT_PER_ITERATION, DEGRADATION_FACTOR,
+                ALPHA, BETA, INITIAL_PHEROMONE_INTENSITY, Q_VALUE, 0);
+            }
+            branchAndBound();
+        }
+
+        // Record the finishing time of the algorithm
+        long finishingTime = System.currentTimeMillis();
+        if (RENDER_MODE == 1 && chosenMethod != 2) {
+            drawShortestPath();
+        } else if (RENDER_MODE == 2) {
+            RenderSnapshot snapshot = captureSnapshot(TOP_EDGES);
+            try {
+                SnapshotPainter.writePng(snapshot, Paths.get(PNG_FILE), CANVAS_SIZE, CANVAS_SIZE,
+                        whichPrint == 2, whichPrint != 2 || chosenMethod != 2);
+            } catch (IOException ex) {
+                System.out.println("Could not write " + PNG_FILE + ": " + ex.getMessage());
+            }
+        } else if (liveRenderer != null) {
+            liveRenderer.finish(captureSnapshot(TOP_EDGES));
+        }
+        // Print the shortest path found and the time taken by the algorithm
+        printShortestPath(chosenMethod, finishingTime - startingTime);
+    }
+
+    /**
+     * Prints information about the shortest path found and the time taken by the algorithm.
+     * @param chosenMethod The chosen method for solving the TSP (1 for Brute-Force, 2 for Ant Colony Optimization,
+     *                     3 for Held-Karp, 4 for Branch-and-Bound).
+     * @param time The time taken by the algorithm in milliseconds.
+     */
+    public static void printShortestPath(int chosenMethod, long time) {
+        if (chosenMethod == 1) {
+            System.out.println("Method: Brute-Force Method");
+        } else if (chosenMethod == 2) {
+            System.out.println("Method: Ant Colony Optimization Method");
+        } else if (chosenMethod == 3) {
+            System.out.println("Method: Held-Karp Dynamic Programming Method");
+        } else if (chosenMethod == 4) {
+            System.out.println("Method: Branch-and-Bound Method");
+        }
+
+        if (chosenMethod == 2 && Pheromone.getClusterCount() > 0) {
+            System.out.println("Clusters: " + Pheromone.getClusterCount());
+        } else if (chosenMethod == 2) {
+            System.out.println("Stopped by: " + Pheromone.getStopReason());
+        }
+        if (Node.getShortestPath() == null) {
+            // Only a run without iterations or ants ends without a tour
+            System.out.println("Shortest Distance: no tour found");
+            System.out.println("Shortest Path: no tour found");
+        } else {
+            System.out.printf("Shortest Distance: %.5f\n", Node.getShortestDistance());
+            System.out.println("Shortest Path: " + pathRedesign(Node.getShortestPath()));
+        }
+
+        double hitRate = Node.getProblem().getDistanceCacheHitRate();
+        if (!Double.isNaN(hitRate)) {
+            System.out.printf("Distance cache hit rate: %.1f%%\n", hitRate * 100.0);
+        }
+
+        System.out.printf("Time it takes to find the shortest path: %.2f seconds.", time / 1000.0);
+    }
+
+    /**
+     * Sets up the canvas and draws the shortest path found by one of the exact methods.
+     */
+    private static void drawShortestPath() {
+        Node.canvasSetup();
+        Node.drawLines();
+        Node.drawPoints();
+        StdDraw.show();
+    }
+
+    /**
+     * Takes a snapshot of the shortest path found and of the pheromones of the last colony run, if there was one.
+     * @param topEdges The number of strongest pheromone edges to keep per node.
+     * @return The snapshot.
+     */
+    private static RenderSnapshot captureSnapshot(int topEdges) {
+        return RenderSnapshot.capture(Node.getProblem(), Node.getShortestPath(), Node.getShortestDistance(),
+                Pheromone.getPheromoneMatrix(), Pheromone.getCompletedIterations(), topEdges);
+    }
+
+    /**
+     * Redesigns the shortest path to start and end at node 1.
+     * @param shortestPath The array representing the shortest path found.
+     * @return A string representation of the redesigned shortest path.
+     */
+    private static String pathRedesign(int[] shortestPath) {
+        int startingIndex = 0;
+        for (int i = 0; i < Node.getNumberOfNodes(); i++) {
+            if (shortestPath[i] == 0) {
+                startingIndex = i;
+                break;
+            }
+        }
+
+        int[] redesignedArray = new int[Node.getNumberOfNodes() + 1];
+        for (int i = startingIndex; i < Node.getNumberOfNodes() + startingIndex; i++) {
+            redesignedArray[i - startingIndex] = shortestPath[i % Node.getNumberOfNodes()] + 1;
+        }
+        redesignedArray[Node.getNumberOfNodes()] = 1;
+        return Arrays.toString(redesignedArray);
+    }
+
+    /**
+     * Solves the TSP using the Brute-Force Method.
+     */
+    public static void bruteForce() {
+        // Generate the default order of nodes
+        Integer[] defaultOrder = new Integer[Node.getNumberOfNodes() - 1];
+        for (int i = 0; i < Node.getNumberOfNodes() - 1; i++) {
+            defaultOrder[i] = i + 1;
+        }
+
+        // Permute the default order to find the shortest path
+        permute(defaultOrder, 0);
+
+        // Redesign and set the shortest path to start and end at node 1
+        int[] shortestPath = new int[Node.getNumberOfNodes()];
+        System.arraycopy(Node.getShortestPath(), 0, shortestPath, 1, Node.getShortestPath().length);
+        shortestPath[0] = 0;
+        Node.setShortestPath(shortestPath);
+    }
+
+    /**
+     * Solves the TSP exactly using the Held-Karp Dynamic Programming Method.
+     */
+    public static void heldKarp() {
+        HeldKarp solver = new HeldKarp(Node.getDistanceMatrix());
+        solver.solve();
+        Node.setShortestDistance(solver.getShortestDistance());
+        Node.setShortestPath(solver.getShortestPath());
+    }
+
+    /**
+     * Solves the TSP exactly using the Branch-and-Bound Method.
+     * If a shortest path is already known, for example from the ant colony, it is used as the starting upper bound.
+     */
+    public static void branchAndBound() {
+        BranchAndBound solver = new BranchAndBound(Node.getDistanceMatrix());
+        if (Node.getShortestPath() != null) {
+            solver.setUpperBound(Node.getShortestPath(), Node.getShortestDistance());
+        }
+        solver.solve();
+        Node.setShortestDistance(solver.getShortestDistance());
+        Node.setShortestPath(solver.getShortestPath());
+    }
+
+    /**
+     * Recursively permutes the given array to find all possible orders of nodes.
+     * @param arr The array of node indices to permute.
+     * @param k The current index of the array being permuted.
+     */
+    private static void permute(Integer[] arr, int k) {
+        if (k == Node.getNumberOfNodes() - 1) {
+            // Calculate the distance of the current permutation and update the shortest path if necessary
+            Problem problem = Node.getProblem();
+            double distance = 0.0;
+            for (int i = 0; i < arr.length - 1; i++) {
+                distance += problem.getDistance(arr[i], arr[i + 1]);
+            }
+            distance += problem.getDistance(0, arr[0]);
+            distance += problem.getDistance(0, arr[arr.length - 1]);
+
+            if (distance < Node.getShortestDistance()) {
+                int[] path = new int[arr.length];
+                for (int i = 0; i < arr.length; i++) {
+                    path[i] = arr[i];
+                }
+                Node.setShortestDistance(distance);
+                Node.setShortestPath(path);
+            }
+        } else {
+            // Swap elements at index k with each element at indices >= k
+            for (int i = k; i < arr.length; i++) {
+                Integer temp = arr[i];
+                arr[i] = arr[k];
+                arr[k] = temp;
+                permute(arr, k + 1);
+                arr[k] = arr[i];
+                arr[i] = temp;
+            }
+        }
+    }
+}
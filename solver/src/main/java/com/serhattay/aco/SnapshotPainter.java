@@ -0,0 +1,153 @@
+package com.serhattay.aco;
+
+import javax.imageio.ImageIO;
+import java.awt.BasicStroke;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.Line2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * A class representing the drawing of snapshots onto images, without StdDraw, so that it also works
+ * on machines without a display. The nodes are scaled to fill the image whatever their coordinate range.
+ */
+public final class SnapshotPainter {
+    // Share of the image kept empty around the nodes
+    private static final double MARGIN = 0.05;
+    // Node numbers are only written when they still fit next to each other
+    private static final int MAX_LABELLED_NODES = 100;
+    private static final Color PHEROMONE_COLOR = new Color(120, 120, 200);
+    private static final Color START_COLOR = new Color(245, 128, 37);
+    private static final Color NODE_COLOR = new Color(200, 200, 200);
+
+    private SnapshotPainter() {
+    }
+
+    /**
+     * Draws a snapshot onto a new image.
+     * @param snapshot The snapshot to draw.
+     * @param width The width of the image in pixels.
+     * @param height The height of the image in pixels.
+     * @param drawPheromones Whether to draw the pheromone edges of the snapshot.
+     * @param drawPath Whether to draw the shortest path of the snapshot.
+     * @return The image.
+     */
+    public static BufferedImage paint(RenderSnapshot snapshot, int width, int height,
+                                      boolean drawPheromones, boolean drawPath) {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, width, height);
+            if (snapshot.getNumberOfNodes() > 0) {
+                paintNodes(g, snapshot, width, height, drawPheromones, drawPath);
+            }
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    /**
+     * Draws a snapshot and writes it to a PNG file.
+     * @param snapshot The snapshot to draw.
+     * @param file The file to write.
+     * @param width The width of the image in pixels.
+     * @param height The height of the image in pixels.
+     * @param drawPheromones Whether to draw the pheromone edges of the snapshot.
+     * @param drawPath Whether to draw the shortest path of the snapshot.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writePng(RenderSnapshot snapshot, Path file, int width, int height,
+                                boolean drawPheromones, boolean drawPath) throws IOException {
+        BufferedImage image = paint(snapshot, width, height, drawPheromones, drawPath);
+        if (!ImageIO.write(image, "png", file.toFile())) {
+            throw new IOException("No PNG writer is available");
+        }
+    }
+
+    /**
+     * Draws the pheromone edges, the shortest path and the nodes, in that order.
+     * @param g The graphics of the image.
+     * @param snapshot The snapshot to draw.
+     * @param width The width of the image in pixels.
+     * @param height The height of the image in pixels.
+     * @param drawPheromones Whether to draw the pheromone edges.
+     * @param drawPath Whether to draw the shortest path.
+     */
+    private static void paintNodes(Graphics2D g, RenderSnapshot snapshot, int width, int height,
+                                   boolean drawPheromones, boolean drawPath) {
+        int numberOfNodes = snapshot.getNumberOfNodes();
+
+        // Fit the bounding box of the nodes into the image, keeping the aspect ratio
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < numberOfNodes; i++) {
+            minX = Math.min(minX, snapshot.getX(i));
+            maxX = Math.max(maxX, snapshot.getX(i));
+            minY = Math.min(minY, snapshot.getY(i));
+            maxY = Math.max(maxY, snapshot.getY(i));
+        }
+        double span = Math.max(Math.max(maxX - minX, maxY - minY), Double.MIN_NORMAL);
+        double size = Math.min(width, height) * (1.0 - 2.0 * MARGIN);
+        double scale = size / span;
+        double offsetX = (width - (maxX - minX) * scale) / 2.0;
+        double offsetY = (height - (maxY - minY) * scale) / 2.0;
+        double[] px = new double[numberOfNodes];
+        double[] py = new double[numberOfNodes];
+        for (int i = 0; i < numberOfNodes; i++) {
+            px[i] = offsetX + (snapshot.getX(i) - minX) * scale;
+            py[i] = height - (offsetY + (snapshot.getY(i) - minY) * scale);
+        }
+
+        Line2D.Double line = new Line2D.Double();
+        if (drawPheromones) {
+            g.setColor(PHEROMONE_COLOR);
+            for (int e = 0; e < snapshot.getEdgeCount(); e++) {
+                g.setStroke(new BasicStroke((float) (0.5 + 3.0 * snapshot.getEdgeWeight(e))));
+                line.setLine(px[snapshot.getEdgeStart(e)], py[snapshot.getEdgeStart(e)],
+                        px[snapshot.getEdgeEnd(e)], py[snapshot.getEdgeEnd(e)]);
+                g.draw(line);
+            }
+        }
+
+        int tourSize = snapshot.getTourSize();
+        if (drawPath && tourSize > 0) {
+            g.setColor(Color.BLACK);
+            g.setStroke(new BasicStroke(2.0f));
+            for (int i = 0; i < tourSize; i++) {
+                int node1 = snapshot.getTourNode(i);
+                int node2 = snapshot.getTourNode((i + 1) % tourSize);
+                line.setLine(px[node1], py[node1], px[node2], py[node2]);
+                g.draw(line);
+            }
+        }
+
+        double radius = Math.max(1.5, Math.min(10.0, size / Math.sqrt(numberOfNodes) / 6.0));
+        Ellipse2D.Double circle = new Ellipse2D.Double();
+        for (int i = 0; i < numberOfNodes; i++) {
+            g.setColor(i == 0 ? START_COLOR : NODE_COLOR);
+            circle.setFrame(px[i] - radius, py[i] - radius, 2 * radius, 2 * radius);
+            g.fill(circle);
+            if (numberOfNodes <= MAX_LABELLED_NODES) {
+                g.setColor(Color.BLACK);
+                String label = String.valueOf(i + 1);
+                g.drawString(label, (float) (px[i] - g.getFontMetrics().stringWidth(label) / 2.0),
+                        (float) (py[i] + g.getFontMetrics().getAscent() / 2.0 - 1));
+            }
+        }
+
+        if (tourSize > 0) {
+            g.setColor(Color.BLACK);
+            g.drawString(String.format("Iteration %d, shortest distance %.5f", snapshot.getIteration(), snapshot.getLength()),
+                    5, g.getFontMetrics().getAscent() + 2);
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.serhattay.aco;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A class representing a migration transport over TCP sockets, so that colonies in separate programs, on the same
+ * host or on different ones, can form an island model. Every program listens on a port for the tours of the
+ * others and sends its own tours to one peer, usually the next program of a ring.
+ * Sending is best effort and never holds up the colony: the tours wait in a small outbox that drops its oldest tour
+ * when full, and a sender thread of its own connects and writes them. While the peer is not reachable the tours are
+ * dropped and counted, and the connection is tried again less and less often, so the programs may be started in
+ * any order. The transport listens on the loopback address unless it is given another one, since it takes the
+ * tours of anyone who connects.
+ */
+public final class SocketTransport implements MigrationTransport {
+    // Marks the start of every message, so that a stray connection is noticed and dropped
+    private static final int MAGIC = 0x41434F54;
+    // Tours kept for the colony that has not taken them yet, and tours waiting to be sent
+    private static final int CAPACITY = 4;
+    // How long a connection to the peer is tried before the tour is dropped
+    private static final int CONNECT_TIMEOUT_MILLIS = 1000;
+    // Wait before the first connection is tried again, doubled after every failure up to the longest wait
+    private static final long FIRST_RETRY_MILLIS = 100;
+    private static final long LONGEST_RETRY_MILLIS = 10_000;
+    // Largest tour accepted from a connection, to stop a corrupt length from allocating gigabytes
+    private static final int MAX_NODES = 1 << 26;
+
+    private final ServerSocket server;
+    private final InetSocketAddress peer;
+    private final BlockingQueue<Tour> inbox = new ArrayBlockingQueue<>(CAPACITY);
+    private final BlockingQueue<Tour> outbox = new ArrayBlockingQueue<>(CAPACITY);
+    private final List<Socket> connections = new CopyOnWriteArrayList<>();
+    private final Thread sendThread;
+    // Only the send thread connects and writes; close may close the socket from any thread
+    private volatile Socket outgoing;
+    private DataOutputStream output;
+    private final AtomicLong droppedTours = new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * Constructs a transport that listens on the loopback address, for the programs of one host, and starts
+     * listening for their tours.
+     * @param port The port to listen on, 0 for any free port.
+     * @param peerHost The host of the program the tours are sent to.
+     * @param peerPort The port that program listens on.
+     * @throws IOException If the port cannot be listened on.
+     */
+    public SocketTransport(int port, String peerHost, int peerPort) throws IOException {
+        this(InetAddress.getLoopbackAddress(), port, peerHost, peerPort);
+    }
+
+    /**
+     * Constructs a transport that listens on a chosen address and starts listening for the tours of other programs.
+     * Any host that can reach the address may send tours, so it should only be reachable by the other programs.
+     * @param bindAddress The address to listen on, such as the address of the host on the network of the others.
+     * @param port The port to listen on, 0 for any free port.
+     * @param peerHost The host of the program the tours are sent to.
+     * @param peerPort The port that program listens on.
+     * @throws IOException If the port cannot be listened on.
+     */
+    public SocketTransport(InetAddress bindAddress, int port, String peerHost, int peerPort) throws IOException {
+        server = new ServerSocket(port, 0, bindAddress);
+        peer = new InetSocketAddress(peerHost, peerPort);
+        Thread acceptThread = new Thread(this::acceptLoop, "aco-migration-" + server.getLocalPort());
+        acceptThread.setDaemon(true);
+        acceptThread.start();
+        sendThread = new Thread(this::sendLoop, "aco-migration-send-" + server.getLocalPort());
+        sendThread.setDaemon(true);
+        sendThread.start();
+    }
+
+    /**
+     * Gets the port the transport listens on, which is chosen by the system when it was constructed with port 0.
+     * @return The port.
+     */
+    public int getLocalPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Gets the number of tours that were not sent, because the peer was not reachable or the outbox was full.
+     * @return The number of dropped tours.
+     */
+    public long getDroppedTours() {
+        return droppedTours.get();
+    }
+
+    /**
+     * Hands a tour to the sender thread without waiting, dropping the oldest tour that has not been sent yet if the
+     * outbox is full.
+     * @param tour The tour.
+     * @throws IOException If the transport is closed.
+     */
+    @Override
+    public void send(Tour tour) throws IOException {
+        if (closed) {
+            throw new IOException("The migration transport is closed");
+        }
+        while (!outbox.offer(tour)) {
+            if (outbox.poll() != null) {
+                droppedTours.incrementAndGet();
+            }
+        }
+    }
+
+    @Override
+    public Tour receive() throws IOException {
+        if (closed) {
+            throw new IOException("The migration transport is closed");
+        }
+        return inbox.poll();
+    }
+
+    /**
+     * Stops listening and closes every connection.
+     * @throws IOException If the listening socket cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        sendThread.interrupt();
+        closeOutgoing();
+        for (Socket connection : connections) {
+            closeQuietly(connection);
+        }
+        server.close();
+    }
+
+    /**
+     * Sends the tours of the outbox to the peer until the transport is closed, connecting first whenever there is
+     * no connection. A tour that cannot be sent is dropped, and after a failed connection the next one is only tried
+     * once a wait has passed that doubles with every failure in a row.
+     */
+    private void sendLoop() {
+        long retryWait = FIRST_RETRY_MILLIS;
+        long nextAttempt = System.nanoTime();
+        while (!closed) {
+            Tour tour;
+            try {
+                tour = outbox.poll(LONGEST_RETRY_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                // Interrupted by close
+                return;
+            }
+            if (tour == null) {
+                continue;
+            }
+            try {
+                if (output == null) {
+                    if (System.nanoTime() - nextAttempt < 0) {
+                        droppedTours.incrementAndGet();
+                        continue;
+                    }
+                    Socket socket = new Socket();
+                    outgoing = socket;
+                    socket.connect(peer, CONNECT_TIMEOUT_MILLIS);
+                    socket.setTcpNoDelay(true);
+                    output = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                    retryWait = FIRST_RETRY_MILLIS;
+                }
+                output.writeInt(MAGIC);
+                output.writeInt(tour.size());
+                output.writeDouble(tour.getLength());
+                for (int position = 0; position < tour.size(); position++) {
+                    output.writeInt(tour.getNode(position));
+                }
+                output.flush();
+            } catch (IOException ex) {
+                // The peer is not up yet or has gone away
+                closeOutgoing();
+                droppedTours.incrementAndGet();
+                nextAttempt = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryWait);
+                retryWait = Math.min(2 * retryWait, LONGEST_RETRY_MILLIS);
+            }
+        }
+        closeOutgoing();
+    }
+
+    /**
+     * Accepts the connections of other programs until the transport is closed, reading each on its own thread.
+     */
+    private void acceptLoop() {
+        while (!closed) {
+            Socket connection;
+            try {
+                connection = server.accept();
+            } catch (IOException ex) {
+                // Thrown by close, or by a connection that failed before it was accepted
+                continue;
+            }
+            connections.add(connection);
+            Thread readThread = new Thread(() -> readLoop(connection),
+                    "aco-migration-" + connection.getRemoteSocketAddress());
+            readThread.setDaemon(true);
+            readThread.start();
+        }
+    }
+
+    /**
+     * Reads the tours of one connection into the inbox until the connection ends or sends something that is not
+     * a tour, dropping the oldest tour when the inbox is full.
+     * @param connection The connection.
+     */
+    private void readLoop(Socket connection) {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(connection.getInputStream()))) {
+            while (!closed) {
+                if (input.readInt() != MAGIC) {
+                    return;
+                }
+                int size = input.readInt();
+                if (size < 0 || size > MAX_NODES) {
+                    return;
+                }
+                double length = input.readDouble();
+                int[] nodes = new int[size];
+                for (int position = 0; position < size; position++) {
+                    nodes[position] = input.readInt();
+                }
+                Tour tour = new Tour(nodes, length);
+                while (!inbox.offer(tour)) {
+                    inbox.poll();
+                }
+            }
+        } catch (IOException ex) {
+            // The connection has ended
+        } finally {
+            connections.remove(connection);
+            closeQuietly(connection);
+        }
+    }
+
+    /**
+     * Closes the connection to the peer, if there is one, so that the next tour connects again. Called by close
+     * from any thread it also ends a write that the peer has stopped reading.
+     */
+    private void closeOutgoing() {
+        Socket socket = outgoing;
+        if (socket != null) {
+            closeQuietly(socket);
+        }
+        if (Thread.currentThread() == sendThread) {
+            outgoing = null;
+            output = null;
+        }
+    }
+
+    /**
+     * Closes a socket, ignoring that it may be closed already.
+     * @param socket The socket.
+     */
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ex) {
+            // Nothing left to clean up
+        }
+    }
+}
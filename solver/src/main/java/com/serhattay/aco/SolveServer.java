@@ -0,0 +1,721 @@
+package com.serhattay.aco;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A class representing a long-lived solve server on the loopback address, so that a service solving many instances
+ * does not start a new JVM for every one of them. It answers two requests:
+ * - POST /solve with an instance in the body, "x,y" lines or a TSPLIB file, and the parameters of the colony in the
+ *   query, for example /solve?iterations=200&amp;ants=30&amp;seed=7, with the shortest tour as a JSON object.
+ * - GET /stats with the queue depth, the cache counters and the latency percentiles as a JSON object.
+ * Every instance is solved by one thread of a shared pool of workers, several instances at a time. Requests for an
+ * instance that is already being solved wait for that run instead of starting another one, and the results are kept
+ * in a bounded cache, the least recently used one dropped first, keyed by the SHA-256 hash of the coordinates, the
+ * distance type and the parameters, so a repeated instance is answered at once.
+ */
+public class SolveServer implements Closeable {
+    // Largest request body read, larger instances are refused
+    private static final int MAX_REQUEST_BYTES = 1 << 28;
+    // Threads reading the requests and writing the answers, the solving is done by the workers
+    private static final int HTTP_THREADS = 4;
+    // Number of the latest requests the latency percentiles are taken over
+    private static final int LATENCY_WINDOW = 1024;
+    // Largest candidate list size a request may ask for, since every node keeps a list that long
+    static final int MAX_CANDIDATES = 100;
+
+    private final HttpServer server;
+    private final ExecutorService httpThreads;
+    private final ThreadPoolExecutor workers;
+    private final ResultCache cache;
+    private final Map<String, CompletableFuture<Result>> inFlight = new ConcurrentHashMap<>();
+    private final LatencyWindow latencies = new LatencyWindow(LATENCY_WINDOW);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder joined = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Constructs a solve server and starts listening.
+     * @param port The port to listen on, 0 for any free one.
+     * @param threadCount The number of instances solved at the same time.
+     * @param queueCapacity The number of instances that may wait for a worker, more are refused.
+     * @param cacheCapacity The number of results kept in the cache.
+     * @throws IOException If the port cannot be listened on.
+     */
+    public SolveServer(int port, int threadCount, int queueCapacity, int cacheCapacity) throws IOException {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1: " + threadCount);
+        }
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be at least 1: " + queueCapacity);
+        }
+        if (cacheCapacity < 0) {
+            throw new IllegalArgumentException("Cache capacity cannot be negative: " + cacheCapacity);
+        }
+        cache = new ResultCache(cacheCapacity);
+        workers = new ThreadPoolExecutor(threadCount, threadCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads("aco-solve-"));
+        httpThreads = Executors.newFixedThreadPool(HTTP_THREADS, daemonThreads("aco-http-"));
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.setExecutor(httpThreads);
+        server.createContext("/solve", this::handleSolve);
+        server.createContext("/stats", this::handleStats);
+        server.start();
+    }
+
+    /**
+     * Creates a factory of daemon threads with numbered names.
+     * @param prefix The start of the names of the threads.
+     * @return The thread factory.
+     */
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger number = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, prefix + number.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Gets the port the server listens on.
+     * @return The port, the chosen one if it was constructed with 0.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Gets the number of instances waiting for a worker.
+     * @return The queue depth.
+     */
+    public int getQueueDepth() {
+        return workers.getQueue().size();
+    }
+
+    /**
+     * Stops listening and stops the workers, interrupting the instances being solved.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        workers.shutdownNow();
+        httpThreads.shutdownNow();
+    }
+
+    /**
+     * Answers a request to solve an instance: from the cache, by joining a run of the same instance, or by
+     * queueing a new run on the workers. The answer is written by the worker once the run is done.
+     * @param exchange The request.
+     * @throws IOException If the request cannot be read or answered.
+     */
+    private void handleSolve(HttpExchange exchange) throws IOException {
+        long startingTime = System.nanoTime();
+        requests.increment();
+        if (!"POST".equals(exchange.getRequestMethod())) {
+            respondError(exchange, 405, "Use POST with the instance in the body");
+            return;
+        }
+        String key;
+        InstanceReader instance;
+        Parameters parameters;
+        try {
+            byte[] body = readBody(exchange.getRequestBody());
+            if (body == null) {
+                respondError(exchange, 413, "The instance is larger than " + MAX_REQUEST_BYTES + " bytes");
+                return;
+            }
+            parameters = Parameters.parse(exchange.getRequestURI().getRawQuery());
+            instance = InstanceReader.read("request", body);
+            key = hash(instance, parameters);
+        } catch (InstanceFormatException | IllegalArgumentException ex) {
+            respondError(exchange, 400, ex.getMessage());
+            return;
+        }
+
+        Result cached = cache.get(key);
+        if (cached != null) {
+            cacheHits.increment();
+            respond(exchange, startingTime, instance.getName(), cached, true);
+            return;
+        }
+        CompletableFuture<Result> created = new CompletableFuture<>();
+        CompletableFuture<Result> running = inFlight.putIfAbsent(key, created);
+        if (running == null) {
+            running = created;
+            start(key, instance, parameters, created);
+        } else {
+            joined.increment();
+        }
+        running.whenComplete((result, error) -> {
+            try {
+                if (error == null) {
+                    respond(exchange, startingTime, instance.getName(), result, false);
+                } else {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    if (cause instanceof RejectedExecutionException) {
+                        respondError(exchange, 503, "The queue is full");
+                    } else {
+                        respondError(exchange, cause instanceof IllegalArgumentException ? 400 : 500,
+                                String.valueOf(cause.getMessage()));
+                    }
+                }
+            } catch (IOException ex) {
+                // The client has gone, there is no one left to tell
+                exchange.close();
+            }
+        });
+    }
+
+    /**
+     * Queues a new run of an instance on the workers, which puts its result in the cache if it can be reproduced and
+     * completes the future every request for the instance waits on.
+     * @param key The hash of the instance and the parameters.
+     * @param instance The instance.
+     * @param parameters The parameters of the colony.
+     * @param future The future of the run, in the map of the runs going on under the key.
+     */
+    private void start(String key, InstanceReader instance, Parameters parameters, CompletableFuture<Result> future) {
+        // A run of the same instance may have finished between the cache lookup and claiming the key
+        Result cached = cache.get(key);
+        if (cached != null) {
+            inFlight.remove(key);
+            future.complete(cached);
+            return;
+        }
+        try {
+            workers.execute(() -> {
+                try {
+                    Result result = solve(instance, parameters);
+                    if (result.isReproducible()) {
+                        cache.put(key, result);
+                    }
+                    future.complete(result);
+                } catch (RuntimeException | OutOfMemoryError ex) {
+                    // An instance too large for its storage must not leave its requests waiting forever
+                    future.completeExceptionally(ex);
+                } finally {
+                    inFlight.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            inFlight.remove(key);
+            future.completeExceptionally(ex);
+        }
+    }
+
+    /**
+     * Solves an instance with the ant colony.
+     * @param instance The instance.
+     * @param parameters The parameters of the colony.
+     * @return The shortest tour found.
+     */
+    private static Result solve(InstanceReader instance, Parameters parameters) {
+        long startingTime = System.nanoTime();
+        Problem problem = new Problem(instance.getName(), instance.getX(), instance.getY(),
+                instance.getDistanceType(), MatrixStorage.values()[parameters.storage]);
+        Solver solver = new Solver(problem);
+        if (parameters.seeded) {
+            solver.setSeed(parameters.seed);
+        }
+        solver.setCandidateListSize(parameters.candidateListSize);
+        solver.setLocalSearch(parameters.localSearch);
+        solver.setTimeLimit(parameters.timeLimit);
+        if (parameters.strategy == 2) {
+            solver.setStrategy(new MaxMinAntSystem(parameters.degradationFactor, parameters.qValue, false));
+        } else if (parameters.strategy == 3) {
+            solver.setStrategy(new AntColonySystem(0.9, 0.1, 1.0 - parameters.degradationFactor, parameters.qValue));
+        }
+        solver.solve(parameters.iterationCount, parameters.antPerIteration, parameters.degradationFactor,
+                parameters.alpha, parameters.beta, parameters.initialPheromoneIntensity, parameters.qValue);
+        // Where a run stopped by its time limit or cancelled ends depends on the timing, not only on the request,
+        // and an unseeded run takes a new seed every time
+        StopReason stopReason = solver.getStopReason();
+        boolean reproducible = parameters.seeded && solver.getShortestPath() != null
+                && stopReason != StopReason.TIME_LIMIT && stopReason != StopReason.CANCELLED;
+        return new Result(problem.getNumberOfNodes(), solver.getShortestPath(),
+                solver.getShortestDistance(), (System.nanoTime() - startingTime) / 1_000_000L, reproducible);
+    }
+
+    /**
+     * Answers a request for the statistics of the server.
+     * @param exchange The request.
+     * @throws IOException If the request cannot be answered.
+     */
+    private void handleStats(HttpExchange exchange) throws IOException {
+        double[] percentiles = latencies.percentiles(0.5, 0.9, 0.99);
+        String json = String.format(Locale.ROOT, "{\"queueDepth\":%d,\"running\":%d,\"inFlight\":%d,"
+                        + "\"requests\":%d,\"cacheHits\":%d,\"joined\":%d,\"rejected\":%d,\"cacheSize\":%d,"
+                        + "\"p50Millis\":%s,\"p90Millis\":%s,\"p99Millis\":%s}",
+                getQueueDepth(), workers.getActiveCount(), inFlight.size(), requests.sum(), cacheHits.sum(),
+                joined.sum(), rejected.sum(), cache.size(),
+                formatMillis(percentiles[0]), formatMillis(percentiles[1]), formatMillis(percentiles[2]));
+        send(exchange, 200, json);
+    }
+
+    /**
+     * Answers a solve request with a result and records how long the request took.
+     * @param exchange The request.
+     * @param startingTime When the request came in, in nanoseconds.
+     * @param name The name of the instance of this request, which the result may have been found for under another.
+     * @param result The result.
+     * @param cached True if the result came from the cache.
+     * @throws IOException If the request cannot be answered.
+     */
+    private void respond(HttpExchange exchange, long startingTime, String name, Result result, boolean cached)
+            throws IOException {
+        send(exchange, 200, result.toJson(name, cached));
+        latencies.record(System.nanoTime() - startingTime);
+    }
+
+    /**
+     * Answers a request with an error.
+     * @param exchange The request.
+     * @param status The HTTP status code.
+     * @param message What went wrong.
+     * @throws IOException If the request cannot be answered.
+     */
+    private static void respondError(HttpExchange exchange, int status, String message) throws IOException {
+        send(exchange, status, "{\"error\":" + quote(message) + "}");
+    }
+
+    /**
+     * Writes a JSON answer and closes the exchange.
+     * @param exchange The request.
+     * @param status The HTTP status code.
+     * @param json The body of the answer.
+     * @throws IOException If the request cannot be answered.
+     */
+    private static void send(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+
+    /**
+     * Reads a request body up to the largest size accepted.
+     * @param body The request body.
+     * @return The bytes of the body, or null if it is too large.
+     * @throws IOException If the body cannot be read.
+     */
+    private static byte[] readBody(InputStream body) throws IOException {
+        try (body) {
+            byte[] bytes = body.readNBytes(MAX_REQUEST_BYTES + 1);
+            return bytes.length > MAX_REQUEST_BYTES ? null : bytes;
+        }
+    }
+
+    /**
+     * Hashes an instance and the parameters of the colony with SHA-256: the distance type, the exact bits of every
+     * coordinate and the parameters, so the same points in the same order with the same parameters get the same key
+     * whatever format or number formatting they were sent in.
+     * @param instance The instance.
+     * @param parameters The parameters of the colony.
+     * @return The hash in hexadecimal.
+     */
+    static String hash(InstanceReader instance, Parameters parameters) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("Every JVM has SHA-256", ex);
+        }
+        digest.update(instance.getDistanceType().name().getBytes(StandardCharsets.UTF_8));
+        double[] x = instance.getX();
+        double[] y = instance.getY();
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        buffer.putInt(instance.getNumberOfNodes());
+        for (int i = 0; i < instance.getNumberOfNodes(); i++) {
+            if (buffer.remaining() < 16) {
+                digest.update(buffer.array(), 0, buffer.position());
+                buffer.clear();
+            }
+            buffer.putDouble(x[i]).putDouble(y[i]);
+        }
+        digest.update(buffer.array(), 0, buffer.position());
+        digest.update(parameters.toString().getBytes(StandardCharsets.UTF_8));
+
+        StringBuilder hex = new StringBuilder();
+        for (byte b : digest.digest()) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * Formats a latency for the statistics.
+     * @param millis The latency in milliseconds.
+     * @return The latency with three decimals, or null before the first request.
+     */
+    private static String formatMillis(double millis) {
+        return Double.isNaN(millis) ? "null" : String.format(Locale.ROOT, "%.3f", millis);
+    }
+
+    /**
+     * Quotes a string for JSON.
+     * @param text The string.
+     * @return The string in double quotes, with quotes, backslashes and control characters escaped.
+     */
+    private static String quote(String text) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                quoted.append('\\').append(c);
+            } else if (c < 0x20) {
+                quoted.append(String.format("\\u%04x", (int) c));
+            } else {
+                quoted.append(c);
+            }
+        }
+        return quoted.append('"').toString();
+    }
+
+    /**
+     * Runs a solve server until the JVM is stopped.
+     * @param args Optionally the port, the number of threads, the queue capacity and the cache capacity.
+     * @throws IOException If the port cannot be listened on.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int queueCapacity = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int cacheCapacity = args.length > 3 ? Integer.parseInt(args[3]) : 256;
+
+        SolveServer solveServer = new SolveServer(port, threads, queueCapacity, cacheCapacity);
+        Runtime.getRuntime().addShutdownHook(new Thread(solveServer::close));
+        System.out.println("Listening on http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":"
+                + solveServer.getPort() + " with " + threads + " solving threads");
+    }
+
+    /**
+     * A class representing the parameters of the colony of one request, read from the query of the request.
+     * Every parameter that is not given has the default of the main program.
+     */
+    static final class Parameters {
+        private final int iterationCount;
+        private final int antPerIteration;
+        private final double degradationFactor;
+        private final double alpha;
+        private final double beta;
+        private final double initialPheromoneIntensity;
+        private final double qValue;
+        private final int strategy;
+        private final int candidateListSize;
+        private final int localSearch;
+        private final int storage;
+        private final long timeLimit;
+        private final boolean seeded;
+        private final long seed;
+
+        /**
+         * Reads the parameters from a query.
+         * @param values The values of the query by name, which are removed as they are read.
+         * @throws IllegalArgumentException If a value is not a number or out of range.
+         */
+        private Parameters(Map<String, String> values) {
+            iterationCount = intValue(values, "iterations", 100, 1, Integer.MAX_VALUE);
+            antPerIteration = intValue(values, "ants", 50, 1, Integer.MAX_VALUE);
+            degradationFactor = doubleValue(values, "degradation", 0.8);
+            alpha = doubleValue(values, "alpha", 1.1);
+            beta = doubleValue(values, "beta", 1.6);
+            initialPheromoneIntensity = doubleValue(values, "initial", 0.01);
+            qValue = doubleValue(values, "q", 0.0001);
+            strategy = intValue(values, "strategy", 1, 1, 3);
+            candidateListSize = intValue(values, "candidates", 0, 0, MAX_CANDIDATES);
+            localSearch = intValue(values, "localSearch", 0, 0, 2);
+            storage = intValue(values, "storage", 0, 0, MatrixStorage.values().length - 1);
+            timeLimit = intValue(values, "timeLimit", 0, 0, Integer.MAX_VALUE);
+            seeded = values.containsKey("seed");
+            seed = seeded ? parse(values, "seed") : 0L;
+            values.remove("seed");
+            if (!values.isEmpty()) {
+                throw new IllegalArgumentException("Unknown parameters: " + values.keySet());
+            }
+        }
+
+        /**
+         * Reads the parameters from the raw query of a request.
+         * @param query The query, still URL-encoded, or null for none.
+         * @return The parameters.
+         * @throws IllegalArgumentException If a parameter is unknown, not a number or out of range.
+         */
+        static Parameters parse(String query) {
+            Map<String, String> values = new HashMap<>();
+            if (query != null && !query.isEmpty()) {
+                for (String pair : query.split("&")) {
+                    int equals = pair.indexOf('=');
+                    if (equals < 0) {
+                        throw new IllegalArgumentException("Parameter without a value: " + pair);
+                    }
+                    values.put(URLDecoder.decode(pair.substring(0, equals), StandardCharsets.UTF_8),
+                            URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8));
+                }
+            }
+            return new Parameters(values);
+        }
+
+        /**
+         * Reads a whole number parameter.
+         * @param values The values of the query by name.
+         * @param name The name of the parameter.
+         * @param defaultValue The value if it is not given.
+         * @param min The smallest value allowed.
+         * @param max The largest value allowed.
+         * @return The value.
+         * @throws IllegalArgumentException If the value is not a whole number or out of range.
+         */
+        private static int intValue(Map<String, String> values, String name, int defaultValue, int min, int max) {
+            if (!values.containsKey(name)) {
+                return defaultValue;
+            }
+            long value = parse(values, name);
+            if (value < min || value > max) {
+                throw new IllegalArgumentException(name + " must be between " + min + " and " + max + ": " + value);
+            }
+            values.remove(name);
+            return (int) value;
+        }
+
+        /**
+         * Reads a whole number.
+         * @param values The values of the query by name.
+         * @param name The name of the parameter, which is given.
+         * @return The value.
+         * @throws IllegalArgumentException If the value is not a whole number.
+         */
+        private static long parse(Map<String, String> values, String name) {
+            try {
+                return Long.parseLong(values.get(name));
+            } catch (NumberFormatException ex) {
+                throw new IllegalArgumentException(name + " is not a whole number: " + values.get(name));
+            }
+        }
+
+        /**
+         * Reads a number parameter.
+         * @param values The values of the query by name.
+         * @param name The name of the parameter.
+         * @param defaultValue The value if it is not given.
+         * @return The value.
+         * @throws IllegalArgumentException If the value is not a finite number.
+         */
+        private static double doubleValue(Map<String, String> values, String name, double defaultValue) {
+            String text = values.remove(name);
+            if (text == null) {
+                return defaultValue;
+            }
+            try {
+                double value = Double.parseDouble(text);
+                if (Double.isFinite(value)) {
+                    return value;
+                }
+            } catch (NumberFormatException ex) {
+                // Reported below like an infinite value
+            }
+            throw new IllegalArgumentException(name + " is not a number: " + text);
+        }
+
+        /**
+         * Describes every parameter, in a fixed order, as part of the cache key.
+         * @return The parameters.
+         */
+        @Override
+        public String toString() {
+            return "iterations=" + iterationCount + ";ants=" + antPerIteration + ";degradation="
+                    + Double.doubleToLongBits(degradationFactor) + ";alpha=" + Double.doubleToLongBits(alpha)
+                    + ";beta=" + Double.doubleToLongBits(beta) + ";initial="
+                    + Double.doubleToLongBits(initialPheromoneIntensity) + ";q=" + Double.doubleToLongBits(qValue)
+                    + ";strategy=" + strategy + ";candidates=" + candidateListSize + ";localSearch=" + localSearch
+                    + ";storage=" + storage + ";timeLimit=" + timeLimit + ";seed=" + (seeded ? seed : "none");
+        }
+    }
+
+    /**
+     * A class representing the outcome of solving one instance, as kept in the cache.
+     */
+    static final class Result {
+        private final int numberOfNodes;
+        private final int[] shortestPath;
+        private final double shortestDistance;
+        private final long solveMillis;
+        private final boolean reproducible;
+
+        /**
+         * Constructs a result. It holds no name, since requests for instances of other names share it.
+         * @param numberOfNodes The number of nodes of the instance.
+         * @param shortestPath The shortest path found, or null if the run found none.
+         * @param shortestDistance The length of the shortest path.
+         * @param solveMillis The time taken to solve the instance in milliseconds.
+         * @param reproducible True if the same request always gives this result, so that it may be cached.
+         */
+        Result(int numberOfNodes, int[] shortestPath, double shortestDistance, long solveMillis, boolean reproducible) {
+            this.numberOfNodes = numberOfNodes;
+            this.shortestPath = shortestPath;
+            this.shortestDistance = shortestDistance;
+            this.solveMillis = solveMillis;
+            this.reproducible = reproducible;
+        }
+
+        /**
+         * Tells whether the same request always gives this result: the run was seeded, found a tour and was neither
+         * stopped by its time limit nor cancelled.
+         * @return True if the result may be cached.
+         */
+        boolean isReproducible() {
+            return reproducible;
+        }
+
+        /**
+         * Describes the result as a JSON object.
+         * @param name The name of the instance of the request answered.
+         * @param cached True if the result is answered from the cache.
+         * @return The JSON object.
+         */
+        String toJson(String name, boolean cached) {
+            StringBuilder json = new StringBuilder();
+            json.append("{\"name\":").append(quote(name))
+                    .append(",\"nodes\":").append(numberOfNodes)
+                    .append(",\"length\":").append(shortestPath == null
+                            ? "null" : String.format(Locale.ROOT, "%.6f", shortestDistance))
+                    .append(",\"cached\":").append(cached)
+                    .append(",\"solveMillis\":").append(solveMillis)
+                    .append(",\"tour\":[");
+            // Without a tour the length is null and the tour empty rather than a made-up one
+            for (int i = 0; shortestPath != null && i < shortestPath.length; i++) {
+                json.append(i > 0 ? "," : "").append(shortestPath[i]);
+            }
+            return json.append("]}").toString();
+        }
+    }
+
+    /**
+     * A class representing a bounded cache of results that drops the least recently used one when it is full.
+     */
+    private static final class ResultCache {
+        private final int capacity;
+        private final LinkedHashMap<String, Result> results;
+
+        /**
+         * Constructs an empty cache.
+         * @param capacity The number of results kept, 0 for keeping none.
+         */
+        ResultCache(int capacity) {
+            this.capacity = capacity;
+            results = new LinkedHashMap<>(16, 0.75f, true);
+        }
+
+        /**
+         * Gets a result and marks it as the most recently used one.
+         * @param key The hash of the instance and the parameters.
+         * @return The result, or null if it is not in the cache.
+         */
+        synchronized Result get(String key) {
+            return results.get(key);
+        }
+
+        /**
+         * Puts a result into the cache, dropping the least recently used one if the cache is full.
+         * @param key The hash of the instance and the parameters.
+         * @param result The result.
+         */
+        synchronized void put(String key, Result result) {
+            if (capacity == 0) {
+                return;
+            }
+            results.put(key, result);
+            if (results.size() > capacity) {
+                String eldest = results.keySet().iterator().next();
+                results.remove(eldest);
+            }
+        }
+
+        /**
+         * Gets the number of results in the cache.
+         * @return The number of results.
+         */
+        synchronized int size() {
+            return results.size();
+        }
+    }
+
+    /**
+     * A class representing the latencies of the latest requests, over which the percentiles are taken.
+     */
+    private static final class LatencyWindow {
+        private final long[] latencies;
+        private int count;
+        private int next;
+
+        /**
+         * Constructs an empty window.
+         * @param size The number of latest latencies kept.
+         */
+        LatencyWindow(int size) {
+            latencies = new long[size];
+        }
+
+        /**
+         * Records the latency of a request, replacing the oldest one when the window is full.
+         * @param nanos The latency in nanoseconds.
+         */
+        synchronized void record(long nanos) {
+            latencies[next] = nanos;
+            next = (next + 1) % latencies.length;
+            count = Math.min(count + 1, latencies.length);
+        }
+
+        /**
+         * Calculates percentiles of the latencies in the window by the nearest rank.
+         * @param shares The shares of the requests, 0.5 for the median.
+         * @return The percentiles in milliseconds, NaN before the first request.
+         */
+        double[] percentiles(double... shares) {
+            long[] sorted;
+            synchronized (this) {
+                sorted = Arrays.copyOf(latencies, count);
+            }
+            Arrays.sort(sorted);
+            double[] percentiles = new double[shares.length];
+            for (int i = 0; i < shares.length; i++) {
+                int rank = (int) Math.ceil(shares[i] * sorted.length);
+                percentiles[i] = sorted.length == 0 ? Double.NaN : sorted[Math.max(rank, 1) - 1] / 1e6;
+            }
+            return percentiles;
+        }
+    }
+}
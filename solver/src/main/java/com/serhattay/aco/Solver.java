@@ -0,0 +1,1172 @@
+package com.serhattay.aco;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A class representing an Ant Colony Optimization solver for one problem.
+ * All state of a run lives in the solver, so solvers for different problems can run at the same time in one JVM,
+ * and one solver can be run again with other parameters. A solver itself is not meant to be shared between threads.
+ */
+public class Solver {
+    // Number of nearest neighbours the local search looks at when there are no candidate lists
+    private static final int LOCAL_SEARCH_NEIGHBOURS = 10;
+    // Number of candidates per node of the matrix-free storage when no candidate list size is set
+    private static final int MATRIX_FREE_CANDIDATES = 10;
+
+    private final Problem problem;
+    private PheromoneMatrix pheromones;
+    private int[][] candidateLists;
+    private int candidateListSize = 0;
+    // K-d tree over the nodes, kept only by the matrix-free storage to find the nearest unvisited node
+    private KdTree nodeTree;
+    private double qValue;
+    private int antPerIteration;
+    private double alpha;
+    private double beta;
+    private double degradationFactor;
+    private double initialPheromoneIntensity;
+    private int threadCount = 1;
+    private long seed = new Random().nextLong();
+    private PheromoneStrategy strategy;
+    private PheromoneStrategy activeStrategy;
+    private double exploitationProbability;
+    private int stagnationLimit = 0;
+    private int iterationsWithoutImprovement;
+    private boolean improvedInIteration;
+    private int localSearchMode = 0;
+    private int[][] localSearchNeighbours;
+    private LocalSearch iterationBestSearch;
+    private int[] iterationBestTour;
+    private double iterationBestLength;
+    private int completedIterations;
+    private LiveRenderer liveRenderer;
+    private int[] shortestPath;
+    private double shortestDistance = Double.MAX_VALUE;
+
+    // Anytime mode: the run stops at whichever of these comes first
+    private long timeLimitNanos = 0;
+    private double targetLength = 0.0;
+    private int convergenceLimit = 0;
+    private ImprovementListener improvementListener;
+    private long startTime;
+    private int iterationsSinceImprovement;
+    private volatile boolean cancelled;
+    private volatile Tour bestTour;
+    private volatile StopReason stopReason;
+
+    // Telemetry, recorded only while somebody is watching
+    private final IterationRecorder recorder;
+    private IterationListener iterationListener;
+
+    // Checkpoints and warm starts
+    private Path checkpointFile;
+    private int checkpointInterval = 0;
+    private double[] warmStartX;
+    private double[] warmStartY;
+    private int[] warmStartTour;
+    private double warmStartWeight;
+
+    // Island model: the shortest paths are exchanged with other colonies every few iterations
+    private MigrationTransport migration;
+    private int migrationInterval = 0;
+    private Tour lastEmigrant;
+
+    /**
+     * Constructs a solver for a problem.
+     * @param problem The problem to solve.
+     */
+    public Solver(Problem problem) {
+        this.problem = problem;
+        this.recorder = new IterationRecorder(problem.getName());
+    }
+
+    /**
+     * Gets the problem of the solver.
+     * @return The problem.
+     */
+    public Problem getProblem() {
+        return problem;
+    }
+
+    /**
+     * Builds the nearest neighbour candidate lists of every node with a k-d tree over the node coordinates.
+     * @param k The number of nearest neighbours per node.
+     * @return The candidate lists, indexed by node.
+     */
+    private int[][] buildCandidateLists(int k) {
+        return (nodeTree != null ? nodeTree : new KdTree(problem.getX(), problem.getY())).nearestNeighbourLists(k);
+    }
+
+    /**
+     * Gets the initial pheromone intensity.
+     * @return The initial pheromone intensity.
+     */
+    public double getInitialPheromoneIntensity() {
+        return initialPheromoneIntensity;
+    }
+
+    /**
+     * Sets the number of worker threads that build the ants of an iteration.
+     * With more than one thread the ants of an iteration are built at the same time and
+     * their pheromones are deposited together once the whole iteration is finished.
+     * @param threadCount The number of worker threads, 1 for the sequential colony.
+     */
+    public void setThreadCount(int threadCount) {
+        if (threadCount < 1) {
+            throw new IllegalArgumentException("Thread count must be at least 1: " + threadCount);
+        }
+        this.threadCount = threadCount;
+    }
+
+    /**
+     * Sets the size of the candidate lists. With candidate lists an ant only chooses among the k nearest
+     * unvisited neighbours of its node and scans every node only when all of them are visited.
+     * @param candidateListSize The number of nearest neighbours per node, 0 for scanning every node.
+     */
+    public void setCandidateListSize(int candidateListSize) {
+        if (candidateListSize < 0) {
+            throw new IllegalArgumentException("Candidate list size cannot be negative: " + candidateListSize);
+        }
+        this.candidateListSize = candidateListSize;
+    }
+
+    /**
+     * Sets the pheromone update rule of the colony.
+     * @param strategy The update rule, or null for the basic Ant System built from the parameters of the run.
+     */
+    public void setStrategy(PheromoneStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    /**
+     * Sets after how many iterations without a shorter path the colony counts as stagnated
+     * and its pheromone intensities are set back to their starting values.
+     * @param stagnationLimit The number of iterations without improvement, 0 to never restart.
+     */
+    public void setStagnationLimit(int stagnationLimit) {
+        if (stagnationLimit < 0) {
+            throw new IllegalArgumentException("Stagnation limit cannot be negative: " + stagnationLimit);
+        }
+        this.stagnationLimit = stagnationLimit;
+    }
+
+    /**
+     * Sets which tours are improved by the 2-opt and Or-opt local search before their pheromones are deposited.
+     * With the iteration-best tour only, the improved tour is used by the update rules that deposit
+     * on the iteration-best or best-so-far tour and for the shortest path.
+     * @param localSearchMode 0 for no local search, 1 for the tour of every ant, 2 for the iteration-best tour.
+     */
+    public void setLocalSearch(int localSearchMode) {
+        if (localSearchMode < 0 || localSearchMode > 2) {
+            throw new IllegalArgumentException("Unknown local search mode: " + localSearchMode);
+        }
+        this.localSearchMode = localSearchMode;
+    }
+
+    /**
+     * Sets the seed of the random number generator, making the runs repeatable.
+     * @param seed The seed to use.
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Sets the live renderer that is handed a snapshot after an iteration whenever a frame is due.
+     * @param liveRenderer The live renderer, or null for not showing the run while it goes.
+     */
+    public void setLiveRenderer(LiveRenderer liveRenderer) {
+        this.liveRenderer = liveRenderer;
+    }
+
+    /**
+     * Sets the wall-clock budget of a run. When it runs out the run stops after the ant being built,
+     * or with more than one thread after the iteration being built. A run always goes on until it has a tour,
+     * so a budget that runs out before the first ant is done still gives a shortest path.
+     * @param timeLimitMillis The budget in milliseconds, 0 for no limit.
+     */
+    public void setTimeLimit(long timeLimitMillis) {
+        if (timeLimitMillis < 0) {
+            throw new IllegalArgumentException("Time limit cannot be negative: " + timeLimitMillis);
+        }
+        this.timeLimitNanos = TimeUnit.MILLISECONDS.toNanos(timeLimitMillis);
+    }
+
+    /**
+     * Sets a tour length that is good enough: the run stops as soon as a tour at most this long is found.
+     * @param targetLength The target length, 0 for none.
+     */
+    public void setTargetLength(double targetLength) {
+        if (targetLength < 0.0) {
+            throw new IllegalArgumentException("Target length cannot be negative: " + targetLength);
+        }
+        this.targetLength = targetLength;
+    }
+
+    /**
+     * Sets after how many iterations in a row without a shorter path the run counts as converged and stops.
+     * Unlike the stagnation limit, restarting the pheromones does not start this count over.
+     * @param convergenceLimit The number of iterations without improvement, 0 to never stop early.
+     */
+    public void setConvergenceLimit(int convergenceLimit) {
+        if (convergenceLimit < 0) {
+            throw new IllegalArgumentException("Convergence limit cannot be negative: " + convergenceLimit);
+        }
+        this.convergenceLimit = convergenceLimit;
+    }
+
+    /**
+     * Sets the listener told about every new shortest tour as soon as it is found.
+     * @param improvementListener The listener, or null for none.
+     */
+    public void setImprovementListener(ImprovementListener improvementListener) {
+        this.improvementListener = improvementListener;
+    }
+
+    /**
+     * Sets the listener told about the telemetry of every finished iteration. Without a listener the telemetry
+     * is only recorded while a Flight Recorder recording has the iteration event enabled.
+     * @param iterationListener The listener, or null for none.
+     */
+    public void setIterationListener(IterationListener iterationListener) {
+        this.iterationListener = iterationListener;
+    }
+
+    /**
+     * Sets the file the state of the colony is saved to every few iterations, so a run that dies can be resumed.
+     * Checkpoints are only taken between two iterations; each one replaces the one before once it is complete.
+     * @param checkpointFile The checkpoint file.
+     * @param checkpointInterval The number of iterations between two checkpoints, 0 for none.
+     * @throws IllegalStateException If the problem uses the matrix-free storage, whose trails a checkpoint cannot hold.
+     */
+    public void setCheckpoint(Path checkpointFile, int checkpointInterval) {
+        if (checkpointInterval < 0) {
+            throw new IllegalArgumentException("Checkpoint interval cannot be negative: " + checkpointInterval);
+        }
+        if (checkpointInterval > 0) {
+            checkNotMatrixFree("Checkpoints");
+        }
+        if (checkpointInterval > 0 && checkpointFile == null) {
+            throw new IllegalArgumentException("Checkpoints need a file to be written to");
+        }
+        this.checkpointFile = checkpointFile;
+        this.checkpointInterval = checkpointInterval;
+    }
+
+    /**
+     * Makes the colony one island of an island model: every few iterations it sends its shortest path to the other
+     * colonies over a transport and takes over the shortest tour that has arrived from them, if that is shorter than
+     * its own. The update rules that reinforce the shortest path then lead the colony towards it. A run that takes
+     * in tours is only repeatable if the transport delivers the same tours at the same iterations.
+     * @param migration The transport, or null for none.
+     * @param migrationInterval The number of iterations between two exchanges, 0 for none.
+     */
+    public void setMigration(MigrationTransport migration, int migrationInterval) {
+        if (migrationInterval < 0) {
+            throw new IllegalArgumentException("Migration interval cannot be negative: " + migrationInterval);
+        }
+        if (migrationInterval > 0 && migration == null) {
+            throw new IllegalArgumentException("Migration needs a transport to exchange the tours over");
+        }
+        this.migration = migration;
+        this.migrationInterval = migrationInterval;
+        lastEmigrant = null;
+    }
+
+    /**
+     * Sets a tour of an earlier run to start from, on this problem or on a slightly different one.
+     * At the start of every run the tour is carried over to the nodes of this problem as they are then, by matching
+     * the nodes by their coordinates and inserting the nodes it does not reach, and becomes the shortest path to beat.
+     * The pheromones of all edges that are not on it are lowered by the factor 1 + weight.
+     * @param previousProblem The problem the tour was found on.
+     * @param previousTour The tour.
+     * @param weight How much stronger the edges of the tour start out, 0 for only taking it as the path to beat.
+     */
+    public void setWarmStart(Problem previousProblem, int[] previousTour, double weight) {
+        setWarmStart(previousProblem.getX(), previousProblem.getY(), previousTour, weight);
+    }
+
+    /**
+     * Sets the shortest path of a checkpoint to start from, on this problem or on a slightly different one.
+     * See {@link #setWarmStart(Problem, int[], double)}.
+     * @param previous The checkpoint, which must have a shortest path.
+     * @param weight How much stronger the edges of the tour start out, 0 for only taking it as the path to beat.
+     */
+    public void setWarmStart(Checkpoint previous, double weight) {
+        if (previous.getShortestPath() == null) {
+            throw new IllegalArgumentException("The checkpoint has no shortest path to start from");
+        }
+        setWarmStart(previous.getX(), previous.getY(), previous.getShortestPath(), weight);
+    }
+
+    /**
+     * Keeps a tour of an earlier run, with the coordinates it was found on, for the warm start of every run.
+     * The coordinates are copied, so nodes of this problem may still be edited before the run.
+     * @param previousX The x-coordinates of the nodes the tour was found on.
+     * @param previousY The y-coordinates of the nodes the tour was found on.
+     * @param previousTour The tour.
+     * @param weight How much stronger the edges of the tour start out.
+     */
+    private void setWarmStart(double[] previousX, double[] previousY, int[] previousTour, double weight) {
+        if (weight < 0.0) {
+            throw new IllegalArgumentException("Warm start weight cannot be negative: " + weight);
+        }
+        for (int node : previousTour) {
+            if (node < 0 || node >= previousX.length) {
+                throw new IllegalArgumentException("There is no node " + node + " among " + previousX.length);
+            }
+        }
+        warmStartX = previousX.clone();
+        warmStartY = previousY.clone();
+        warmStartTour = previousTour.clone();
+        warmStartWeight = weight;
+    }
+
+    /**
+     * Asks the running colony to stop. It may be called from any thread; the run stops as it would at its time limit,
+     * once it has a tour.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Runs the Ant Colony Optimization algorithm to find the shortest path.
+     * The shortest path of an earlier run of this solver is forgotten. The run may stop before the last iteration
+     * because of the time limit, the target length, the convergence limit or a call to {@link #cancel}.
+     * @param iterationCount The number of iterations to perform.
+     * @param antPerIteration The number of ants to use per iteration.
+     * @param degradationFactor The rate at which pheromones degrade.
+     * @param alpha The alpha parameter for pheromone influence.
+     * @param beta The beta parameter for distance influence.
+     * @param initialPheromoneIntensity The initial pheromone intensity.
+     * @param qValue The Q value for pheromone update.
+     */
+    public void solve(int iterationCount, int antPerIteration, double degradationFactor,
+                      double alpha, double beta, double initialPheromoneIntensity, double qValue) {
+        initializeColony(degradationFactor, alpha, beta, initialPheromoneIntensity, qValue);
+        if (warmStartTour != null) {
+            applyWarmStart();
+        }
+        runIterations(iterationCount, antPerIteration);
+    }
+
+    /**
+     * Continues a run from a checkpoint up to an iteration count, exactly as the saved run would have gone on.
+     * The parameters, seed, candidate list size, local search, stagnation limit and thread count of the saved run
+     * replace those of this solver; the update rule must be set again as it was, or left unset if it was.
+     * @param checkpoint The checkpoint, saved for the nodes of this problem.
+     * @param iterationCount The number of iterations of the whole run, those before the checkpoint included.
+     * @throws IOException If the pheromone trails cannot be read from the checkpoint file.
+     * @throws IllegalArgumentException If the checkpoint was saved for other nodes or with another update rule.
+     * @throws IllegalStateException If the problem uses the matrix-free storage.
+     */
+    public void resume(Checkpoint checkpoint, int iterationCount) throws IOException {
+        checkNotMatrixFree("Checkpoints");
+        checkpoint.checkCompatible(problem, strategy != null ? strategy.getClass() : AntSystem.class);
+        seed = checkpoint.getSeed();
+        candidateListSize = checkpoint.getCandidateListSize();
+        localSearchMode = checkpoint.getLocalSearchMode();
+        stagnationLimit = checkpoint.getStagnationLimit();
+        threadCount = checkpoint.getThreadCount();
+        initializeColony(checkpoint.getDegradationFactor(), checkpoint.getAlpha(), checkpoint.getBeta(),
+                checkpoint.getInitialPheromoneIntensity(), checkpoint.getQValue());
+
+        checkpoint.restoreTrails(pheromones);
+        completedIterations = checkpoint.getCompletedIterations();
+        iterationsWithoutImprovement = checkpoint.getIterationsWithoutImprovement();
+        iterationsSinceImprovement = checkpoint.getIterationsSinceImprovement();
+        shortestPath = checkpoint.getShortestPath();
+        if (shortestPath != null) {
+            shortestDistance = checkpoint.getShortestDistance();
+            bestTour = new Tour(shortestPath.clone(), shortestDistance);
+        }
+        runIterations(iterationCount, checkpoint.getAntPerIteration());
+    }
+
+    /**
+     * Carries the warm start tour over to the nodes as they are now, lowers the pheromones of every edge that is
+     * not on it and takes it as the path to beat. The evaporation is lazy, so this is a pass over the tour only.
+     */
+    private void applyWarmStart() {
+        int[] tour = WarmStart.carryOver(warmStartX, warmStartY, warmStartTour, problem);
+        int numberOfNodes = tour.length;
+        double[] tourIntensities = new double[numberOfNodes];
+        double length = 0.0;
+        for (int k = 0; k < numberOfNodes; k++) {
+            int start = tour[k];
+            int destination = tour[(k + 1) % numberOfNodes];
+            tourIntensities[k] = pheromones.getIntensity(start, destination);
+            length += problem.getDistance(start, destination);
+        }
+        pheromones.evaporate(1.0 / (1.0 + warmStartWeight));
+        for (int k = 0; k < numberOfNodes; k++) {
+            pheromones.setIntensity(tour[k], tour[(k + 1) % numberOfNodes], tourIntensities[k]);
+        }
+        improve(tour, length);
+    }
+
+    /**
+     * Performs the iterations from the number already completed up to an iteration count.
+     * @param iterationCount The number of iterations of the whole run.
+     * @param antPerIteration The number of ants to use per iteration.
+     */
+    private void runIterations(int iterationCount, int antPerIteration) {
+        this.antPerIteration = antPerIteration;
+        if (threadCount > 1) {
+            parallelIterations(iterationCount, antPerIteration);
+        } else {
+            Ant ant = new Ant(this, activeStrategy.usesLocalUpdate(), localSearchMode == 1 ? createLocalSearch() : null);
+            int[] tour = new int[problem.getNumberOfNodes()];
+            iterations:
+            for (int i = completedIterations; i < iterationCount; i++) {
+                recorder.start(iterationListener != null);
+                for (int j = 0; j < antPerIteration; j++) {
+                    if (shouldStop()) {
+                        break iterations;
+                    }
+                    oneTraversal(ant, antSeed((long) i * antPerIteration + j), tour);
+                }
+                finishIteration();
+            }
+        }
+        if (stopReason == null) {
+            stopReason = StopReason.ITERATIONS;
+        }
+    }
+
+    /**
+     * Checks the stopping conditions of the anytime mode and records the first one that holds.
+     * None of them holds before the first tour, so that a stopped run always has a shortest path to answer with.
+     * @return True if the run must stop.
+     */
+    private boolean shouldStop() {
+        if (shortestPath == null) {
+            return false;
+        }
+        if (cancelled) {
+            stopReason = StopReason.CANCELLED;
+        } else if (timeLimitNanos > 0 && System.nanoTime() - startTime >= timeLimitNanos) {
+            stopReason = StopReason.TIME_LIMIT;
+        } else if (targetLength > 0.0 && shortestDistance <= targetLength) {
+            stopReason = StopReason.TARGET_LENGTH;
+        } else if (convergenceLimit > 0 && iterationsSinceImprovement >= convergenceLimit) {
+            stopReason = StopReason.CONVERGED;
+        }
+        return stopReason != null;
+    }
+
+    /**
+     * Sets the parameters of a run and initializes the pheromones, the update rule and the candidate lists.
+     * @param degradationFactor The rate at which pheromones degrade.
+     * @param alpha The alpha parameter for pheromone influence.
+     * @param beta The beta parameter for distance influence.
+     * @param initialPheromoneIntensity The initial pheromone intensity.
+     * @param qValue The Q value for pheromone update.
+     */
+    void initializeColony(double degradationFactor, double alpha, double beta,
+                          double initialPheromoneIntensity, double qValue) {
+        // The time limit covers setting up the colony as well
+        startTime = System.nanoTime();
+        this.degradationFactor = degradationFactor;
+        this.alpha = alpha;
+        this.beta = beta;
+        this.qValue = qValue;
+        this.initialPheromoneIntensity = initialPheromoneIntensity;
+
+        // Initialize pheromone intensities
+        activeStrategy = strategy != null ? strategy
+                : new AntSystem(degradationFactor, initialPheromoneIntensity, qValue);
+        exploitationProbability = activeStrategy.getExploitationProbability();
+        // The matrix-free storage keeps the pheromones of the candidate edges, so the candidates come first
+        buildNeighbourhoods();
+        pheromones = new PheromoneMatrix(problem, alpha, beta, initialPheromoneIntensity, candidateLists);
+        activeStrategy.initialize(pheromones, problem);
+        iterationsWithoutImprovement = 0;
+        improvedInIteration = false;
+        completedIterations = 0;
+        shortestPath = null;
+        shortestDistance = Double.MAX_VALUE;
+        bestTour = null;
+        stopReason = null;
+        cancelled = false;
+        iterationsSinceImprovement = 0;
+    }
+
+    /**
+     * Builds the candidate lists, the local search and the iteration-best buffer for the current nodes.
+     * The matrix-free storage always gets candidate lists and keeps the k-d tree for the nearest unvisited node.
+     */
+    private void buildNeighbourhoods() {
+        boolean matrixFree = problem.getStorage() == MatrixStorage.MATRIX_FREE;
+        nodeTree = matrixFree ? new KdTree(problem.getX(), problem.getY()) : null;
+        int size = matrixFree && candidateListSize == 0 ? MATRIX_FREE_CANDIDATES : candidateListSize;
+        candidateLists = size > 0 ? buildCandidateLists(size) : null;
+        localSearchNeighbours = null;
+        if (localSearchMode != 0) {
+            localSearchNeighbours = candidateLists != null ? candidateLists : buildCandidateLists(LOCAL_SEARCH_NEIGHBOURS);
+        }
+        iterationBestSearch = localSearchMode == 2 ? createLocalSearch() : null;
+        iterationBestTour = new int[problem.getNumberOfNodes()];
+        iterationBestLength = Double.MAX_VALUE;
+    }
+
+    /**
+     * Adds a node to the problem between two runs. Only the distances and heuristic values of the new node are
+     * calculated, its edges get the starting pheromone of the update rule, the trails of all other edges are kept,
+     * and the node is inserted into the shortest path where it adds the least. Call {@link #reoptimize} to let the
+     * colony adapt. Before the first run only the problem changes.
+     * @param x The x-coordinate of the new node.
+     * @param y The y-coordinate of the new node.
+     * @return The index of the new node, the old number of nodes.
+     * @throws IllegalStateException If the colony has run on the matrix-free storage.
+     */
+    public int insertNode(double x, double y) {
+        checkDynamicUpdate();
+        int node = problem.addNode(x, y);
+        if (pheromones != null) {
+            pheromones.addNode();
+            activeStrategy.nodeChanged(pheromones, problem, node);
+            if (shortestPath != null) {
+                int[] patched = Arrays.copyOf(shortestPath, shortestPath.length + 1);
+                shortestDistance += WarmStart.insertCheapest(patched, shortestPath.length, node,
+                        problem.getDistances());
+                shortestPath = patched;
+            }
+            nodesChanged();
+        }
+        return node;
+    }
+
+    /**
+     * Removes a node from the problem between two runs. The nodes after it move down by one index. No distance is
+     * calculated, the trails of all other edges are kept, and the shortest path skips the node.
+     * Call {@link #reoptimize} to let the colony adapt. Before the first run only the problem changes.
+     * @param node The node to remove.
+     * @throws IllegalStateException If the colony has run on the matrix-free storage.
+     */
+    public void removeNode(int node) {
+        checkDynamicUpdate();
+        checkNode(node);
+        if (problem.getNumberOfNodes() <= 2) {
+            throw new IllegalArgumentException("A problem needs at least two nodes");
+        }
+        if (pheromones != null && shortestPath != null) {
+            shortestDistance -= detourThrough(shortestPath, node);
+            int[] patched = new int[shortestPath.length - 1];
+            int size = 0;
+            for (int visited : shortestPath) {
+                if (visited != node) {
+                    patched[size++] = visited > node ? visited - 1 : visited;
+                }
+            }
+            shortestPath = patched;
+        }
+        problem.removeNode(node);
+        if (pheromones != null) {
+            pheromones.removeNode(node);
+            activeStrategy.nodeRemoved(pheromones, problem);
+            nodesChanged();
+        }
+    }
+
+    /**
+     * Moves a node between two runs. Only the distances and heuristic values of the node are recalculated, in place,
+     * its edges get the starting pheromone of the update rule, the trails of all other edges are kept, and the node
+     * is taken out of the shortest path and inserted again where it adds the least.
+     * Call {@link #reoptimize} to let the colony adapt. Before the first run only the problem changes.
+     * @param node The node to move.
+     * @param x The new x-coordinate of the node.
+     * @param y The new y-coordinate of the node.
+     * @throws IllegalStateException If the colony has run on the matrix-free storage.
+     */
+    public void moveNode(int node, double x, double y) {
+        checkDynamicUpdate();
+        checkNode(node);
+        if (pheromones != null && shortestPath != null) {
+            shortestDistance -= detourThrough(shortestPath, node);
+        }
+        problem.moveNode(node, x, y);
+        if (pheromones != null) {
+            pheromones.moveNode(node);
+            activeStrategy.nodeChanged(pheromones, problem, node);
+            if (shortestPath != null) {
+                int[] patched = new int[shortestPath.length];
+                int size = 0;
+                for (int visited : shortestPath) {
+                    if (visited != node) {
+                        patched[size++] = visited;
+                    }
+                }
+                shortestDistance += WarmStart.insertCheapest(patched, size, node, problem.getDistances());
+                shortestPath = patched;
+            }
+            nodesChanged();
+        }
+    }
+
+    /**
+     * Checks that the nodes may change: the sparse pheromones of the matrix-free storage follow from candidate
+     * lists over the nodes the colony started with, so there they may only change before the first run.
+     * @throws IllegalStateException If the colony has run on the matrix-free storage.
+     */
+    private void checkDynamicUpdate() {
+        if (pheromones != null) {
+            checkNotMatrixFree("Dynamic updates after the first run");
+        }
+    }
+
+    /**
+     * Checks that the problem does not use the matrix-free storage, for the features that need every trail.
+     * @param feature What needs every trail, to name in the message.
+     * @throws IllegalStateException If the problem uses the matrix-free storage.
+     */
+    private void checkNotMatrixFree(String feature) {
+        if (problem.getStorage() == MatrixStorage.MATRIX_FREE) {
+            throw new IllegalStateException(feature + " are not supported with the matrix-free storage");
+        }
+    }
+
+    /**
+     * Checks that a node exists.
+     * @param node The node.
+     * @throws IllegalArgumentException If there is no such node.
+     */
+    private void checkNode(int node) {
+        if (node < 0 || node >= problem.getNumberOfNodes()) {
+            throw new IllegalArgumentException("There is no node " + node + " among " + problem.getNumberOfNodes());
+        }
+    }
+
+    /**
+     * Calculates how much shorter a closed tour becomes when a node is skipped.
+     * @param tour The tour.
+     * @param node The node to skip.
+     * @return The length saved.
+     */
+    private double detourThrough(int[] tour, int node) {
+        SymmetricMatrix distances = problem.getDistances();
+        int size = tour.length;
+        for (int k = 0; k < size; k++) {
+            if (tour[k] == node) {
+                int previous = tour[(k + size - 1) % size];
+                int next = tour[(k + 1) % size];
+                return distances.get(previous, node) + distances.get(node, next) - distances.get(previous, next);
+            }
+        }
+        throw new IllegalStateException("Node " + node + " is not on the shortest path");
+    }
+
+    /**
+     * Publishes the patched shortest path and forgets the count of iterations without improvement. The warm start
+     * tour is carried over to the new nodes and the neighbourhoods are rebuilt when the colony runs again.
+     */
+    private void nodesChanged() {
+        iterationsWithoutImprovement = 0;
+        iterationsSinceImprovement = 0;
+        bestTour = shortestPath != null ? new Tour(shortestPath.clone(), shortestDistance) : null;
+    }
+
+    /**
+     * Lets the colony adapt to changed nodes, or simply run longer, for a number of more iterations.
+     * Unlike {@link #solve}, the pheromones, the shortest path and the parameters of the last run are kept.
+     * The time limit, target length and convergence limit count from the start of this call.
+     * @param iterations The number of iterations to add.
+     * @throws IllegalStateException If the colony has not run yet.
+     */
+    public void reoptimize(int iterations) {
+        if (pheromones == null) {
+            throw new IllegalStateException("The colony has not run yet, call solve first");
+        }
+        startTime = System.nanoTime();
+        stopReason = null;
+        cancelled = false;
+        buildNeighbourhoods();
+        runIterations(completedIterations + iterations, antPerIteration);
+    }
+
+    /**
+     * Performs the iterations up to an iteration count with the ants of each iteration built at the same time
+     * on a fixed worker pool.
+     * Every worker keeps its own ant and writes its tours into its own slots, and the deposits are merged
+     * in ant order once all ants are done, so the same seed always gives the same result. Local updates,
+     * if the update rule has them, are deferred to the merge as well, over the same edges the sequential ants update:
+     * every edge of the finished tour, after the local search.
+     * @param iterationCount The number of iterations of the whole run.
+     * @param antPerIteration The number of ants to use per iteration.
+     */
+    private void parallelIterations(int iterationCount, int antPerIteration) {
+        int workerCount = Math.min(threadCount, antPerIteration);
+        int[][] tours = new int[antPerIteration][problem.getNumberOfNodes()];
+        double[] tourLengths = new double[antPerIteration];
+        List<Callable<Void>> workers = new ArrayList<>();
+        int[] currentIteration = new int[1];
+        long[] workerAllocations = new long[workerCount];
+
+        for (int w = 0; w < workerCount; w++) {
+            Ant ant = new Ant(this, false, localSearchMode == 1 ? createLocalSearch() : null);
+            int firstAnt = (int) ((long) antPerIteration * w / workerCount);
+            int lastAnt = (int) ((long) antPerIteration * (w + 1) / workerCount);
+            int worker = w;
+            workers.add(() -> {
+                long iterationOffset = (long) currentIteration[0] * antPerIteration;
+                // Started by the solver thread before the workers were handed the iteration
+                boolean recording = recorder.isActive();
+                long allocatedAtStart = recording ? IterationRecorder.currentThreadAllocatedBytes() : 0L;
+                for (int j = firstAnt; j < lastAnt; j++) {
+                    tourLengths[j] = ant.constructTour(antSeed(iterationOffset + j), tours[j]);
+                }
+                if (recording) {
+                    workerAllocations[worker] = IterationRecorder.currentThreadAllocatedBytes() - allocatedAtStart;
+                }
+                return null;
+            });
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(workerCount);
+        try {
+            for (int i = completedIterations; i < iterationCount && !shouldStop(); i++) {
+                currentIteration[0] = i;
+                recorder.start(iterationListener != null);
+                long constructionStart = System.nanoTime();
+                for (Future<Void> future : pool.invokeAll(workers)) {
+                    future.get();
+                }
+
+                // Merge the deposits of all ants in ant order
+                long depositStart = System.nanoTime();
+                for (int j = 0; j < antPerIteration; j++) {
+                    if (activeStrategy.usesLocalUpdate()) {
+                        for (int k = 0; k < tours[j].length; k++) {
+                            localUpdate(tours[j][k], tours[j][(k + 1) % tours[j].length]);
+                        }
+                    }
+                    finishAnt(tours[j], tourLengths[j]);
+                }
+                if (recorder.isActive()) {
+                    recorder.addConstruction(depositStart - constructionStart);
+                    recorder.addDeposit(System.nanoTime() - depositStart);
+                    for (long allocated : workerAllocations) {
+                        recorder.addWorkerAllocation(allocated);
+                    }
+                }
+                finishIteration();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while building the ants", ex);
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException("An ant failed to build its tour", ex.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Creates a local search over the distance matrix, with its own scratch buffers.
+     * @return The local search.
+     */
+    private LocalSearch createLocalSearch() {
+        return new LocalSearch(problem.getDistances(), localSearchNeighbours);
+    }
+
+    /**
+     * Creates a tracker of the unvisited nodes of a tour for an ant, which only the matrix-free storage uses.
+     * @return The tracker, or null to let the ant scan every node.
+     */
+    KdTree.Unvisited trackUnvisited() {
+        return nodeTree != null ? nodeTree.trackUnvisited() : null;
+    }
+
+    /**
+     * Derives the seed of one ant from the run seed, so that every ant gets an independent but repeatable stream.
+     * @param antIndex The index of the ant counted over the whole run.
+     * @return The seed of the ant.
+     */
+    private long antSeed(long antIndex) {
+        long z = seed + (antIndex + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Decides the next node to visit based on pheromone trail and node distances.
+     * The unvisited nodes and the running sum of their edge values are written into the scratch buffers of the ant,
+     * and the roulette wheel is spun with a binary search over that cumulative sum, so no step allocates anything.
+     * @param previousNode The index of the previous node visited.
+     * @param visited An array indicating whether nodes have been visited.
+     * @param choices A scratch buffer of one node index per node, owned by the calling ant.
+     * @param cumulativeValues A scratch buffer of one value per node, owned by the calling ant.
+     * @param rand The random number generator of the ant.
+     * @return The index of the next node to visit.
+     */
+    int decidePath(int previousNode, boolean[] visited, int[] choices, double[] cumulativeValues, Random rand) {
+        return decidePath(previousNode, visited, choices, cumulativeValues, rand, null);
+    }
+
+    /**
+     * Decides the next node to visit, see {@link #decidePath(int, boolean[], int[], double[], Random)}.
+     * When all candidates are visited, the matrix-free storage takes the nearest unvisited node from the k-d tree
+     * instead of scanning every node: all edges it does not store have the same trail, so that node has the largest
+     * edge value among them.
+     * @param previousNode The index of the previous node visited.
+     * @param visited An array indicating whether nodes have been visited.
+     * @param choices A scratch buffer of one node index per node, owned by the calling ant.
+     * @param cumulativeValues A scratch buffer of one value per node, owned by the calling ant.
+     * @param rand The random number generator of the ant.
+     * @param unvisited The unvisited nodes of the tour of the ant, or null to scan every node.
+     * @return The index of the next node to visit.
+     */
+    int decidePath(int previousNode, boolean[] visited, int[] choices, double[] cumulativeValues, Random rand,
+                   KdTree.Unvisited unvisited) {
+        int count = 0;
+        double denominator = 0.0;
+        int bestChoice = -1;
+        double bestValue = 0.0;
+
+        if (candidateLists != null) {
+            for (int candidate : candidateLists[previousNode]) {
+                if (!visited[candidate]) {
+                    double value = pheromones.getChoiceInfo(previousNode, candidate);
+                    denominator += value;
+                    choices[count] = candidate;
+                    cumulativeValues[count] = denominator;
+                    count++;
+                    if (bestChoice < 0 || value > bestValue) {
+                        bestChoice = candidate;
+                        bestValue = value;
+                    }
+                }
+            }
+        }
+
+        if (count == 0 && unvisited != null) {
+            return unvisited.nearest(previousNode);
+        }
+
+        // Scan every node when there are no candidate lists or all candidates are visited
+        if (count == 0) {
+            for (int i = 0; i < problem.getNumberOfNodes(); i++) {
+                if (!visited[i]) {
+                    double value = pheromones.getChoiceInfo(previousNode, i);
+                    denominator += value;
+                    choices[count] = i;
+                    cumulativeValues[count] = denominator;
+                    count++;
+                    if (bestChoice < 0 || value > bestValue) {
+                        bestChoice = i;
+                        bestValue = value;
+                    }
+                }
+            }
+        }
+
+        // Pseudo-random proportional rule: take the best edge outright with the exploitation probability
+        if (exploitationProbability > 0.0 && rand.nextDouble() < exploitationProbability) {
+            return bestChoice;
+        }
+        return spinRoulette(choices, cumulativeValues, count, denominator, rand);
+    }
+
+    /**
+     * Picks one of the choices with a probability proportional to its edge value.
+     * @param choices The node indices to choose from.
+     * @param cumulativeValues The running sum of the edge values of the choices.
+     * @param count The number of choices.
+     * @param denominator The sum of all edge values.
+     * @param rand The random number generator of the ant.
+     * @return The chosen node index.
+     */
+    private static int spinRoulette(int[] choices, double[] cumulativeValues, int count, double denominator,
+                                    Random rand) {
+        double randomValue = rand.nextDouble() * denominator;
+        int low = 0;
+        int high = count - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (cumulativeValues[middle] > randomValue) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return choices[low];
+    }
+
+    /**
+     * Calculates the value of an edge based on pheromone trail and distance, read from the cached choice info.
+     * @param previousNode The index of the node the ant is coming from.
+     * @param node The index of the node the ant is going to.
+     * @return The edge value.
+     */
+    double calculateEdgeValue(int previousNode, int node) {
+        return pheromones.getEdgeValue(previousNode, node);
+    }
+
+    /**
+     * Performs a single traversal of the graph by an ant, updating pheromone trail and shortest path.
+     * @param ant The ant performing the traversal.
+     * @param antSeed The seed of the ant, fixing its starting node and its choices.
+     * @param tour A reusable buffer receiving the tour of the ant.
+     */
+    void oneTraversal(Ant ant, long antSeed, int[] tour) {
+        if (!recorder.isActive()) {
+            finishAnt(tour, ant.constructTour(antSeed, tour));
+            return;
+        }
+        long constructionStart = System.nanoTime();
+        double totalDistance = ant.constructTour(antSeed, tour);
+        long depositStart = System.nanoTime();
+        finishAnt(tour, totalDistance);
+        recorder.addConstruction(depositStart - constructionStart);
+        recorder.addDeposit(System.nanoTime() - depositStart);
+    }
+
+    /**
+     * Hands a finished tour to the update rule and keeps track of the iteration-best and shortest paths.
+     * @param tour The tour of the ant.
+     * @param totalDistance The length of the tour.
+     */
+    private void finishAnt(int[] tour, double totalDistance) {
+        activeStrategy.antFinished(pheromones, tour, totalDistance);
+        if (recorder.isActive()) {
+            recorder.antFinished(totalDistance);
+        }
+
+        if (totalDistance < iterationBestLength) {
+            iterationBestLength = totalDistance;
+            System.arraycopy(tour, 0, iterationBestTour, 0, tour.length);
+        }
+        if (totalDistance < shortestDistance) {
+            improve(tour, totalDistance);
+        }
+    }
+
+    /**
+     * Records a new shortest path, publishes it to other threads and tells the improvement listener.
+     * @param tour The new shortest tour, copied.
+     * @param totalDistance The length of the tour.
+     */
+    private void improve(int[] tour, double totalDistance) {
+        shortestDistance = totalDistance;
+        shortestPath = tour.clone();
+        improvedInIteration = true;
+        Tour published = new Tour(shortestPath, totalDistance);
+        bestTour = published;
+        if (improvementListener != null) {
+            improvementListener.improved(published, completedIterations, System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Hands the finished iteration to the update rule and restarts the pheromones if the colony has stagnated.
+     */
+    private void finishIteration() {
+        long localSearchStart = System.nanoTime();
+        if (iterationBestSearch != null) {
+            iterationBestLength = iterationBestSearch.improve(iterationBestTour, iterationBestLength);
+            if (iterationBestLength < shortestDistance) {
+                improve(iterationBestTour, iterationBestLength);
+            }
+        }
+        long updateStart = System.nanoTime();
+        if (migrationInterval > 0 && (completedIterations + 1) % migrationInterval == 0) {
+            migrate();
+        }
+        activeStrategy.iterationFinished(pheromones, iterationBestTour, iterationBestLength,
+                shortestPath, shortestDistance);
+        iterationBestLength = Double.MAX_VALUE;
+
+        iterationsWithoutImprovement = improvedInIteration ? 0 : iterationsWithoutImprovement + 1;
+        iterationsSinceImprovement = improvedInIteration ? 0 : iterationsSinceImprovement + 1;
+        improvedInIteration = false;
+        if (stagnationLimit > 0 && iterationsWithoutImprovement >= stagnationLimit) {
+            activeStrategy.reinitialize(pheromones);
+            iterationsWithoutImprovement = 0;
+        }
+        long updateEnd = System.nanoTime();
+
+        if (recorder.isActive()) {
+            IterationStats stats = recorder.finish(completedIterations, startTime, updateEnd - updateStart,
+                    iterationBestSearch != null ? updateStart - localSearchStart : 0L, shortestDistance, pheromones);
+            if (iterationListener != null) {
+                iterationListener.iterationFinished(stats);
+            }
+        }
+        completedIterations++;
+        if (checkpointInterval > 0 && completedIterations % checkpointInterval == 0) {
+            writeCheckpoint();
+        }
+        if (liveRenderer != null && liveRenderer.isFrameDue()) {
+            liveRenderer.publish(captureSnapshot(liveRenderer.getTopEdges()));
+        }
+    }
+
+    /**
+     * Sends the shortest path to the other colonies, unless it was sent before, and takes over every tour that has
+     * arrived from them and is shorter than the shortest path. The length of an arriving tour is calculated again
+     * rather than trusted, and tours that do not visit every node of this problem once are ignored.
+     * @throws UncheckedIOException If the transport has failed.
+     */
+    private void migrate() {
+        try {
+            Tour own = bestTour;
+            if (own != null && own != lastEmigrant) {
+                migration.send(own);
+                lastEmigrant = own;
+            }
+            Tour immigrant;
+            while ((immigrant = migration.receive()) != null) {
+                int[] tour = immigrant.getNodes();
+                double length = tourLength(tour);
+                // The same tour summed from another starting node may come out a rounding error shorter
+                if (length < shortestDistance * (1.0 - 1e-12)) {
+                    improve(tour, length);
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not exchange tours with the other colonies", ex);
+        }
+    }
+
+    /**
+     * Calculates the length of a closed tour that came from outside the colony.
+     * @param tour The tour.
+     * @return The length, or infinity if the tour does not visit every node exactly once.
+     */
+    private double tourLength(int[] tour) {
+        int numberOfNodes = problem.getNumberOfNodes();
+        if (tour.length != numberOfNodes) {
+            return Double.POSITIVE_INFINITY;
+        }
+        boolean[] seen = new boolean[numberOfNodes];
+        for (int node : tour) {
+            if (node < 0 || node >= numberOfNodes || seen[node]) {
+                return Double.POSITIVE_INFINITY;
+            }
+            seen[node] = true;
+        }
+        double length = 0.0;
+        for (int k = 0; k < numberOfNodes; k++) {
+            length += problem.getDistance(tour[k], tour[(k + 1) % numberOfNodes]);
+        }
+        return length;
+    }
+
+    /**
+     * Saves the state of the colony between two iterations to the checkpoint file.
+     * @throws UncheckedIOException If the checkpoint cannot be written.
+     */
+    private void writeCheckpoint() {
+        Checkpoint checkpoint = new Checkpoint(activeStrategy.getClass().getName(), problem.getDistanceType(),
+                problem.getX(), problem.getY(), degradationFactor, alpha, beta, initialPheromoneIntensity, qValue,
+                antPerIteration, candidateListSize, localSearchMode, stagnationLimit, threadCount, seed,
+                completedIterations, iterationsWithoutImprovement, iterationsSinceImprovement,
+                shortestPath, shortestDistance, pheromones.getScale());
+        try {
+            checkpoint.write(checkpointFile, pheromones);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write the checkpoint " + checkpointFile, ex);
+        }
+    }
+
+    /**
+     * Lets the update rule wear down the pheromone of an edge an ant has just walked on.
+     * @param start The node the ant came from.
+     * @param destination The node the ant went to.
+     */
+    void localUpdate(int start, int destination) {
+        activeStrategy.localUpdate(pheromones, start, destination);
+    }
+
+    /**
+     * Gets the pheromone intensities of all edges, copied into a new matrix.
+     * @return The pheromone intensities.
+     * @throws IllegalStateException If the problem uses the matrix-free storage, whose n * n edges do not fit.
+     */
+    public double[][] getPheromoneIntensities() {
+        checkNotMatrixFree("Full pheromone matrices");
+        return pheromones.toArray();
+    }
+
+    /**
+     * Takes a snapshot of the nodes, the shortest path and the strongest pheromone edges for drawing.
+     * @param topEdges The number of strongest pheromone edges to keep per node.
+     * @return The snapshot.
+     */
+    public RenderSnapshot captureSnapshot(int topEdges) {
+        return RenderSnapshot.capture(problem, shortestPath, shortestDistance, pheromones, completedIterations, topEdges);
+    }
+
+    /**
+     * Gets the shortest path found by the last run.
+     * @return The shortest path, or null if the solver has not run yet.
+     */
+    public int[] getShortestPath() {
+        return shortestPath;
+    }
+
+    /**
+     * Gets the length of the shortest path found by the last run.
+     * @return The shortest distance.
+     */
+    public double getShortestDistance() {
+        return shortestDistance;
+    }
+
+    /**
+     * Gets the shortest tour found so far. Unlike the other getters it may be called from any thread
+     * while the colony is running, to take the best answer there is at that moment.
+     * @return The shortest tour, or null if no ant has finished yet.
+     */
+    public Tour getBestTour() {
+        return bestTour;
+    }
+
+    /**
+     * Gets why the last run stopped.
+     * @return The reason, or null while the colony is running or before it ran.
+     */
+    public StopReason getStopReason() {
+        return stopReason;
+    }
+
+    /**
+     * Gets the pheromone matrix of the last run.
+     * @return The pheromone matrix, or null if the colony has not run yet.
+     */
+    PheromoneMatrix getPheromoneMatrix() {
+        return pheromones;
+    }
+
+    /**
+     * Gets the number of iterations finished in the current or last run.
+     * @return The number of iterations finished.
+     */
+    public int getCompletedIterations() {
+        return completedIterations;
+    }
+
+    /**
+     * Gets the pheromone intensity of one edge.
+     * @param start The first node of the edge.
+     * @param destination The second node of the edge.
+     * @return The pheromone intensity.
+     */
+    public double getPheromoneIntensity(int start, int destination) {
+        return pheromones.getIntensity(start, destination);
+    }
+}
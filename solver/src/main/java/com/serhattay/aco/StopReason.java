@@ -0,0 +1,17 @@
+package com.serhattay.aco;
+
+/**
+ * A class representing why a run of the colony stopped.
+ */
+public enum StopReason {
+    /** All iterations were run. */
+    ITERATIONS,
+    /** The time limit was reached. */
+    TIME_LIMIT,
+    /** A tour at least as short as the target length was found. */
+    TARGET_LENGTH,
+    /** The shortest path did not improve for the convergence limit of iterations. */
+    CONVERGED,
+    /** The run was cancelled from another thread. */
+    CANCELLED
+}
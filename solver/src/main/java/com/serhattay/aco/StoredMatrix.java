@@ -0,0 +1,63 @@
+package com.serhattay.aco;
+
+/**
+ * A class representing a symmetric matrix whose values are kept in memory and can be written, such as the pheromone
+ * trails and the distances of every storage but the matrix-free one.
+ */
+abstract class StoredMatrix extends SymmetricMatrix {
+    /**
+     * Sets the value of both directions of an edge. The packed layouts have no diagonal and ignore it.
+     * @param start The first node of the edge.
+     * @param destination The second node of the edge.
+     * @param value The new value.
+     */
+    abstract void set(int start, int destination, double value);
+
+    /**
+     * Sets the values of the edges of a node to every node before it, in both directions.
+     * @param node The node.
+     * @param row The values, the value of the edge to node j at index j for every j below the node.
+     */
+    void setRow(int node, double[] row) {
+        for (int j = 0; j < node; j++) {
+            set(node, j, row[j]);
+        }
+    }
+
+    /**
+     * Sets every value to the same value.
+     * @param value The value.
+     */
+    abstract void fill(double value);
+
+    /**
+     * Multiplies every value by the same factor.
+     * @param factor The factor.
+     */
+    abstract void multiply(double factor);
+
+    /**
+     * Gets the nodes whose edges with a node are stored, for the sparse storage that stores only some edges.
+     * @param node The node.
+     * @return The nodes, sorted, or null if every edge is stored.
+     */
+    int[] getStoredEdges(int node) {
+        return null;
+    }
+
+    /**
+     * Gets the value of the edges that are not stored, which all share one value.
+     * @return The value, 0 if every edge is stored.
+     */
+    double getUnstoredValue() {
+        return 0.0;
+    }
+
+    /**
+     * Keeps the value of the edges that are not stored between two bounds. Nothing to do if every edge is stored.
+     * @param min The lower bound.
+     * @param max The upper bound.
+     */
+    void clampUnstored(double min, double max) {
+    }
+}
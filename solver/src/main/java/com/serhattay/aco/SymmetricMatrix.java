@@ -0,0 +1,49 @@
+package com.serhattay.aco;
+
+/**
+ * A class representing a square matrix of values that is the same for both directions of every edge,
+ * such as the distances and the pheromone trails. The solver reads those matrices only through this class, so the
+ * way they are stored can be chosen with {@link MatrixStorage}. The matrices that are written to are a
+ * {@link StoredMatrix}; the distances of the matrix-free storage are only ever read.
+ */
+abstract class SymmetricMatrix {
+    /**
+     * Gets the number of nodes, the number of rows and columns.
+     * @return The number of nodes.
+     */
+    abstract int size();
+
+    /**
+     * Gets the value of an edge.
+     * @param start The first node of the edge.
+     * @param destination The second node of the edge.
+     * @return The value, 0 for the diagonal in the packed layouts.
+     */
+    abstract double get(int start, int destination);
+
+    /**
+     * Adds a node after the last one. A stored matrix gives all of its values 0.
+     */
+    abstract void addNode();
+
+    /**
+     * Removes a node. The nodes after it move down by one index.
+     * @param node The node to remove.
+     */
+    abstract void removeNode(int node);
+
+    /**
+     * Copies the values into a full matrix, reading all n * n edges.
+     * @return The full matrix.
+     */
+    double[][] toArray() {
+        int numberOfNodes = size();
+        double[][] values = new double[numberOfNodes][numberOfNodes];
+        for (int i = 0; i < numberOfNodes; i++) {
+            for (int j = 0; j < numberOfNodes; j++) {
+                values[i][j] = get(i, j);
+            }
+        }
+        return values;
+    }
+}
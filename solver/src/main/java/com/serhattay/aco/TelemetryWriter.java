@@ -0,0 +1,127 @@
+package com.serhattay.aco;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * A class representing an iteration listener that writes the telemetry of every iteration as one line,
+ * either as CSV with a header line or as one JSON object per line. Times are in nanoseconds.
+ */
+public class TelemetryWriter implements IterationListener, Closeable {
+    private static final String[] COLUMNS = {
+        "iteration", "ants", "elapsedNanos", "iterationNanos", "antsPerSecond", "bestLength", "meanLength",
+        "worstLength", "shortestDistance", "constructionNanos", "depositNanos", "evaporationNanos",
+        "localSearchNanos", "entropy", "branchingFactor", "allocatedBytes"
+    };
+
+    /**
+     * The line formats the telemetry can be written in.
+     */
+    public enum Format {
+        CSV,
+        JSON_LINES
+    }
+
+    private final Writer out;
+    private final Format format;
+    private boolean headerWritten;
+
+    /**
+     * Constructs a telemetry writer over a writer, which it closes when it is closed.
+     * @param out The writer receiving the lines.
+     * @param format The line format.
+     */
+    public TelemetryWriter(Writer out, Format format) {
+        this.out = out;
+        this.format = format;
+    }
+
+    /**
+     * Opens a telemetry writer on a file, replacing the file if it exists.
+     * @param file The file to write.
+     * @param format The line format.
+     * @return The telemetry writer.
+     * @throws IOException If the file cannot be opened.
+     */
+    public static TelemetryWriter open(Path file, Format format) throws IOException {
+        return new TelemetryWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), format);
+    }
+
+    /**
+     * Writes the line of one iteration.
+     * @param stats The telemetry of the iteration.
+     * @throws UncheckedIOException If the line cannot be written.
+     */
+    @Override
+    public void iterationFinished(IterationStats stats) {
+        Object[] values = {
+            stats.getIteration(), stats.getAntCount(), stats.getElapsedNanos(), stats.getIterationNanos(),
+            stats.getAntsPerSecond(), stats.getBestLength(), stats.getMeanLength(), stats.getWorstLength(),
+            stats.getShortestDistance(), stats.getConstructionNanos(), stats.getDepositNanos(),
+            stats.getEvaporationNanos(), stats.getLocalSearchNanos(), stats.getEntropy(),
+            stats.getBranchingFactor(), stats.getAllocatedBytes()
+        };
+        StringBuilder line = new StringBuilder();
+        try {
+            if (format == Format.CSV) {
+                if (!headerWritten) {
+                    out.write(String.join(",", COLUMNS));
+                    out.write(System.lineSeparator());
+                    headerWritten = true;
+                }
+                for (int i = 0; i < values.length; i++) {
+                    line.append(i > 0 ? "," : "").append(formatValue(values[i]));
+                }
+            } else {
+                line.append('{');
+                for (int i = 0; i < values.length; i++) {
+                    line.append(i > 0 ? "," : "").append('"').append(COLUMNS[i]).append("\":");
+                    // JSON has no NaN, an iteration stopped before its first ant has no lengths
+                    String value = formatValue(values[i]);
+                    line.append(value.equals("NaN") ? "null" : value);
+                }
+                line.append('}');
+            }
+            out.write(line.toString());
+            out.write(System.lineSeparator());
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Could not write the telemetry", ex);
+        }
+    }
+
+    /**
+     * Formats one value independently of the default locale.
+     * @param value The value, an integer or a double.
+     * @return The formatted value.
+     */
+    private static String formatValue(Object value) {
+        if (value instanceof Double) {
+            double number = (Double) value;
+            return Double.isNaN(number) ? "NaN" : String.format(Locale.ROOT, "%.6f", number);
+        }
+        return value.toString();
+    }
+
+    /**
+     * Flushes the written lines without closing the writer.
+     * @throws IOException If the lines cannot be written.
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * Closes the writer, writing out every line.
+     * @throws IOException If the lines cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,52 @@
+package com.serhattay.aco;
+
+/**
+ * A class representing an immutable closed tour and its length, safe to hand to other threads.
+ */
+public final class Tour {
+    private final int[] nodes;
+    private final double length;
+
+    /**
+     * Constructs a tour from an array the tour takes ownership of.
+     * @param nodes The order of the visited nodes.
+     * @param length The length of the closed tour.
+     */
+    Tour(int[] nodes, double length) {
+        this.nodes = nodes;
+        this.length = length;
+    }
+
+    /**
+     * Gets the order of the visited nodes.
+     * @return A copy of the order of the visited nodes.
+     */
+    public int[] getNodes() {
+        return nodes.clone();
+    }
+
+    /**
+     * Gets the node at one position of the tour.
+     * @param position The position on the tour.
+     * @return The node at that position.
+     */
+    public int getNode(int position) {
+        return nodes[position];
+    }
+
+    /**
+     * Gets the number of nodes of the tour.
+     * @return The number of nodes.
+     */
+    public int size() {
+        return nodes.length;
+    }
+
+    /**
+     * Gets the length of the closed tour.
+     * @return The length.
+     */
+    public double getLength() {
+        return length;
+    }
+}
@@ -0,0 +1,102 @@
+package com.serhattay.aco;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * A class representing the distance kernel built on the Vector API, which calculates as many distances at once as
+ * the widest vector of doubles the CPU has: four with AVX2 and eight with AVX-512. It only uses operations that
+ * round exactly like their scalar counterparts, square roots included, and no fused multiply-add, so it calculates
+ * the very same distances as the scalar kernel. The TSPLIB rounding is done by adding and subtracting 2^52 rather
+ * than by converting to integers, which AVX2 cannot do on whole vectors; the rare vectors holding a distance too
+ * large for an int are calculated one by one, so that they overflow exactly like the scalar kernel does.
+ * This class is only loaded when the jdk.incubator.vector module is there.
+ */
+final class VectorDistanceKernel extends DistanceKernel {
+    private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+    // Adding and then subtracting 2^52 rounds a non-negative double below 2^52 to the nearest whole number
+    private static final double ROUNDING = 0x1p52;
+    // Values from here on, and NaN, are rounded one by one, as the int casts of the scalar kernel saturate
+    private static final double LIMIT = Integer.MAX_VALUE;
+
+    /**
+     * Constructs a Vector API kernel.
+     * @param distanceType How the distance between two nodes is calculated, one the kernel supports.
+     */
+    VectorDistanceKernel(DistanceType distanceType) {
+        super(distanceType);
+    }
+
+    /**
+     * Checks whether a distance type can be calculated on vectors. GEO needs trigonometric functions, whose
+     * vector versions do not round like the scalar ones.
+     * @param distanceType How the distance between two nodes is calculated.
+     * @return True for every type but GEO.
+     */
+    static boolean supports(DistanceType distanceType) {
+        return distanceType != DistanceType.GEO;
+    }
+
+    /**
+     * Gets the number of doubles in the widest vector of the CPU.
+     * @return The number of lanes, 1 if the CPU has no vectors of doubles.
+     */
+    static int lanes() {
+        return SPECIES.length();
+    }
+
+    @Override
+    boolean isVectorized() {
+        return true;
+    }
+
+    @Override
+    void distances(double[] x, double[] y, int node, int count, double[] row) {
+        DistanceType distanceType = getDistanceType();
+        DoubleVector nodeX = DoubleVector.broadcast(SPECIES, x[node]);
+        DoubleVector nodeY = DoubleVector.broadcast(SPECIES, y[node]);
+        int bound = SPECIES.loopBound(count);
+        int j = 0;
+        for (; j < bound; j += SPECIES.length()) {
+            // The other node first, like the scalar kernel
+            DoubleVector dx = DoubleVector.fromArray(SPECIES, x, j).sub(nodeX);
+            DoubleVector dy = DoubleVector.fromArray(SPECIES, y, j).sub(nodeY);
+            DoubleVector squared = dx.mul(dx).add(dy.mul(dy));
+            if (distanceType == DistanceType.EUCLIDEAN) {
+                squared.lanewise(VectorOperators.SQRT).intoArray(row, j);
+            } else if (distanceType == DistanceType.EUC_2D) {
+                DoubleVector distance = squared.lanewise(VectorOperators.SQRT);
+                DoubleVector halfUp = distance.add(0.5);
+                if (halfUp.compare(VectorOperators.LT, LIMIT).allTrue()) {
+                    floor(halfUp).intoArray(row, j);
+                } else {
+                    distances(x, y, node, j, j + SPECIES.length(), row);
+                }
+            } else {
+                DoubleVector distance = squared.div(10.0).lanewise(VectorOperators.SQRT);
+                DoubleVector halfUp = distance.add(0.5);
+                if (halfUp.compare(VectorOperators.LT, LIMIT).allTrue()) {
+                    DoubleVector rounded = floor(halfUp);
+                    // Round up the distances that were rounded down
+                    rounded.add(1.0, rounded.compare(VectorOperators.LT, distance)).intoArray(row, j);
+                } else {
+                    distances(x, y, node, j, j + SPECIES.length(), row);
+                }
+            }
+        }
+        distances(x, y, node, j, count, row);
+    }
+
+    /**
+     * Rounds non-negative values below 2^31 down to whole numbers, like an int cast does.
+     * @param values The values.
+     * @return The values rounded down.
+     */
+    private static DoubleVector floor(DoubleVector values) {
+        DoubleVector nearest = values.add(ROUNDING).sub(ROUNDING);
+        VectorMask<Double> roundedUp = nearest.compare(VectorOperators.GT, values);
+        return nearest.sub(1.0, roundedUp);
+    }
+}
@@ -0,0 +1,140 @@
+package com.serhattay.aco;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * A class representing the carrying over of a tour of an earlier, slightly different instance to a new problem.
+ * The nodes are matched by their coordinates, so nodes may have been added, removed or moved, and the order of
+ * the nodes in the files may have changed. Nodes the old tour does not reach are added by cheapest insertion.
+ */
+final class WarmStart {
+    /**
+     * Prevents creating a warm start, it only has static methods.
+     */
+    private WarmStart() {
+    }
+
+    /**
+     * Carries a tour over to a problem: keeps the order of the old nodes that are still there and inserts
+     * every other node of the problem where it lengthens the tour the least.
+     * @param previousX The x-coordinates of the nodes of the old instance.
+     * @param previousY The y-coordinates of the nodes of the old instance.
+     * @param previousTour The tour over the old instance.
+     * @param problem The new problem.
+     * @return A complete tour of the new problem.
+     */
+    static int[] carryOver(double[] previousX, double[] previousY, int[] previousTour, Problem problem) {
+        double[] x = problem.getX();
+        double[] y = problem.getY();
+        int numberOfNodes = problem.getNumberOfNodes();
+
+        // Sort the new nodes by their coordinates to find the old ones with a binary search
+        Integer[] byPosition = new Integer[numberOfNodes];
+        for (int i = 0; i < numberOfNodes; i++) {
+            byPosition[i] = i;
+        }
+        Comparator<Integer> order = Comparator.<Integer>comparingDouble(i -> x[i]).thenComparingDouble(i -> y[i]);
+        Arrays.sort(byPosition, order);
+        double[] sortedX = new double[numberOfNodes];
+        double[] sortedY = new double[numberOfNodes];
+        for (int k = 0; k < numberOfNodes; k++) {
+            sortedX[k] = x[byPosition[k]];
+            sortedY[k] = y[byPosition[k]];
+        }
+
+        int[] tour = new int[numberOfNodes];
+        boolean[] inTour = new boolean[numberOfNodes];
+        int size = 0;
+        for (int oldNode : previousTour) {
+            double pointX = previousX[oldNode];
+            double pointY = previousY[oldNode];
+            int k = lowerBound(sortedX, sortedY, pointX, pointY);
+            // Nodes on the same spot are matched in order
+            while (k < numberOfNodes && isAt(sortedX[k], sortedY[k], pointX, pointY) && inTour[byPosition[k]]) {
+                k++;
+            }
+            if (k < numberOfNodes && isAt(sortedX[k], sortedY[k], pointX, pointY)) {
+                tour[size++] = byPosition[k];
+                inTour[byPosition[k]] = true;
+            }
+        }
+
+        SymmetricMatrix distances = problem.getDistances();
+        for (int node = 0; node < numberOfNodes; node++) {
+            if (!inTour[node]) {
+                insertCheapest(tour, size++, node, distances);
+                inTour[node] = true;
+            }
+        }
+        return tour;
+    }
+
+    /**
+     * Inserts a node into a closed tour where it lengthens the tour the least.
+     * @param tour The tour, with room for one more node after its first size nodes.
+     * @param size The number of nodes on the tour.
+     * @param node The node to insert.
+     * @param distances The distances between the nodes.
+     * @return How much longer the tour has become.
+     */
+    static double insertCheapest(int[] tour, int size, int node, SymmetricMatrix distances) {
+        if (size < 2) {
+            tour[size] = node;
+            return size == 0 ? 0.0 : 2.0 * distances.get(tour[0], node);
+        }
+        int bestPosition = 0;
+        double bestIncrease = Double.MAX_VALUE;
+        for (int k = 0; k < size; k++) {
+            int previous = tour[k];
+            int next = tour[(k + 1) % size];
+            double increase = distances.get(previous, node) + distances.get(node, next)
+                    - distances.get(previous, next);
+            if (increase < bestIncrease) {
+                bestIncrease = increase;
+                bestPosition = k + 1;
+            }
+        }
+        System.arraycopy(tour, bestPosition, tour, bestPosition + 1, size - bestPosition);
+        tour[bestPosition] = node;
+        return bestIncrease;
+    }
+
+    /**
+     * Checks whether a node is on a point, comparing the coordinates the way they were sorted.
+     * @param nodeX The x-coordinate of the node.
+     * @param nodeY The y-coordinate of the node.
+     * @param pointX The x-coordinate of the point.
+     * @param pointY The y-coordinate of the point.
+     * @return True if both coordinates are the same.
+     */
+    private static boolean isAt(double nodeX, double nodeY, double pointX, double pointY) {
+        return Double.compare(nodeX, pointX) == 0 && Double.compare(nodeY, pointY) == 0;
+    }
+
+    /**
+     * Finds the first position in coordinate order that is not before a point.
+     * @param sortedX The x-coordinates in coordinate order.
+     * @param sortedY The y-coordinates in coordinate order.
+     * @param pointX The x-coordinate of the point.
+     * @param pointY The y-coordinate of the point.
+     * @return The first position whose node is not before the point.
+     */
+    private static int lowerBound(double[] sortedX, double[] sortedY, double pointX, double pointY) {
+        int low = 0;
+        int high = sortedX.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = Double.compare(sortedX[middle], pointX);
+            if (comparison == 0) {
+                comparison = Double.compare(sortedY[middle], pointY);
+            }
+            if (comparison < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+}
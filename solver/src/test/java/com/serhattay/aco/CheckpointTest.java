@@ -0,0 +1,167 @@
+package com.serhattay.aco;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Checks that a run resumed from a checkpoint ends exactly like the run that was never stopped, and that files that
+ * are not complete checkpoints of this version are refused.
+ */
+class CheckpointTest {
+    private static final int NODES = 40;
+    private static final int ITERATIONS = 30;
+    private static final int CHECKPOINT_ITERATION = 12;
+    private static final int ANTS = 8;
+    private static final long SEED = 42L;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Runs a colony in one go and again with a stop at a checkpoint, and compares the shortest paths.
+     * @param storage The storage of the matrices.
+     * @throws IOException If the checkpoint cannot be written or read.
+     */
+    @ParameterizedTest
+    @EnumSource(value = MatrixStorage.class, names = "MATRIX_FREE", mode = EnumSource.Mode.EXCLUDE)
+    void resumedRunEqualsUninterruptedRun(MatrixStorage storage) throws IOException {
+        Solver uninterrupted = createSolver(storage);
+        solve(uninterrupted, ITERATIONS);
+
+        Path file = directory.resolve("colony.ckpt");
+        Solver stopped = createSolver(storage);
+        stopped.setCheckpoint(file, CHECKPOINT_ITERATION);
+        solve(stopped, CHECKPOINT_ITERATION);
+
+        Checkpoint checkpoint = Checkpoint.read(file);
+        assertEquals(CHECKPOINT_ITERATION, checkpoint.getCompletedIterations());
+        Solver resumed = new Solver(createProblem(storage));
+        resumed.resume(checkpoint, ITERATIONS);
+
+        assertEquals(ITERATIONS, resumed.getCompletedIterations());
+        assertArrayEquals(uninterrupted.getShortestPath(), resumed.getShortestPath());
+        assertEquals(Double.doubleToLongBits(uninterrupted.getShortestDistance()),
+                Double.doubleToLongBits(resumed.getShortestDistance()));
+    }
+
+    /**
+     * Checks that the matrix-free storage, whose trails a checkpoint cannot hold, refuses checkpoints.
+     */
+    @Test
+    void matrixFreeStorageRefusesCheckpoints() {
+        Solver solver = createSolver(MatrixStorage.MATRIX_FREE);
+        assertThrows(IllegalStateException.class, () -> solver.setCheckpoint(directory.resolve("colony.ckpt"), 1));
+    }
+
+    /**
+     * Checks that a file that does not start with the magic number is refused.
+     * @throws IOException If the checkpoint cannot be written.
+     */
+    @Test
+    void wrongMagicIsRejected() throws IOException {
+        Path file = writeCheckpoint();
+        overwriteInt(file, 0, 0x12345678);
+        assertThrows(IOException.class, () -> Checkpoint.read(file));
+    }
+
+    /**
+     * Checks that a checkpoint of another version is refused.
+     * @throws IOException If the checkpoint cannot be written.
+     */
+    @Test
+    void wrongVersionIsRejected() throws IOException {
+        Path file = writeCheckpoint();
+        overwriteInt(file, Integer.BYTES, 99);
+        assertThrows(IOException.class, () -> Checkpoint.read(file));
+    }
+
+    /**
+     * Checks that a checkpoint cut short is refused, whether the trails or the header are missing.
+     * @throws IOException If the checkpoint cannot be written.
+     */
+    @Test
+    void truncatedCheckpointIsRejected() throws IOException {
+        Path file = writeCheckpoint();
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - Double.BYTES));
+        assertThrows(IOException.class, () -> Checkpoint.read(file));
+        Files.write(file, Arrays.copyOf(bytes, 20));
+        assertThrows(IOException.class, () -> Checkpoint.read(file));
+    }
+
+    /**
+     * Writes the checkpoint of a short run.
+     * @return The checkpoint file.
+     * @throws IOException If the checkpoint cannot be written.
+     */
+    private Path writeCheckpoint() throws IOException {
+        Path file = directory.resolve("colony.ckpt");
+        Solver solver = createSolver(MatrixStorage.FULL);
+        solver.setCheckpoint(file, 2);
+        solve(solver, 2);
+        Checkpoint.read(file);
+        return file;
+    }
+
+    /**
+     * Replaces one big-endian int of a file.
+     * @param file The file.
+     * @param offset The position of the int.
+     * @param value The new value.
+     * @throws IOException If the file cannot be read or written.
+     */
+    private static void overwriteInt(Path file, int offset, int value) throws IOException {
+        byte[] bytes = Files.readAllBytes(file);
+        ByteBuffer.wrap(bytes).putInt(offset, value);
+        Files.write(file, bytes);
+    }
+
+    /**
+     * Creates a seeded solver for the random problem.
+     * @param storage The storage of the matrices.
+     * @return The solver.
+     */
+    private static Solver createSolver(MatrixStorage storage) {
+        Solver solver = new Solver(createProblem(storage));
+        solver.setSeed(SEED);
+        return solver;
+    }
+
+    /**
+     * Creates the same random problem every time.
+     * @param storage The storage of the matrices.
+     * @return The problem.
+     */
+    private static Problem createProblem(MatrixStorage storage) {
+        Random random = new Random(7L);
+        double[] x = new double[NODES];
+        double[] y = new double[NODES];
+        for (int i = 0; i < NODES; i++) {
+            x[i] = random.nextDouble() * 1000.0;
+            y[i] = random.nextDouble() * 1000.0;
+        }
+        return new Problem("random" + NODES, x, y, DistanceType.EUC_2D, storage);
+    }
+
+    /**
+     * Runs a solver with the parameters of every run of this test.
+     * @param solver The solver.
+     * @param iterationCount The number of iterations.
+     */
+    private static void solve(Solver solver, int iterationCount) {
+        solver.solve(iterationCount, ANTS, 0.8, 1.0, 2.0, 0.01, 1.0);
+    }
+}
@@ -0,0 +1,90 @@
+package com.serhattay.aco;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks that the Vector API kernel calculates exactly the same distances as the scalar kernel.
+ */
+class DistanceKernelTest {
+    // Row lengths that leave a tail after the last whole vector for every vector width up to eight lanes
+    private static final int[] ROW_LENGTHS = {1, 3, 7, 9, 13, 31, 101, 257};
+
+    /**
+     * Skips the tests on a JVM without the Vector API or a CPU without vectors of doubles.
+     */
+    @BeforeAll
+    static void requireVectors() {
+        assumeTrue(ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent(),
+                "needs --add-modules jdk.incubator.vector");
+        assumeTrue(VectorDistanceKernel.lanes() > 1, "needs vectors of more than one double");
+    }
+
+    /**
+     * Compares the rows of both kernels bit for bit over random coordinates of ordinary size.
+     * @param distanceType The distance type.
+     */
+    @ParameterizedTest
+    @EnumSource(DistanceType.class)
+    void vectorRowsMatchScalarRows(DistanceType distanceType) {
+        assertSameRows(distanceType, 1000.0, 1L);
+    }
+
+    /**
+     * Compares the rows of both kernels bit for bit over coordinates so far apart that some rounded distances do not
+     * fit in an int, so that the vectors holding them are calculated one by one.
+     * @param distanceType The distance type.
+     */
+    @ParameterizedTest
+    @EnumSource(DistanceType.class)
+    void vectorRowsMatchScalarRowsWhenRoundingSaturates(DistanceType distanceType) {
+        assertSameRows(distanceType, 1.0e10, 2L);
+    }
+
+    /**
+     * Checks that GEO, which the Vector API kernel does not support, is given the scalar kernel.
+     */
+    @Test
+    void geoFallsBackToTheScalarKernel() {
+        assertFalse(DistanceKernel.create(DistanceType.GEO, true).isVectorized());
+    }
+
+    /**
+     * Calculates every row of random instances of every row length with both kernels and compares them.
+     * @param distanceType The distance type.
+     * @param span The largest coordinate.
+     * @param seed The seed of the coordinates.
+     */
+    private static void assertSameRows(DistanceType distanceType, double span, long seed) {
+        DistanceKernel scalar = DistanceKernel.create(distanceType, false);
+        DistanceKernel vector = DistanceKernel.create(distanceType, true);
+        Random random = new Random(seed);
+        for (int length : ROW_LENGTHS) {
+            double[] x = new double[length];
+            double[] y = new double[length];
+            for (int i = 0; i < length; i++) {
+                // GEO coordinates are degrees and minutes, which stay valid below 90
+                x[i] = distanceType == DistanceType.GEO ? random.nextDouble() * 89.0 : random.nextDouble() * span;
+                y[i] = distanceType == DistanceType.GEO ? random.nextDouble() * 89.0 : random.nextDouble() * span;
+            }
+            double[] expected = new double[length];
+            double[] actual = new double[length];
+            for (int node = 0; node < length; node++) {
+                scalar.distances(x, y, node, length, expected);
+                vector.distances(x, y, node, length, actual);
+                for (int j = 0; j < length; j++) {
+                    assertEquals(Double.doubleToRawLongBits(expected[j]), Double.doubleToRawLongBits(actual[j]),
+                            distanceType + " row " + node + " of " + length + ", node " + j);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.serhattay.aco;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Checks that the Held-Karp and branch-and-bound solvers find the same optimum on small random instances, and that
+ * it is the optimum the brute-force search finds where that is affordable.
+ */
+class ExactSolverTest {
+    private static final int LARGEST_INSTANCE = 12;
+    private static final int LARGEST_BRUTE_FORCE_INSTANCE = 8;
+    private static final int INSTANCES_PER_SIZE = 5;
+    // The solvers add up the same edges in different orders
+    private static final double TOLERANCE = 1e-9;
+
+    /**
+     * Solves random instances of up to twelve nodes with both exact solvers and compares the optima.
+     */
+    @Test
+    void heldKarpAndBranchAndBoundAgree() {
+        Random random = new Random(1L);
+        for (int n = 3; n <= LARGEST_INSTANCE; n++) {
+            for (int instance = 0; instance < INSTANCES_PER_SIZE; instance++) {
+                double[][] distanceMatrix = randomDistances(random, n);
+                HeldKarp heldKarp = new HeldKarp(distanceMatrix);
+                BranchAndBound branchAndBound = new BranchAndBound(distanceMatrix);
+                double heldKarpLength = heldKarp.solve();
+                double branchAndBoundLength = branchAndBound.solve();
+
+                String label = n + " nodes, instance " + instance;
+                assertEquals(heldKarpLength, branchAndBoundLength, TOLERANCE * heldKarpLength, label);
+                assertTour(distanceMatrix, heldKarp.getShortestPath(), heldKarpLength, label);
+                assertTour(distanceMatrix, branchAndBound.getShortestPath(), branchAndBoundLength, label);
+            }
+        }
+    }
+
+    /**
+     * Solves random instances of up to eight nodes with both exact solvers and compares the optima to every
+     * permutation.
+     */
+    @Test
+    void exactSolversMatchBruteForce() {
+        Random random = new Random(2L);
+        for (int n = 3; n <= LARGEST_BRUTE_FORCE_INSTANCE; n++) {
+            for (int instance = 0; instance < INSTANCES_PER_SIZE; instance++) {
+                double[][] distanceMatrix = randomDistances(random, n);
+                double optimum = bruteForce(distanceMatrix);
+
+                String label = n + " nodes, instance " + instance;
+                assertEquals(optimum, new HeldKarp(distanceMatrix).solve(), TOLERANCE * optimum, label);
+                assertEquals(optimum, new BranchAndBound(distanceMatrix).solve(), TOLERANCE * optimum, label);
+            }
+        }
+    }
+
+    /**
+     * Checks that a tour visits every node once, starts at node 0 and is as long as the solver says.
+     * @param distanceMatrix The distance matrix of the nodes.
+     * @param tour The tour.
+     * @param length The length the solver reported.
+     * @param label The instance, for the failure message.
+     */
+    private static void assertTour(double[][] distanceMatrix, int[] tour, double length, String label) {
+        int n = distanceMatrix.length;
+        assertEquals(n, tour.length, label);
+        assertEquals(0, tour[0], label);
+        boolean[] visited = new boolean[n];
+        for (int node : tour) {
+            assertFalse(visited[node], label + ": node " + node + " visited twice");
+            visited[node] = true;
+        }
+        assertEquals(length, tourLength(distanceMatrix, tour), TOLERANCE * length, label);
+    }
+
+    /**
+     * Finds the shortest tour by trying every order of the nodes after node 0.
+     * @param distanceMatrix The distance matrix of the nodes.
+     * @return The length of the shortest tour.
+     */
+    private static double bruteForce(double[][] distanceMatrix) {
+        int n = distanceMatrix.length;
+        int[] tour = new int[n];
+        for (int i = 0; i < n; i++) {
+            tour[i] = i;
+        }
+        return permute(distanceMatrix, tour, 1);
+    }
+
+    /**
+     * Tries every order of the nodes from one position on.
+     * @param distanceMatrix The distance matrix of the nodes.
+     * @param tour The tour, whose nodes before the position are fixed.
+     * @param position The first position to permute.
+     * @return The length of the shortest tour with the fixed start.
+     */
+    private static double permute(double[][] distanceMatrix, int[] tour, int position) {
+        if (position == tour.length) {
+            return tourLength(distanceMatrix, tour);
+        }
+        double shortest = Double.MAX_VALUE;
+        for (int i = position; i < tour.length; i++) {
+            swap(tour, position, i);
+            shortest = Math.min(shortest, permute(distanceMatrix, tour, position + 1));
+            swap(tour, position, i);
+        }
+        return shortest;
+    }
+
+    /**
+     * Swaps two nodes of a tour.
+     * @param tour The tour.
+     * @param i The position of the first node.
+     * @param j The position of the second node.
+     */
+    private static void swap(int[] tour, int i, int j) {
+        int node = tour[i];
+        tour[i] = tour[j];
+        tour[j] = node;
+    }
+
+    /**
+     * Calculates the length of a closed tour.
+     * @param distanceMatrix The distance matrix of the nodes.
+     * @param tour The tour.
+     * @return The length of the tour, the edge back to the start included.
+     */
+    private static double tourLength(double[][] distanceMatrix, int[] tour) {
+        double length = 0.0;
+        for (int i = 0; i < tour.length; i++) {
+            length += distanceMatrix[tour[i]][tour[(i + 1) % tour.length]];
+        }
+        return length;
+    }
+
+    /**
+     * Creates the Euclidean distances of random points.
+     * @param random The source of the points.
+     * @param n The number of points.
+     * @return The distance matrix of the points.
+     */
+    private static double[][] randomDistances(Random random, int n) {
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = random.nextDouble() * 1000.0;
+            y[i] = random.nextDouble() * 1000.0;
+        }
+        double[][] distanceMatrix = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < n; j++) {
+                distanceMatrix[i][j] = Math.hypot(x[i] - x[j], y[i] - y[j]);
+            }
+        }
+        return distanceMatrix;
+    }
+}